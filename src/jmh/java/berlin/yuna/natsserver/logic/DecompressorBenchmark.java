@@ -0,0 +1,126 @@
+package berlin.yuna.natsserver.logic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * {@link Decompressor#extractAndReturnBiggest(Path, Path)} on generated fixture archives shaped like a server release <br />
+ * (binary, README, LICENSE)
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DecompressorBenchmark {
+
+    @Param({"zip", "tar.gz", "gz"})
+    public String type;
+
+    @Param({"16"})
+    public int binaryMb;
+
+    private Path directory;
+    private Path archive;
+    private Path target;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("decompressor_benchmark_");
+        archive = directory.resolve("nats-server." + type);
+        target = directory.resolve("extracted").resolve("nats-server");
+        final byte[] binary = new byte[binaryMb * 1024 * 1024];
+        // half random, half zeros - compresses roughly like a go binary
+        new Random(42).nextBytes(binary);
+        Arrays.fill(binary, binary.length / 2, binary.length, (byte) 0);
+        final Map<String, byte[]> files = Map.of(
+                "nats-server/nats-server", binary,
+                "nats-server/README.md", "# NATS Server".getBytes(StandardCharsets.UTF_8),
+                "nats-server/LICENSE", "Apache License 2.0".getBytes(StandardCharsets.UTF_8)
+        );
+        switch (type) {
+            case "zip":
+                writeZip(archive, files);
+                break;
+            case "tar.gz":
+                writeTarGz(archive, files);
+                break;
+            default:
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+                    out.write(binary);
+                }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        NatsUtils.deleteDirectoryAsync(directory);
+    }
+
+    @Benchmark
+    public Path extractAndReturnBiggest() throws IOException {
+        return Decompressor.extractAndReturnBiggest(archive, target);
+    }
+
+    private static void writeZip(final Path archive, final Map<String, byte[]> files) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                out.putNextEntry(new ZipEntry(file.getKey()));
+                out.write(file.getValue());
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static void writeTarGz(final Path archive, final Map<String, byte[]> files) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                final byte[] header = new byte[512];
+                final byte[] name = file.getKey().getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(name, 0, header, 0, name.length);
+                writeOctal(header, 100, 8, 0644);
+                writeOctal(header, 124, 12, file.getValue().length);
+                header[156] = '0';
+                Arrays.fill(header, 148, 156, (byte) ' ');
+                long checksum = 0;
+                for (byte b : header) {
+                    checksum += b & 0xff;
+                }
+                writeOctal(header, 148, 7, checksum);
+                out.write(header);
+                out.write(file.getValue());
+                out.write(new byte[(512 - file.getValue().length % 512) % 512]);
+            }
+            out.write(new byte[1024]);
+        }
+    }
+
+    private static void writeOctal(final byte[] header, final int offset, final int length, final long value) {
+        final String octal = String.format("%0" + (length - 1) + "o", value);
+        System.arraycopy(octal.getBytes(StandardCharsets.US_ASCII), 0, header, offset, length - 1);
+    }
+}
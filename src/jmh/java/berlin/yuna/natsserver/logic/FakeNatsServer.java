@@ -0,0 +1,93 @@
+package berlin.yuna.natsserver.logic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Minimal stand-in for the nats-server binary to benchmark the wrapper without the real server <br />
+ * Supports "--port", "--pid" and "--signal stop=[pid]", prints the startup lines to stderr and answers connections with INFO. <br />
+ * Started via a shell script which execs a lean JVM - so start/stop timings include the JVM startup of the fake server (unix only)
+ */
+public class FakeNatsServer {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss.SSSSSS");
+
+    /**
+     * Writes an executable "fake-nats-server" script which starts this class with the current classpath
+     *
+     * @param directory target directory
+     * @return path of the script
+     * @throws IOException if the script can't be written
+     */
+    public static Path install(final Path directory) throws IOException {
+        final String java = ProcessHandle.current().info().command().orElse("java");
+        final Path script = directory.resolve("fake-nats-server");
+        Files.createDirectories(directory);
+        Files.writeString(script, "#!/bin/sh\n"
+                + "exec \"" + java + "\" -Xss256k -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -Xshare:auto"
+                + " -cp \"" + System.getProperty("java.class.path") + "\" " + FakeNatsServer.class.getName() + " \"$@\"\n", StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+        return script;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final Optional<String> signal = arg(args, "--signal");
+        if (signal.isPresent()) {
+            final String[] target = signal.get().split("=");
+            if ("stop".equals(target[0]) || "quit".equals(target[0]) || "term".equals(target[0])) {
+                ProcessHandle.of(Long.parseLong(target[1])).ifPresent(ProcessHandle::destroy);
+            }
+            return;
+        }
+        final int port = arg(args, "--port").map(Integer::parseInt).orElse(4222);
+        final Optional<Path> pidFile = arg(args, "--pid").map(Path::of);
+        final long pid = ProcessHandle.current().pid();
+        // like nats-server: the pid file exists before the port accepts connections
+        if (pidFile.isPresent()) {
+            final Path tmp = Files.writeString(pidFile.get().resolveSibling(pidFile.get().getFileName() + ".tmp"), String.valueOf(pid), StandardCharsets.UTF_8);
+            Files.move(tmp, pidFile.get(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> pidFile.get().toFile().delete()));
+        }
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress("0.0.0.0", port));
+            log(pid, "Starting nats-server");
+            log(pid, "Listening for client connections on 0.0.0.0:" + port);
+            log(pid, "Server is ready");
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    final OutputStream out = socket.getOutputStream();
+                    out.write(("INFO {\"server_id\":\"FAKE\",\"port\":" + port + "}\r\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                } catch (IOException ignored) {
+                    // client went away
+                }
+            }
+        }
+    }
+
+    private static void log(final long pid, final String message) {
+        System.err.println("[" + pid + "] " + LocalDateTime.now().format(TIME) + " [INF] " + message);
+    }
+
+    private static Optional<String> arg(final String[] args, final String key) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith(key + "=")) {
+                return Optional.of(args[i].substring(key.length() + 1));
+            } else if (args[i].equals(key) && i + 1 < args.length) {
+                return Optional.of(args[i + 1]);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,68 @@
+package berlin.yuna.natsserver.logic;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+
+/**
+ * Threads and heap of the JVM while many servers run at once - output pumping is shared, so threads should not grow by two per server <br />
+ * The JDK still keeps one "process reaper" thread per child process
+ */
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class NatsConcurrentInstancesBenchmark {
+
+    @Param({"50"})
+    public int instances;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Resources {
+        public long threads;
+        public long peakThreads;
+        public long heapUsedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            System.gc();
+        }
+    }
+
+    @Benchmark
+    public int startAndStop(final Resources resources) {
+        final List<Nats> servers = new ArrayList<>(instances);
+        try {
+            for (int i = 0; i < instances; i++) {
+                servers.add(new Nats(natsBuilder().port(-1).logForwardRate(0)));
+            }
+            resources.threads = ManagementFactory.getThreadMXBean().getThreadCount();
+            resources.peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+            resources.heapUsedBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            return servers.size();
+        } finally {
+            servers.forEach(Nats::close);
+        }
+    }
+}
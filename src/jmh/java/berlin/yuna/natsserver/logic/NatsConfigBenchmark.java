@@ -0,0 +1,88 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsConfig;
+import berlin.yuna.natsserver.model.MapValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_DOWNLOAD_URL;
+import static berlin.yuna.natsserver.config.NatsConfig.PORT;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsUtils.getEnv;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Config lookups before (string scanning per call) and after (cached {@link NatsConfigSnapshot})
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NatsConfigBenchmark {
+
+    private Nats nats;
+
+    @Setup
+    public void setup() {
+        nats = new Nats(natsBuilder().autostart(false));
+    }
+
+    @Benchmark
+    public String downloadUrl_scanning() {
+        return legacyResolve(nats.configMap.get(NATS_DOWNLOAD_URL).value(), nats.configMap);
+    }
+
+    @Benchmark
+    public String downloadUrl_snapshot() {
+        return nats.getValue(NATS_DOWNLOAD_URL);
+    }
+
+    @Benchmark
+    public String port_scanning() {
+        return legacyResolve(nats.configMap.get(PORT).value(), nats.configMap);
+    }
+
+    @Benchmark
+    public String port_snapshot() {
+        return nats.getValue(PORT);
+    }
+
+    @Benchmark
+    public Object binary_snapshot() {
+        return nats.binary();
+    }
+
+    @Benchmark
+    public Object pidFile_snapshot() {
+        return nats.pidFile();
+    }
+
+    /**
+     * Previous implementation of {@link NatsUtils#resolveEnvs(String, Map)} as baseline
+     */
+    private static String legacyResolve(final String input, final Map<NatsConfig, MapValue> config) {
+        String result = input;
+        int start;
+        int end;
+        while (result != null && (start = result.indexOf("%")) != -1 && (end = result.indexOf("%", start + 1)) != -1) {
+            final String key = result.substring(start + 1, end);
+            result = result.substring(0, start)
+                    + ofNullable(config.get(NatsConfig.valueOf(key))).map(MapValue::value).orElseGet(() -> getEnv(key, () -> ""))
+                    + result.substring(end + 1);
+        }
+        return result;
+    }
+}
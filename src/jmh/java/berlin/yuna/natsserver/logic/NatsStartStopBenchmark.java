@@ -0,0 +1,58 @@
+package berlin.yuna.natsserver.logic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_BINARY_PATH;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+
+/**
+ * Full start/stop cycle against the {@link FakeNatsServer} - no download, no real server (unix only) <br />
+ * Includes port allocation, runtime config, spawn, readiness probing, stop signal and cleanup
+ */
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class NatsStartStopBenchmark {
+
+    private Path directory;
+    private Path binary;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("nats_start_stop_benchmark_");
+        binary = FakeNatsServer.install(directory);
+    }
+
+    @TearDown
+    public void tearDown() {
+        NatsUtils.deleteDirectoryAsync(directory);
+    }
+
+    /**
+     * Without shutdown hook the stopped instance is not kept reachable until the fork exits
+     */
+    @Benchmark
+    public int startStop() {
+        try (final Nats nats = new Nats(natsBuilder().port(-1).shutdownHook(false).logForwardRate(0).config(NATS_BINARY_PATH, binary.toString()))) {
+            return nats.pid();
+        }
+    }
+}
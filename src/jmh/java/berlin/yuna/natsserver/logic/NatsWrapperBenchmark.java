@@ -0,0 +1,93 @@
+package berlin.yuna.natsserver.logic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM_MAX_MEMORY_STORE;
+import static berlin.yuna.natsserver.config.NatsConfig.MAX_PAYLOAD;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_DOWNLOAD_URL;
+import static berlin.yuna.natsserver.config.NatsConfig.PING_INTERVAL;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+
+/**
+ * Hot paths of the wrapper which run before the server process starts
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class NatsWrapperBenchmark {
+
+    private Nats nats;
+    private Nats reloadable;
+    private String downloadUrl;
+
+    @Setup
+    public void setup() {
+        nats = new Nats(natsBuilder().autostart(false).shutdownHook(false).port(4222).jetStream(true));
+        reloadable = new Nats(natsBuilder().autostart(false).shutdownHook(false).port(4222).jetStream(true).reloadable(true)
+                .config(MAX_PAYLOAD, "4096").config(PING_INTERVAL, "30s").config(JETSTREAM_MAX_MEMORY_STORE, "256MB"));
+        downloadUrl = nats.configMap.get(NATS_DOWNLOAD_URL).value();
+    }
+
+    /**
+     * Config layering (defaults, env, property files, DSL) incl. the cached property file discovery <br />
+     * Without shutdown hook nothing keeps the instance reachable - the score contains no hook registration or growing GC pressure
+     */
+    @Benchmark
+    public Nats construct() {
+        return new Nats(natsBuilder().autostart(false).shutdownHook(false));
+    }
+
+    @Benchmark
+    public String resolveEnvs() {
+        return NatsUtils.resolveEnvs(downloadUrl, nats.configMap);
+    }
+
+    /**
+     * Arguments only - the runtime config file is written on start, not while preparing the command
+     */
+    @Benchmark
+    public String prepareCommand() {
+        return nats.prepareCommand();
+    }
+
+    /**
+     * Arguments incl. "--config" for the runtime config
+     */
+    @Benchmark
+    public String prepareCommandRuntimeConf() {
+        return reloadable.prepareCommand();
+    }
+
+    /**
+     * Runtime config content without the file write
+     */
+    @Benchmark
+    public String renderRuntimeConf() {
+        return reloadable.runtimeConf().render();
+    }
+
+    @Benchmark
+    public List<String> prepareCommandLine() {
+        return nats.prepareCommandLine();
+    }
+
+    @Benchmark
+    public int getNextFreePort() {
+        return NatsUtils.getNextFreePort(4222);
+    }
+}
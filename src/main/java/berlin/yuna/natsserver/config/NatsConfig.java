@@ -5,6 +5,9 @@ import berlin.yuna.natsserver.logic.Nats;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
@@ -61,6 +64,18 @@ public enum NatsConfig {
     CONNECT_RETRIES("--connect_retries", null, Integer.class, "For implicit routes, number of connect retries"),
     CLUSTER_LISTEN("--cluster_listen", null, URL.class, "Cluster url from which members can solicit routes"),
 
+    // Tuning Options (config file only)
+    MAX_PAYLOAD(null, null, Integer.class, "Maximum number of bytes in a message payload (default: 1048576)"),
+    MAX_PENDING(null, null, Long.class, "Maximum number of bytes buffered for a client connection (default: 67108864)"),
+    MAX_CONTROL_LINE(null, null, Integer.class, "Maximum length of a protocol line incl. subject (default: 4096)"),
+    MAX_CONNECTIONS(null, null, Integer.class, "Maximum number of active client connections (default: 65536)"),
+    WRITE_DEADLINE(null, null, String.class, "Maximum time to block on a write to a client before it is considered slow e.g. 10s (default: 10s)"),
+    PING_INTERVAL(null, null, String.class, "Interval between server pings to clients e.g. 2m (default: 2m)"),
+    PING_MAX(null, null, Integer.class, "Outstanding pings before a client is disconnected (default: 2)"),
+    JETSTREAM_MAX_MEMORY_STORE(null, null, Long.class, "Maximum bytes of the JetStream memory store - requires " + JETSTREAM.name() + " (default: 75% of memory)"),
+    JETSTREAM_MAX_FILE_STORE(null, null, Long.class, "Maximum bytes of the JetStream file store - requires " + JETSTREAM.name() + " (default: 1TB)"),
+    JETSTREAM_SYNC_INTERVAL(null, null, String.class, "Interval to fsync the JetStream file store e.g. 2m or always - requires " + JETSTREAM.name() + " (default: 2m)"),
+
     //Profiling Options
     PROFILE("--profile", null, Integer.class, "Profiling HTTP port"),
 
@@ -71,7 +86,23 @@ public enum NatsConfig {
     //WRAPPER configs
     NATS_AUTOSTART(null, true, Boolean.class, "[true] == auto closable, [false] == manual use `.start()` method (default: true)"),
     NATS_SHUTDOWN_HOOK(null, true, Boolean.class, "[true] == registers a shutdown hook, [false] == manual use `.stop()` method (default: true)"),
+    NATS_STORE_CLEANUP(null, false, Boolean.class, "[true] == deletes the " + STORE_DIR.name() + " asynchronously after shutdown, [false] == keeps the store (default: false)"),
+    NATS_REUSE(null, false, Boolean.class, "[true] == attaches to a running server with the same config fingerprint (also from other JVMs) instead of starting a new one - requires a fixed " + PORT.name() + " and logs to a file next to the " + PID.name() + " file as the server can outlive the JVM which started it, [false] == always starts a new server (default: false)"),
+    NATS_REUSE_KEEP_ALIVE(null, false, Boolean.class, "[true] == a reused server keeps running after the last user closed it, [false] == the last user stops the server (default: false)"),
+    NATS_RELOADABLE(null, false, Boolean.class, "[true] == starts the server with a generated runtime config, so reconfigure hot reloads reloadable options, [false] == the runtime config is only used for config file options or after the first reconfigure (default: false)"),
+    NATS_MONITOR(null, false, Boolean.class, "[true] == enables the monitoring endpoint on a free " + HTTP_PORT.name() + " if none is set, [false] == monitoring only with " + HTTP_PORT.name() + " (default: false)"),
+    NATS_PPROF(null, false, Boolean.class, "[true] == enables the go pprof endpoint on a free " + PROFILE.name() + " port if none is set, [false] == pprof only with " + PROFILE.name() + " (default: false)"),
+    NATS_PRESET(null, null, String.class, "Performance preset which fills the defaults of the tuning options [THROUGHPUT, LOW_LATENCY, SMALL_FOOTPRINT]"),
+    NATS_GOMAXPROCS(null, null, Integer.class, "GOMAXPROCS of the server process - max cpu threads of the go runtime (default: all cores)"),
+    NATS_GOMEMLIMIT(null, null, String.class, "GOMEMLIMIT of the server process - soft memory limit of the go runtime e.g. 512MiB"),
+    NATS_GOGC(null, null, String.class, "GOGC of the server process - go garbage collector target percentage e.g. 200 or off (default: 100)"),
+    NATS_CPU_AFFINITY(null, null, String.class, "CPU list the server process is pinned to via taskset e.g. 0-1 or 2,3 (linux only)"),
+    NATS_CGROUP_MEMORY_MAX(null, null, String.class, "cgroup v2 memory.max of the server process e.g. 512M - requires a writable cgroup (linux only)"),
+    NATS_CGROUP_CPU_MAX(null, null, String.class, "cgroup v2 cpu limit of the server process in cores e.g. 1.5 - requires a writable cgroup (linux only)"),
+    NATS_CGROUP_PARENT(null, null, String.class, "Delegated cgroup v2 directory the server cgroup is created in (default: parent of the jvm cgroup, linux only)"),
     NATS_LOG_LEVEL(null, null, String.class, "java log level e.g. [OFF, SEVERE, WARNING, INFO, CONFIG, FINE, FINER, FINEST, ALL]"),
+    NATS_LOG_BUFFER(null, 1024, Integer.class, "Max server output lines kept in memory for awaitLog and tail (default: 1024)"),
+    NATS_LOG_FORWARD_RATE(null, 1000, Integer.class, "Max server output lines per second forwarded to the java logger, [0] == no forwarding (default: 1000)"),
     NATS_TIMEOUT_MS(null, 10000, String.class, "true = auto closable, false manual use `.start()` method"),
     NATS_SYSTEM(null, null, String.class, "suffix for binary path"),
 
@@ -85,6 +116,12 @@ public enum NatsConfig {
 
     NATS_PROPERTY_FILE(null, null, Path.class, "Additional config file (properties / KV) same as DSL configs"),
 
+    NATS_PROPERTY_DEPTH(null, 10, Integer.class, "Max directory depth below user.dir to search for property files (default: 10)"),
+
+    NATS_PROPERTY_IGNORE(null, ".git,target,build,node_modules", String.class, "Comma separated directory globs which are skipped when searching property files (default: .git,target,build,node_modules)"),
+
+    NATS_PROPERTY_PARALLEL(null, false, Boolean.class, "[true] == searches property files in parallel, [false] == single threaded (default: false)"),
+
     NATS_ARGS(null, null, String.class, "custom arguments separated by &&");
 
     public static final String ARGS_SEPARATOR = "&&";
@@ -94,6 +131,9 @@ public enum NatsConfig {
         return Arrays.stream(ALL_LOG_LEVEL).filter(value -> value.getName().equalsIgnoreCase(level)).findFirst().orElse(null);
     }
 
+    public static final String JETSTREAM_BLOCK = "jetstream.";
+    private static final Map<NatsConfig, String> CONF_KEYS = confKeys();
+
     private final String key;
     private final Class<?> type;
     private final Object defaultValue;
@@ -139,6 +179,47 @@ public enum NatsConfig {
         return type;
     }
 
+    /**
+     * Config file key - nested blocks are separated by dots e.g. "authorization.user"
+     *
+     * @return key for the config file or null if the option is command line only
+     */
+    public String confKey() {
+        return CONF_KEYS.get(this);
+    }
+
+    /**
+     * @return true if the running server can apply the option via config reload without restart
+     */
+    public boolean isReloadable() {
+        return CONF_KEYS.containsKey(this) && !confKey().startsWith(JETSTREAM_BLOCK);
+    }
+
+    private static Map<NatsConfig, String> confKeys() {
+        final Map<NatsConfig, String> result = new EnumMap<>(NatsConfig.class);
+        result.put(LOG_TIMELOG_TIME, "logtime");
+        result.put(SYSLOG, "syslog");
+        result.put(REMOTE_SYSLOG, "remote_syslog");
+        result.put(DEBUG, "debug");
+        result.put(TRACE, "trace");
+        result.put(VV, "trace_verbose");
+        result.put(MAX_TRACED_MSG_LEN, "max_traced_msg_len");
+        result.put(USER, "authorization.user");
+        result.put(PASS, "authorization.password");
+        result.put(AUTH, "authorization.token");
+        result.put(MAX_PAYLOAD, "max_payload");
+        result.put(MAX_PENDING, "max_pending");
+        result.put(MAX_CONTROL_LINE, "max_control_line");
+        result.put(MAX_CONNECTIONS, "max_connections");
+        result.put(WRITE_DEADLINE, "write_deadline");
+        result.put(PING_INTERVAL, "ping_interval");
+        result.put(PING_MAX, "ping_max");
+        result.put(JETSTREAM_MAX_MEMORY_STORE, JETSTREAM_BLOCK + "max_memory_store");
+        result.put(JETSTREAM_MAX_FILE_STORE, JETSTREAM_BLOCK + "max_file_store");
+        result.put(JETSTREAM_SYNC_INTERVAL, JETSTREAM_BLOCK + "sync_interval");
+        return Collections.unmodifiableMap(result);
+    }
+
     @SuppressWarnings("java:S2094")
     public static class SilentBoolean extends AtomicBoolean {
         //DUMMY CLASS
@@ -1,7 +1,10 @@
 package berlin.yuna.natsserver.config;
 
+import berlin.yuna.natsserver.logic.NatsLifecycleListener;
+
 import java.nio.file.Path;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Level;
@@ -17,10 +20,16 @@ public class NatsOptions implements io.nats.commons.NatsOptions {
 
     protected final Logger logger;
     protected final Map<NatsConfig, String> config;
+    protected final List<NatsLifecycleListener> listeners;
 
     public NatsOptions(final Logger logger, final Map<NatsConfig, String> config) {
+        this(logger, config, null);
+    }
+
+    public NatsOptions(final Logger logger, final Map<NatsConfig, String> config, final List<NatsLifecycleListener> listeners) {
         this.logger = logger;
         this.config = config == null ? new EnumMap<>(NatsConfig.class) : new EnumMap<>(config);
+        this.listeners = listeners == null ? List.of() : List.copyOf(listeners);
     }
 
     /**
@@ -92,6 +101,14 @@ public class NatsOptions implements io.nats.commons.NatsOptions {
         return getValue(config, NatsConfig::logLevelOf, NatsConfig.NATS_LOG_LEVEL);
     }
 
+    /**
+     * @return lifecycle listeners
+     * @see NatsLifecycleListener
+     */
+    public List<NatsLifecycleListener> listeners() {
+        return listeners;
+    }
+
     /**
      * @return configMap
      * @see NatsConfig
@@ -109,11 +126,11 @@ public class NatsOptions implements io.nats.commons.NatsOptions {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         final NatsOptions that = (NatsOptions) o;
-        return Objects.equals(logger, that.logger) && Objects.equals(config, that.config);
+        return Objects.equals(logger, that.logger) && Objects.equals(config, that.config) && Objects.equals(listeners, that.listeners);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(logger, config);
+        return Objects.hash(logger, config, listeners);
     }
 }
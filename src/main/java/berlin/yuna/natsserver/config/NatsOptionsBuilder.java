@@ -1,10 +1,13 @@
 package berlin.yuna.natsserver.config;
 
 import berlin.yuna.natsserver.logic.Nats;
+import berlin.yuna.natsserver.logic.NatsLifecycleListener;
 import berlin.yuna.natsserver.logic.NatsUtils;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
@@ -19,6 +22,7 @@ public class NatsOptionsBuilder {
 
     protected Logger logger;
     protected Map<NatsConfig, String> configMap = new EnumMap<>(NatsConfig.class);
+    protected List<NatsLifecycleListener> listeners = new ArrayList<>();
 
     protected NatsOptionsBuilder() {
     }
@@ -27,7 +31,7 @@ public class NatsOptionsBuilder {
      * @return immutable config for {@link Nats}
      */
     public NatsOptions build() {
-        return new NatsOptions(logger, configMap);
+        return new NatsOptions(logger, configMap, listeners);
     }
 
     /**
@@ -209,6 +213,32 @@ public class NatsOptionsBuilder {
         return this;
     }
 
+    /**
+     * @return lifecycle listeners
+     */
+    public List<NatsLifecycleListener> listeners() {
+        return listeners;
+    }
+
+    /**
+     * @param listener lifecycle listener which is called on each phase transition
+     * @return self {@link NatsOptionsBuilder}
+     * @see Nats#startupReport()
+     */
+    public NatsOptionsBuilder listener(final NatsLifecycleListener listener) {
+        ofNullable(listener).ifPresent(listeners::add);
+        return this;
+    }
+
+    /**
+     * @param listeners lifecycle listeners to add
+     * @return self {@link NatsOptionsBuilder}
+     */
+    public NatsOptionsBuilder listeners(final List<NatsLifecycleListener> listeners) {
+        ofNullable(listeners).ifPresent(list -> list.forEach(this::listener));
+        return this;
+    }
+
 
     /**
      * @return custom LogLevel
@@ -263,6 +293,276 @@ public class NatsOptionsBuilder {
         return this;
     }
 
+    /**
+     * @return true = deletes the JetStream store dir asynchronously after shutdown
+     * @see NatsConfig#NATS_STORE_CLEANUP
+     */
+    public Boolean storeCleanup() {
+        return getValueB(configMap, NatsConfig.NATS_STORE_CLEANUP);
+    }
+
+    /**
+     * @param enabled true = deletes the JetStream store dir asynchronously after shutdown, false keeps the store
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_STORE_CLEANUP
+     */
+    public NatsOptionsBuilder storeCleanup(final Boolean enabled) {
+        setValueB(configMap, NatsConfig.NATS_STORE_CLEANUP, enabled);
+        return this;
+    }
+
+    /**
+     * @return true = attaches to a running server with the same config fingerprint instead of starting a new one
+     * @see NatsConfig#NATS_REUSE
+     */
+    public Boolean reuse() {
+        return getValueB(configMap, NatsConfig.NATS_REUSE);
+    }
+
+    /**
+     * @param enabled true = attaches to a running server with the same config fingerprint (also from other JVMs), false always starts a new server
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_REUSE
+     */
+    public NatsOptionsBuilder reuse(final Boolean enabled) {
+        setValueB(configMap, NatsConfig.NATS_REUSE, enabled);
+        return this;
+    }
+
+    /**
+     * @return true = starts the server with a generated runtime config
+     * @see NatsConfig#NATS_RELOADABLE
+     */
+    public Boolean reloadable() {
+        return getValueB(configMap, NatsConfig.NATS_RELOADABLE);
+    }
+
+    /**
+     * @param enabled true = starts the server with a generated runtime config, so {@link berlin.yuna.natsserver.logic.Nats#reconfigure(java.util.Map)} hot reloads from the first call
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_RELOADABLE
+     */
+    public NatsOptionsBuilder reloadable(final Boolean enabled) {
+        setValueB(configMap, NatsConfig.NATS_RELOADABLE, enabled);
+        return this;
+    }
+
+    /**
+     * @return true = enables the monitoring endpoint on a free http port
+     * @see NatsConfig#NATS_MONITOR
+     */
+    public Boolean monitor() {
+        return getValueB(configMap, NatsConfig.NATS_MONITOR);
+    }
+
+    /**
+     * @param enabled true = enables the monitoring endpoint on a free http port if {@link NatsConfig#HTTP_PORT} is not set
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_MONITOR
+     */
+    public NatsOptionsBuilder monitor(final Boolean enabled) {
+        setValueB(configMap, NatsConfig.NATS_MONITOR, enabled);
+        return this;
+    }
+
+    /**
+     * @return true = enables the go pprof endpoint on a free port
+     * @see NatsConfig#NATS_PPROF
+     */
+    public Boolean pprof() {
+        return getValueB(configMap, NatsConfig.NATS_PPROF);
+    }
+
+    /**
+     * @param enabled true = enables the go pprof endpoint on a free port if {@link NatsConfig#PROFILE} is not set
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_PPROF
+     */
+    public NatsOptionsBuilder pprof(final Boolean enabled) {
+        setValueB(configMap, NatsConfig.NATS_PPROF, enabled);
+        return this;
+    }
+
+    /**
+     * @return performance preset
+     * @see NatsConfig#NATS_PRESET
+     */
+    public NatsPreset preset() {
+        return NatsPreset.presetOf(configMap.get(NatsConfig.NATS_PRESET));
+    }
+
+    /**
+     * @param preset performance preset which fills the defaults of the tuning options e.g. {@link NatsConfig#MAX_PAYLOAD}
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_PRESET
+     */
+    public NatsOptionsBuilder preset(final NatsPreset preset) {
+        configMap.put(NatsConfig.NATS_PRESET, ofNullable(preset).map(NatsPreset::name).orElse(null));
+        return this;
+    }
+
+    /**
+     * @return GOMAXPROCS of the server process
+     * @see NatsConfig#NATS_GOMAXPROCS
+     */
+    public Integer goMaxProcs() {
+        return getValueI(configMap, NatsConfig.NATS_GOMAXPROCS);
+    }
+
+    /**
+     * @param goMaxProcs max cpu threads of the go runtime of the server process
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_GOMAXPROCS
+     */
+    public NatsOptionsBuilder goMaxProcs(final Integer goMaxProcs) {
+        setValueI(configMap, NatsConfig.NATS_GOMAXPROCS, goMaxProcs);
+        return this;
+    }
+
+    /**
+     * @return GOMEMLIMIT of the server process
+     * @see NatsConfig#NATS_GOMEMLIMIT
+     */
+    public String goMemLimit() {
+        return configMap.get(NatsConfig.NATS_GOMEMLIMIT);
+    }
+
+    /**
+     * @param goMemLimit soft memory limit of the go runtime of the server process e.g. 512MiB
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_GOMEMLIMIT
+     */
+    public NatsOptionsBuilder goMemLimit(final String goMemLimit) {
+        configMap.put(NatsConfig.NATS_GOMEMLIMIT, goMemLimit);
+        return this;
+    }
+
+    /**
+     * @return GOGC of the server process
+     * @see NatsConfig#NATS_GOGC
+     */
+    public String goGc() {
+        return configMap.get(NatsConfig.NATS_GOGC);
+    }
+
+    /**
+     * @param goGc garbage collector target percentage of the server process e.g. 200 or off
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_GOGC
+     */
+    public NatsOptionsBuilder goGc(final String goGc) {
+        configMap.put(NatsConfig.NATS_GOGC, goGc);
+        return this;
+    }
+
+    /**
+     * @return cpu list the server process is pinned to
+     * @see NatsConfig#NATS_CPU_AFFINITY
+     */
+    public String cpuAffinity() {
+        return configMap.get(NatsConfig.NATS_CPU_AFFINITY);
+    }
+
+    /**
+     * @param cpuList cpu list the server process is pinned to via taskset e.g. 0-1 or 2,3
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_CPU_AFFINITY
+     */
+    public NatsOptionsBuilder cpuAffinity(final String cpuList) {
+        configMap.put(NatsConfig.NATS_CPU_AFFINITY, cpuList);
+        return this;
+    }
+
+    /**
+     * @return cgroup v2 memory limit of the server process
+     * @see NatsConfig#NATS_CGROUP_MEMORY_MAX
+     */
+    public String cgroupMemoryMax() {
+        return configMap.get(NatsConfig.NATS_CGROUP_MEMORY_MAX);
+    }
+
+    /**
+     * @param memoryMax cgroup v2 memory.max of the server process e.g. 512M
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_CGROUP_MEMORY_MAX
+     */
+    public NatsOptionsBuilder cgroupMemoryMax(final String memoryMax) {
+        configMap.put(NatsConfig.NATS_CGROUP_MEMORY_MAX, memoryMax);
+        return this;
+    }
+
+    /**
+     * @return cgroup v2 cpu limit of the server process in cores
+     * @see NatsConfig#NATS_CGROUP_CPU_MAX
+     */
+    public Double cgroupCpuMax() {
+        return getValue(configMap, Double::parseDouble, NatsConfig.NATS_CGROUP_CPU_MAX);
+    }
+
+    /**
+     * @param cores cgroup v2 cpu limit of the server process in cores e.g. 1.5
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_CGROUP_CPU_MAX
+     */
+    public NatsOptionsBuilder cgroupCpuMax(final Double cores) {
+        setValue(configMap, Object::toString, NatsConfig.NATS_CGROUP_CPU_MAX, cores);
+        return this;
+    }
+
+    /**
+     * @return delegated cgroup v2 directory the server cgroup is created in
+     * @see NatsConfig#NATS_CGROUP_PARENT
+     */
+    public String cgroupParent() {
+        return configMap.get(NatsConfig.NATS_CGROUP_PARENT);
+    }
+
+    /**
+     * @param parent delegated cgroup v2 directory e.g. /sys/fs/cgroup/nats.slice
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_CGROUP_PARENT
+     */
+    public NatsOptionsBuilder cgroupParent(final String parent) {
+        configMap.put(NatsConfig.NATS_CGROUP_PARENT, parent);
+        return this;
+    }
+
+    /**
+     * @return max server output lines kept in memory
+     * @see NatsConfig#NATS_LOG_BUFFER
+     */
+    public Integer logBuffer() {
+        return getValueI(configMap, NatsConfig.NATS_LOG_BUFFER);
+    }
+
+    /**
+     * @param lines max server output lines kept in memory for {@link Nats#awaitLog(String, long)} and {@link Nats#tail(int)}
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_LOG_BUFFER
+     */
+    public NatsOptionsBuilder logBuffer(final Integer lines) {
+        setValueI(configMap, NatsConfig.NATS_LOG_BUFFER, lines);
+        return this;
+    }
+
+    /**
+     * @return max server output lines per second forwarded to the logger
+     * @see NatsConfig#NATS_LOG_FORWARD_RATE
+     */
+    public Integer logForwardRate() {
+        return getValueI(configMap, NatsConfig.NATS_LOG_FORWARD_RATE);
+    }
+
+    /**
+     * @param linesPerSecond max server output lines per second forwarded to the logger, 0 == no forwarding
+     * @return self {@link NatsOptionsBuilder}
+     * @see NatsConfig#NATS_LOG_FORWARD_RATE
+     */
+    public NatsOptionsBuilder logForwardRate(final Integer linesPerSecond) {
+        setValueI(configMap, NatsConfig.NATS_LOG_FORWARD_RATE, linesPerSecond);
+        return this;
+    }
+
     /**
      * @return defines the start-up timeout in milliseconds (-1 == default)
      */
@@ -0,0 +1,91 @@
+package berlin.yuna.natsserver.config;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM_MAX_FILE_STORE;
+import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM_MAX_MEMORY_STORE;
+import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM_SYNC_INTERVAL;
+import static berlin.yuna.natsserver.config.NatsConfig.MAX_CONNECTIONS;
+import static berlin.yuna.natsserver.config.NatsConfig.MAX_CONTROL_LINE;
+import static berlin.yuna.natsserver.config.NatsConfig.MAX_PAYLOAD;
+import static berlin.yuna.natsserver.config.NatsConfig.MAX_PENDING;
+import static berlin.yuna.natsserver.config.NatsConfig.PING_INTERVAL;
+import static berlin.yuna.natsserver.config.NatsConfig.PING_MAX;
+import static berlin.yuna.natsserver.config.NatsConfig.WRITE_DEADLINE;
+
+/**
+ * Performance presets for the tuning options of the generated nats config <br />
+ * Preset values replace only the defaults - values from env, property files and DSL still win
+ *
+ * @author Yuna Morgenstern
+ * @see NatsConfig#NATS_PRESET
+ * @since 2.14
+ */
+public enum NatsPreset {
+
+    /**
+     * Large payloads and buffers, lenient slow consumer detection and lazy JetStream fsync
+     */
+    THROUGHPUT(Map.of(
+            MAX_PAYLOAD, "8388608",
+            MAX_PENDING, "268435456",
+            MAX_CONTROL_LINE, "8192",
+            WRITE_DEADLINE, "10s",
+            JETSTREAM_SYNC_INTERVAL, "2m"
+    )),
+
+    /**
+     * Small buffers and short deadlines so slow or dead clients can't delay the others
+     */
+    LOW_LATENCY(Map.of(
+            MAX_PAYLOAD, "1048576",
+            MAX_PENDING, "16777216",
+            WRITE_DEADLINE, "500ms",
+            PING_INTERVAL, "10s",
+            PING_MAX, "2"
+    )),
+
+    /**
+     * Minimal buffers and capped JetStream storage for CI and embedded test setups
+     */
+    SMALL_FOOTPRINT(Map.of(
+            MAX_PAYLOAD, "65536",
+            MAX_PENDING, "4194304",
+            MAX_CONTROL_LINE, "1024",
+            MAX_CONNECTIONS, "256",
+            JETSTREAM_MAX_MEMORY_STORE, "67108864",
+            JETSTREAM_MAX_FILE_STORE, "268435456"
+    ));
+
+    private final Map<NatsConfig, String> config;
+
+    NatsPreset(final Map<NatsConfig, String> config) {
+        this.config = Collections.unmodifiableMap(new EnumMap<>(config));
+    }
+
+    /**
+     * @return preset values
+     */
+    public Map<NatsConfig, String> config() {
+        return config;
+    }
+
+    /**
+     * @param name preset name - case insensitive, "-" is treated as "_"
+     * @return preset or null if the name is empty or unknown
+     */
+    public static NatsPreset presetOf(final String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        final String normalized = name.trim().replace('-', '_');
+        for (NatsPreset preset : values()) {
+            if (preset.name().equalsIgnoreCase(normalized)) {
+                return preset;
+            }
+        }
+        return null;
+    }
+}
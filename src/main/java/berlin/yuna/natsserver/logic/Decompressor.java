@@ -11,7 +11,7 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
-import static berlin.yuna.natsserver.logic.NatsUtils.deleteDirectory;
+import static berlin.yuna.natsserver.logic.NatsUtils.deleteDirectoryAsync;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 public final class Decompressor {
@@ -47,7 +47,7 @@ public final class Decompressor {
             if (tarFile != null) {
                 Files.deleteIfExists(tarFile);
             }
-            deleteDirectory(tempDir);
+            deleteDirectoryAsync(tempDir);
         }
     }
 
@@ -1,18 +1,22 @@
 package berlin.yuna.natsserver.logic;
 
 import berlin.yuna.clu.logic.SystemUtil;
-import berlin.yuna.clu.logic.Terminal;
 import berlin.yuna.natsserver.config.NatsConfig;
 import berlin.yuna.natsserver.config.NatsOptions;
 import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.config.NatsPreset;
 import berlin.yuna.natsserver.model.MapValue;
+import berlin.yuna.natsserver.model.NatsConf;
+import berlin.yuna.natsserver.model.NatsPhase;
 import berlin.yuna.natsserver.model.ValueSource;
 import berlin.yuna.natsserver.model.exception.NatsDownloadException;
 import berlin.yuna.natsserver.model.exception.NatsStartException;
 import io.nats.commons.NatsInterface;
+import io.nats.commons.StartupReport;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.InputStream;
 import java.net.BindException;
 import java.net.PortUnreachableException;
@@ -21,16 +25,30 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static berlin.yuna.clu.logic.SystemUtil.OS;
 import static berlin.yuna.clu.model.OsType.OS_WINDOWS;
@@ -39,20 +57,38 @@ import static berlin.yuna.natsserver.config.NatsConfig.CONFIG;
 import static berlin.yuna.natsserver.config.NatsConfig.DEBUG;
 import static berlin.yuna.natsserver.config.NatsConfig.DV;
 import static berlin.yuna.natsserver.config.NatsConfig.DVV;
+import static berlin.yuna.natsserver.config.NatsConfig.HTTP_PORT;
 import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM;
+import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM_BLOCK;
+import static berlin.yuna.natsserver.config.NatsConfig.LOG;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_ARGS;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_AUTOSTART;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_BINARY_PATH;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_DOWNLOAD_URL;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_LOG_BUFFER;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_LOG_FORWARD_RATE;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_LOG_NAME;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_MONITOR;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_PPROF;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_PRESET;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_PROPERTY_DEPTH;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_PROPERTY_FILE;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_PROPERTY_IGNORE;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_PROPERTY_PARALLEL;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_RELOADABLE;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_REUSE;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_REUSE_KEEP_ALIVE;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_SHUTDOWN_HOOK;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_STORE_CLEANUP;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_SYSTEM;
 import static berlin.yuna.natsserver.config.NatsConfig.NATS_TIMEOUT_MS;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_VERSION;
 import static berlin.yuna.natsserver.config.NatsConfig.NET;
 import static berlin.yuna.natsserver.config.NatsConfig.PID;
 import static berlin.yuna.natsserver.config.NatsConfig.PORT;
+import static berlin.yuna.natsserver.config.NatsConfig.PROFILE;
 import static berlin.yuna.natsserver.config.NatsConfig.SIGNAL;
+import static berlin.yuna.natsserver.config.NatsConfig.STORE_DIR;
 import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
 import static berlin.yuna.natsserver.logic.Decompressor.extractAndReturnBiggest;
 import static berlin.yuna.natsserver.logic.NatsUtils.download;
@@ -61,8 +97,8 @@ import static berlin.yuna.natsserver.logic.NatsUtils.getNextFreePort;
 import static berlin.yuna.natsserver.logic.NatsUtils.getPropertyFiles;
 import static berlin.yuna.natsserver.logic.NatsUtils.ignoreException;
 import static berlin.yuna.natsserver.logic.NatsUtils.isNotEmpty;
+import static berlin.yuna.natsserver.logic.NatsUtils.reapTombstones;
 import static berlin.yuna.natsserver.logic.NatsUtils.removeQuotes;
-import static berlin.yuna.natsserver.logic.NatsUtils.resolveEnvs;
 import static berlin.yuna.natsserver.logic.NatsUtils.validatePort;
 import static berlin.yuna.natsserver.logic.NatsUtils.waitForPort;
 import static berlin.yuna.natsserver.model.MapValue.mapValueOf;
@@ -98,9 +134,29 @@ public class Nats implements NatsInterface {
     protected final Long timeoutMs;
     private final Logger logger;
     protected final Map<NatsConfig, MapValue> configMap = new ConcurrentHashMap<>();
-    protected final AtomicReference<Terminal> terminal = new AtomicReference<>(null);
+    protected final AtomicLong configVersion = new AtomicLong(0);
+    protected final Map<NatsConfig, String> overlays = new ConcurrentHashMap<>();
+    private volatile NatsConfigSnapshot snapshot;
+    private volatile List<String> baseArgs;
+    private volatile long baseArgsVersion = -1;
+    private volatile boolean baseArgsRuntimeConf;
+    private volatile boolean runtimeConfActive;
+    private volatile boolean reloadRequested;
+    protected final AtomicReference<Process> process = new AtomicReference<>(null);
+    protected final AtomicBoolean leased = new AtomicBoolean(false);
+    private volatile Path cgroup;
+    private volatile StartupReport startupReport;
+    protected final NatsLogBuffer logs;
+    protected final NatsLogParser logEvents = new NatsLogParser();
+    protected final List<NatsLifecycleListener> listeners = new CopyOnWriteArrayList<>();
+    protected final Map<NatsPhase, Long> phaseNanos = new ConcurrentHashMap<>();
+    protected final Thread shutdownHook;
     public static final String NATS_PREFIX = "NATS_";
+    protected static final Set<NatsConfig> OVERLAY_KEYS = Collections.unmodifiableSet(EnumSet.of(PORT, HTTP_PORT, PROFILE, PID, LOG));
+    protected static final Set<NatsConfig> AUTO_PORT_KEYS = Collections.unmodifiableSet(EnumSet.of(HTTP_PORT, PROFILE));
     private static final String TMP_DIR = "java.io.tmpdir";
+    protected static final int MONITOR_PORT = 8222;
+    protected static final int PPROF_PORT = 6060;
 
     /**
      * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException} <br />
@@ -152,18 +208,27 @@ public class Nats implements NatsInterface {
      * @param natsOptions nats options
      */
     public Nats(final io.nats.commons.NatsOptions natsOptions) {
-        ofNullable(getValue(NATS_SHUTDOWN_HOOK)).filter(Boolean::valueOf).ifPresent(shutdownHook -> Runtime.getRuntime().addShutdownHook(new Thread(this::close)));
         final var timeoutMsTmp = new AtomicLong(-1);
         if (natsOptions instanceof NatsOptions) {
             ((NatsOptions) natsOptions).config().forEach(this::addConfig);
+            listeners.addAll(((NatsOptions) natsOptions).listeners());
         }
         setDefaultConfig();
         setEnvConfig();
-        setConfigFromProperties();
+        final NatsLifecycleEvent propertyFiles = beginPhase(NatsPhase.PROPERTY_FILES);
+        try {
+            setConfigFromProperties();
+        } finally {
+            endPhase(propertyFiles);
+        }
         setConfigFromNatsOptions(natsOptions);
+        setPresetConfig();
+        this.shutdownHook = parseBoolean(getValue(NATS_SHUTDOWN_HOOK)) ? new Thread(this::close) : null;
+        ofNullable(shutdownHook).ifPresent(Runtime.getRuntime()::addShutdownHook);
         this.name = getValue(NATS_LOG_NAME);
         this.timeoutMs = Long.parseLong(getValue(NATS_TIMEOUT_MS));
         this.logger = ofNullable(natsOptions.logger()).orElse(Logger.getLogger(name));
+        this.logs = new NatsLogBuffer(Integer.parseInt(getValue(NATS_LOG_BUFFER)));
         ofNullable(natsOptions.logLevel()).ifPresent(logger::setLevel);
         ofNullable(getValue(NATS_AUTOSTART)).filter(Boolean::valueOf).ifPresent(autostart -> start());
     }
@@ -179,28 +244,126 @@ public class Nats implements NatsInterface {
      * @return {@link Nats}
      */
     public synchronized Nats start() {
+        if ((process.get() != null && process.get().isAlive()) || leased.get()) {
+            logger.severe(() -> format("[%s] is already running", logger.getName()));
+            return this;
+        }
+        phaseNanos.clear();
+        final NatsLifecycleEvent startPhase = beginPhase(NatsPhase.START);
         try {
-            if (terminal.get() != null && terminal.get().running()) {
-                logger.severe(() -> format("[%s] is already running", logger.getName()));
+            downloadNats();
+            reapTombstones(Paths.get(getEnv(TMP_DIR)));
+            ofNullable(storeDir()).map(Path::toAbsolutePath).map(Path::getParent).ifPresent(NatsUtils::reapTombstones);
+            if (reuse() && attach()) {
                 return this;
             }
-            downloadNats();
-            final int port = setNextFreePort();
-            validatePort(port, timeoutMs, true, () -> new BindException("Address already in use [" + port + "]"), () -> false);
-            final String command = prepareCommand();
-            logger.info(() -> format("Starting [%s] port [%s] version [%s] command [%s]", name, port, getValue(NATS_SYSTEM), command));
-            startProcess(command);
-            validatePort(port, timeoutMs, false, () -> new PortUnreachableException(name + " failed to start with port [" + port + "]"), () -> terminal.get() == null);
+            final int port;
+            final NatsLifecycleEvent allocation = beginPhase(NatsPhase.PORT_ALLOCATION);
+            try {
+                port = setNextFreePort();
+                setMonitorPort();
+                setProfilePort();
+                validatePort(port, timeoutMs, true, () -> new BindException("Address already in use [" + port + "]"), () -> false);
+            } finally {
+                endPhase(allocation);
+            }
+            final NatsLifecycleEvent spawn = beginPhase(NatsPhase.SPAWN);
+            try {
+                final List<String> command = prepareCommandLine();
+                runtimeConfActive = baseArgsRuntimeConf;
+                if (runtimeConfActive && !writeRuntimeConf()) {
+                    throw new IOException("Could not write runtime config [" + runtimeConfFile() + "]");
+                }
+                logger.info(() -> format("Starting [%s] port [%s] version [%s] command [%s]", name, port, getValue(NATS_SYSTEM), String.join(" ", command)));
+                startProcess(command);
+                cgroup = resources().applyCgroup(name + "-" + port, pid(), logger);
+            } finally {
+                endPhase(spawn);
+            }
+            final NatsLifecycleEvent ready = beginPhase(NatsPhase.READY);
+            try {
+                validatePort(port, timeoutMs, false, () -> new PortUnreachableException(name + " failed to start with port [" + port + "]"), () -> process.get() == null || !process.get().isAlive());
+            } finally {
+                endPhase(ready);
+            }
             logger.info(() -> format("Started [%s] port [%s] version [%s] pid [%s]", name, port, getValue(NATS_SYSTEM), pid()));
+            if (reuse()) {
+                writeAutoPorts();
+                Files.writeString(fingerprintFile(), fingerprint(), StandardCharsets.UTF_8);
+                acquireLease();
+            }
         } catch (Exception e) {
             throw new NatsStartException(e);
+        } finally {
+            endPhase(startPhase);
+            startupReport = new StartupReport(
+                    phaseNanos.getOrDefault(NatsPhase.DOWNLOAD, 0L),
+                    phaseNanos.getOrDefault(NatsPhase.EXTRACT, 0L),
+                    phaseNanos.getOrDefault(NatsPhase.PORT_ALLOCATION, 0L),
+                    phaseNanos.getOrDefault(NatsPhase.SPAWN, 0L),
+                    phaseNanos.getOrDefault(NatsPhase.READY, 0L),
+                    phaseNanos.getOrDefault(NatsPhase.START, 0L)
+            );
         }
         return this;
     }
 
+    /**
+     * @return durations of the last {@link Nats#start()} incl. failed starts or null if not started yet
+     * @see NatsLifecycleListener
+     */
+    @Override
+    public StartupReport startupReport() {
+        return startupReport;
+    }
+
+    /**
+     * @return buffer of the latest server output lines
+     * @see NatsConfig#NATS_LOG_BUFFER
+     */
+    public NatsLogBuffer logs() {
+        return logs;
+    }
+
+    /**
+     * Waits for a server output line - lines which are still in the buffer are included
+     *
+     * @param regex     pattern to find in a line e.g. "Server is ready"
+     * @param timeoutMs max wait time
+     * @return first matching line or null on timeout
+     */
+    public String awaitLog(final String regex, final long timeoutMs) {
+        return logs.awaitLog(Pattern.compile(regex), timeoutMs);
+    }
+
+    /**
+     * @param n max number of lines
+     * @return latest server output lines - oldest first
+     */
+    public List<String> tail(final int n) {
+        return logs.tail(n);
+    }
+
+    /**
+     * @return parser of the server output with counters per event type e.g. slow consumers
+     */
+    public NatsLogParser logEvents() {
+        return logEvents;
+    }
+
+    /**
+     * @param listener lifecycle listener which is called on each phase transition
+     * @return self {@link Nats}
+     */
+    public Nats listener(final NatsLifecycleListener listener) {
+        ofNullable(listener).ifPresent(listeners::add);
+        return this;
+    }
+
+
     @Override
     public Process process() {
-        return ofNullable(terminal.get()).map(Terminal::process).orElse(null);
+        return process.get();
     }
 
     @Override
@@ -219,7 +382,7 @@ public class Nats implements NatsInterface {
     }
 
     /**
-     * @return Path to binary file <br/>
+     * @return Path to binary file - one file per {@link NatsConfig#NATS_VERSION} <br/>
      * see {@link NatsConfig#NATS_BINARY_PATH}
      */
     @Override
@@ -227,7 +390,7 @@ public class Nats implements NatsInterface {
         return Paths.get(getValue(NATS_BINARY_PATH, () -> Paths.get(
                 getEnv(TMP_DIR),
                 getValue(NATS_LOG_NAME).toLowerCase(),
-                getValue(NATS_LOG_NAME).toLowerCase() + "_" + getValue(NATS_SYSTEM) + (OS == OS_WINDOWS ? ".exe" : "")
+                getValue(NATS_LOG_NAME).toLowerCase() + "_" + getValue(NATS_VERSION) + "_" + getValue(NATS_SYSTEM) + (OS == OS_WINDOWS ? ".exe" : "")
         ).toString()));
     }
 
@@ -269,6 +432,14 @@ public class Nats implements NatsInterface {
         return ofNullable(getValue(CONFIG, () -> null)).map(Path::of).orElse(null);
     }
 
+    /**
+     * @return JetStream store directory or null if the server default is used <br/>
+     * see {@link NatsConfig#STORE_DIR}
+     */
+    public Path storeDir() {
+        return ofNullable(getValue(STORE_DIR, () -> null)).filter(NatsUtils::isNotEmpty).map(Path::of).orElse(null);
+    }
+
     /**
      * @return custom property config file <br/>
      * see {@link NatsConfig#NATS_PROPERTY_FILE}
@@ -300,7 +471,28 @@ public class Nats implements NatsInterface {
      * @return config key value
      */
     public String getValue(final NatsConfig key, final Supplier<String> or) {
-        return resolveEnvs(ofNullable(configMap.get(key)).map(MapValue::value).orElseGet(or), configMap);
+        final NatsConfigSnapshot current = snapshot();
+        final String overlay = overlays.get(key);
+        if (overlay != null) {
+            return current.resolve(overlay);
+        }
+        return current.contains(key) ? current.get(key) : current.resolve(or.get());
+    }
+
+    /**
+     * Resolved config which is rebuilt only after {@link Nats#addConfig(ValueSource, NatsConfig, String)} changed a value
+     *
+     * @return resolved config snapshot
+     */
+    protected NatsConfigSnapshot snapshot() {
+        final NatsConfigSnapshot current = snapshot;
+        final long version = configVersion.get();
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        final NatsConfigSnapshot result = NatsConfigSnapshot.of(configMap, version);
+        snapshot = result;
+        return result;
     }
 
     /**
@@ -311,7 +503,7 @@ public class Nats implements NatsInterface {
     public int pid() {
         try {
             return Integer.parseInt(String.join(" ", Files.readAllLines(pidFile(), StandardCharsets.UTF_8)).trim());
-        } catch (IOException e) {
+        } catch (IOException | NumberFormatException e) {
             return -1;
         }
     }
@@ -351,7 +543,9 @@ public class Nats implements NatsInterface {
      * @return nats configuration
      */
     public Map<NatsConfig, String> config() {
-        return configMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().value()));
+        final Map<NatsConfig, String> result = configMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().value()));
+        result.putAll(overlays);
+        return result;
     }
 
     protected void setConfigFromNatsOptions(final io.nats.commons.NatsOptions natsOptions) {
@@ -363,7 +557,12 @@ public class Nats implements NatsInterface {
     }
 
     protected void setConfigFromProperties() {
-        getPropertyFiles(ofNullable(getValue(NATS_PROPERTY_FILE)).filter(NatsUtils::isNotEmpty).orElse("nats.properties")).forEach(path -> {
+        getPropertyFiles(
+                ofNullable(getValue(NATS_PROPERTY_FILE)).filter(NatsUtils::isNotEmpty).orElse("nats.properties"),
+                parseInt(getValue(NATS_PROPERTY_DEPTH)),
+                getValue(NATS_PROPERTY_IGNORE),
+                parseBoolean(getValue(NATS_PROPERTY_PARALLEL))
+        ).forEach(path -> {
             final Properties prop = new Properties();
             try (final InputStream inputStream = new FileInputStream(path.toFile())) {
                 prop.load(inputStream);
@@ -382,6 +581,19 @@ public class Nats implements NatsInterface {
         addConfig(DEFAULT, NATS_SYSTEM, NatsUtils.getSystem());
     }
 
+    /**
+     * Applies the {@link NatsConfig#NATS_PRESET} values as defaults - values from env, property files and DSL still win
+     */
+    protected void setPresetConfig() {
+        final String name = getValue(NATS_PRESET, () -> null);
+        final NatsPreset preset = NatsPreset.presetOf(name);
+        if (preset != null) {
+            preset.config().forEach((key, value) -> addConfig(DEFAULT, key, value));
+        } else if (isNotEmpty(name)) {
+            getLogger(getValue(NATS_LOG_NAME)).warning(() -> format("Unknown preset [%s] - expected one of %s", name, Arrays.toString(NatsPreset.values())));
+        }
+    }
+
     protected void setEnvConfig() {
         for (NatsConfig cfg : NatsConfig.values()) {
             addConfig(ENV, cfg, getEnv(cfg.name().startsWith(NATS_PREFIX) ? cfg.name() : NATS_PREFIX + cfg.name()));
@@ -396,13 +608,79 @@ public class Nats implements NatsInterface {
 
     protected void addConfig(final ValueSource source, final NatsConfig key, final String value) {
         if (value != null) {
+            final String previous = ofNullable(configMap.get(key)).map(MapValue::value).orElse(null);
             configMap.put(key, configMap.computeIfAbsent(key, val -> mapValueOf(source, value)).update(source, value));
+            if (!value.equals(previous) && value.equals(configMap.get(key).value())) {
+                configVersion.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Assigns a free {@link NatsConfig#HTTP_PORT} if {@link NatsConfig#NATS_MONITOR} is enabled and no monitoring port is set
+     */
+    protected void setMonitorPort() {
+        if (parseBoolean(getValue(NATS_MONITOR)) && portOf(HTTP_PORT) <= 0) {
+            overlays.put(HTTP_PORT, String.valueOf(getNextFreePort(MONITOR_PORT - 1, Set.of(port()))));
+        }
+    }
+
+    /**
+     * Assigns a free {@link NatsConfig#PROFILE} port if {@link NatsConfig#NATS_PPROF} is enabled and no profiling port is set
+     */
+    protected void setProfilePort() {
+        if (parseBoolean(getValue(NATS_PPROF)) && portOf(PROFILE) <= 0) {
+            overlays.put(PROFILE, String.valueOf(getNextFreePort(PPROF_PORT - 1, List.of(port(), portOf(HTTP_PORT)))));
+        }
+    }
+
+    /**
+     * @param outputDir root directory for the profiles e.g. next to the benchmark results
+     * @return pprof capture for this server or null if {@link NatsConfig#PROFILE} is not set
+     * @see NatsConfig#NATS_PPROF
+     */
+    public NatsProfiler profiler(final Path outputDir) {
+        final int profilePort = portOf(PROFILE);
+        return profilePort <= 0 ? null : new NatsProfiler("http://" + monitorHost() + ":" + profilePort, getValue(NATS_VERSION), outputDir, timeoutMs);
+    }
+
+    private int portOf(final NatsConfig key) {
+        return ofNullable(getValue(key, () -> null)).filter(NatsUtils::isNotEmpty).map(String::trim).map(Integer::parseInt).orElse(-1);
+    }
+
+    /**
+     * @return client for the monitoring endpoints or null if {@link NatsConfig#HTTP_PORT} is not set
+     * @see NatsConfig#NATS_MONITOR
+     */
+    public NatsMonitor monitor() {
+        final int httpPort = portOf(HTTP_PORT);
+        return httpPort <= 0 ? null : new NatsMonitor("http://" + monitorHost() + ":" + httpPort, timeoutMs);
+    }
+
+    /**
+     * Starts recording "/varz" and "/jsz" metrics
+     *
+     * @param intervalMs sample interval
+     * @param capacity   max samples before downsampling
+     * @return started {@link NatsMetricsRecorder} - close it to stop recording
+     * @throws IllegalStateException if monitoring is disabled see {@link NatsConfig#NATS_MONITOR}
+     */
+    public NatsMetricsRecorder recorder(final long intervalMs, final int capacity) {
+        final NatsMonitor monitor = monitor();
+        if (monitor == null) {
+            throw new IllegalStateException(format("Monitoring of [%s] is disabled - set [%s] or [%s]", name, HTTP_PORT, NATS_MONITOR));
         }
+        return new NatsMetricsRecorder(monitor, intervalMs, capacity).start();
+    }
+
+    private String monitorHost() {
+        final String host = getValue(NET, () -> null);
+        return host == null || host.isBlank() || "0.0.0.0".equals(host) || "::".equals(host) ? "127.0.0.1" : host;
     }
 
     protected int setNextFreePort() {
         if (ofNullable(getValue(PORT, () -> null)).map(Integer::parseInt).orElse(-1) <= 0) {
-            addConfig(configMap.get(PORT).source(), PORT, String.valueOf(getNextFreePort((int) PORT.defaultValue())));
+            overlays.put(PORT, String.valueOf(getNextFreePort((int) PORT.defaultValue())));
         }
         return port();
     }
@@ -414,12 +692,12 @@ public class Nats implements NatsInterface {
         if (Files.notExists(binaryPath)) {
             try {
                 final URL source = new URL(getValue(NATS_DOWNLOAD_URL));
-                extractAndReturnBiggest(download(source, Paths.get(binary().toString() + ".zip")), binaryPath);
+                downloadAndExtract(source, Paths.get(binary().toString() + ".zip"), binaryPath);
             } catch (final Exception e) {
                 final String base = replaceEnds(getValue(NATS_DOWNLOAD_URL), ".zip", ".tar.gz", ".tgz", ".tar");
                 for (String ending : new String[]{".zip", ".tar.gz", ".tgz", ".tar"}) {
                     try {
-                        extractAndReturnBiggest(download(new URL(base + ending), Paths.get(binary().toString() + ending)), binaryPath);
+                        downloadAndExtract(new URL(base + ending), Paths.get(binary().toString() + ending), binaryPath);
                         break;
                     } catch (final Exception ignored) {
                         Files.deleteIfExists(Paths.get(binary().toString() + ending));
@@ -438,6 +716,53 @@ public class Nats implements NatsInterface {
         return binaryPath;
     }
 
+    private void downloadAndExtract(final URL source, final Path archive, final Path binaryPath) throws IOException {
+        final NatsLifecycleEvent downloadPhase = beginPhase(NatsPhase.DOWNLOAD);
+        try {
+            download(source, archive);
+        } finally {
+            endPhase(downloadPhase);
+        }
+        final NatsLifecycleEvent extractPhase = beginPhase(NatsPhase.EXTRACT);
+        try {
+            extractAndReturnBiggest(archive, binaryPath);
+        } finally {
+            endPhase(extractPhase);
+        }
+    }
+
+    /**
+     * Starts a {@link NatsLifecycleEvent} for the phase
+     *
+     * @param phase lifecycle phase
+     * @return started event - must be ended with {@link Nats#endPhase(NatsLifecycleEvent)}
+     */
+    protected NatsLifecycleEvent beginPhase(final NatsPhase phase) {
+        listeners.forEach(listener -> notifyListener(listener, phase, () -> listener.onPhaseStart(this, phase)));
+        return NatsLifecycleEvent.beginPhase(phase);
+    }
+
+    /**
+     * Ends the phase event and notifies the listeners - instance name, port and version are only resolved if the event is recorded
+     *
+     * @param event event from {@link Nats#beginPhase(NatsPhase)}
+     */
+    protected void endPhase(final NatsLifecycleEvent event) {
+        final NatsPhase phase = event.phase();
+        final long durationNanos = event.endPhase(() -> getValue(NATS_LOG_NAME), () -> portOf(PORT), () -> getValue(NATS_VERSION));
+        phaseNanos.merge(phase, durationNanos, Long::sum);
+        listeners.forEach(listener -> notifyListener(listener, phase, () -> listener.onPhaseEnd(this, phase, durationNanos)));
+    }
+
+    private void notifyListener(final NatsLifecycleListener listener, final NatsPhase phase, final Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            ofNullable(logger).orElseGet(() -> Logger.getLogger(Nats.class.getSimpleName()))
+                    .warning(() -> format("Lifecycle listener [%s] failed on phase [%s] cause [%s]", listener, phase, e.getMessage()));
+        }
+    }
+
     public static String replaceEnds(final String str, final String... endings) {
         String result = str;
         for (String ending : endings) {
@@ -448,37 +773,134 @@ public class Nats implements NatsInterface {
         return result;
     }
 
+    /**
+     * @return launch command incl. the {@link NatsResources#commandPrefix(Logger)} e.g. for the cpu affinity
+     */
     protected String prepareCommand() {
-        final StringBuilder command = new StringBuilder();
-        setDefaultConfig();
-        setEnvConfig();
-        setConfigFromProperties();
-        addConfig(DSL, PID, pidFile().toString());
-        command.append(binary().toString());
+        return String.join(" ", prepareCommandLine());
+    }
+
+    /**
+     * Resource prefix, binary and arguments - arguments are split on whitespace like a shell would without quotes
+     *
+     * @return command line for the {@link ProcessBuilder}
+     */
+    protected List<String> prepareCommandLine() {
+        final List<String> args = prepareArgs();
+        final List<String> command = new ArrayList<>(resources().commandPrefix(logger));
+        command.add(args.get(0));
+        args.stream().skip(1).flatMap(arg -> stream(arg.trim().split("\\s+"))).filter(NatsUtils::isNotEmpty).forEach(command::add);
+        return command;
+    }
+
+    /**
+     * Starts sampling RSS, CPU time, threads, open fds and I/O of the server process from /proc (linux only)
+     *
+     * @param intervalMs sample interval
+     * @param capacity   max samples kept in the time series
+     * @return started {@link NatsProcessSampler} - close it to stop sampling
+     */
+    public NatsProcessSampler sampler(final long intervalMs, final int capacity) {
+        return new NatsProcessSampler(this::pid, intervalMs, capacity).start();
+    }
+
+    /**
+     * @return resource limits of the server process
+     */
+    public NatsResources resources() {
+        return NatsResources.resourcesOf(key -> getValue(key, () -> null));
+    }
+
+    /**
+     * Builds the server arguments - the layered config part is cached until {@link Nats#configVersion} changes <br />
+     * Runtime values like the auto assigned {@link NatsConfig#PORT} and the {@link NatsConfig#PID} file are applied as overlays <br />
+     * A reused server logs to a file next to the {@link NatsConfig#PID} file - it can outlive the JVM which owns its stdout and stderr pipes
+     *
+     * @return binary and arguments
+     */
+    protected List<String> prepareArgs() {
+        overlays.remove(PID);
+        overlays.put(PID, pidFile().toString());
+        if (reuse() && !isNotEmpty(getValue(LOG, () -> null))) {
+            overlays.put(LOG, pidFile() + ".log");
+        }
+        return args();
+    }
+
+    /**
+     * @return binary and arguments with the current overlays - no side effects besides the args cache
+     */
+    private List<String> args() {
+        final boolean runtimeConf = useRuntimeConf();
+        final long version = configVersion.get();
+        List<String> base = baseArgs;
+        if (base == null || baseArgsVersion != version || baseArgsRuntimeConf != runtimeConf) {
+            base = buildBaseArgs(runtimeConf);
+            baseArgs = base;
+            baseArgsVersion = version;
+            baseArgsRuntimeConf = runtimeConf;
+        }
+        final List<String> result = new ArrayList<>(base.size() + OVERLAY_KEYS.size() + 1);
+        result.addAll(base);
+        OVERLAY_KEYS.forEach(key -> addArg(result, key, getValue(key, () -> null)));
+        if (runtimeConf) {
+            addArg(result, CONFIG, runtimeConfFile().toString());
+        }
+        return result;
+    }
+
+    private List<String> buildBaseArgs(final boolean runtimeConf) {
+        final List<String> result = new ArrayList<>();
+        result.add(binary().toString());
         configMap.forEach((key, mapValue) -> {
-            if (!key.name().startsWith(NATS_PREFIX) && mapValue != null && isNotEmpty(mapValue.value())) {
-                if (key.isWritableValue() || !"false".equals(mapValue.value())) {
-                    command.append(" ");
-                    command.append(key.key());
-                }
-                if (key.isWritableValue()) {
-                    command.append("=");
-                    command.append(mapValue.value().trim().toLowerCase());
-                }
+            if (!OVERLAY_KEYS.contains(key) && mapValue != null && !(runtimeConf && (key == CONFIG || key.confKey() != null))) {
+                addArg(result, key, mapValue.value());
             }
         });
-        command.append(stream(customArgs()).collect(Collectors.joining(" ", " ", "")));
-        command.append(stream(getValue(NATS_ARGS, () -> "").split(ARGS_SEPARATOR)).map(String::trim).collect(Collectors.joining(" ", " ", "")));
-        return command.toString();
+        stream(customArgs()).map(String::trim).filter(NatsUtils::isNotEmpty).forEach(result::add);
+        return List.copyOf(result);
+    }
+
+    private static void addArg(final List<String> args, final NatsConfig key, final String value) {
+        if (key.key() != null && !key.name().startsWith(NATS_PREFIX) && isNotEmpty(value)) {
+            if (key.isWritableValue()) {
+                args.add(key.key() + "=" + value.trim().toLowerCase());
+            } else if (!"false".equals(value)) {
+                args.add(key.key());
+            }
+        }
     }
 
     protected synchronized void shutdown() {
+        shutdown(true);
+    }
+
+    /**
+     * @param cleanup true deletes the store (see {@link NatsConfig#NATS_STORE_CLEANUP}) and runtime files, false keeps them for a restart
+     */
+    protected synchronized void shutdown(final boolean cleanup) {
+        final NatsLifecycleEvent shutdownPhase = beginPhase(NatsPhase.SHUTDOWN);
+        try {
+            stop(cleanup);
+        } finally {
+            endPhase(shutdownPhase);
+        }
+    }
+
+    private void stop(final boolean cleanup) {
+        if (leased.getAndSet(false) && !releaseLease()) {
+            process.set(null);
+            logger.info(() -> format("Detached [%s] pid [%s] - server is still in use", name, pid()));
+            return;
+        }
+        final boolean started = pid() != -1;
         try {
             sendStopSignal();
             waitForShutDown(timeoutMs);
-            if (terminal.get() != null) {
-                terminal.get().process().destroy();
-                terminal.get().process().waitFor();
+            final Process running = process.get();
+            if (running != null) {
+                running.destroy();
+                running.waitFor();
             }
         } catch (InterruptedException ignored) {
             logger.warning(() -> format("Could not find process to stop [%s]", name));
@@ -488,20 +910,339 @@ public class Nats implements NatsInterface {
                 waitForPort(port(), timeoutMs, true);
                 logger.info(() -> format("Stopped [%s]", name));
             }
-            terminal.set(null);
+            process.set(null);
+            runtimeConfActive = false;
+            logs.stopForwarding();
+            NatsResources.removeCgroup(cgroup);
+            cgroup = null;
         }
         deletePidFile();
+        if (started && cleanup) {
+            deleteStoreDir();
+        }
+        ignoreException(run -> {
+            Files.deleteIfExists(fingerprintFile());
+            Files.deleteIfExists(autoPortsFile());
+            if (cleanup) {
+                Files.deleteIfExists(runtimeConfFile());
+            }
+            return run;
+        });
+    }
+
+    /**
+     * Applies config changes to the running server <br />
+     * Changes of {@link NatsConfig#isReloadable()} options are written to the runtime config file followed by a config reload,
+     * all other changes (e.g. {@link NatsConfig#PORT}) restart the server. <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @param changes config changes - unchanged values are ignored
+     * @return self {@link Nats}
+     */
+    public synchronized Nats reconfigure(final Map<NatsConfig, ?> changes) {
+        final Map<NatsConfig, String> diff = new EnumMap<>(NatsConfig.class);
+        changes.forEach((key, value) -> {
+            if (value != null && !String.valueOf(value).equals(getValue(key, () -> null))) {
+                diff.put(key, String.valueOf(value));
+            }
+        });
+        if (diff.isEmpty()) {
+            return this;
+        }
+        final boolean running = pid() != -1;
+        final boolean reloadable = running && runtimeConfActive && diff.keySet().stream().allMatch(NatsConfig::isReloadable);
+        if (running && !reloadable) {
+            // stop with the old config - port and pid file of the running server
+            logger.info(() -> format("Restarting [%s] pid [%s] changes %s are not reloadable", name, pid(), diff.keySet()));
+            shutdown(false);
+        }
+        reloadRequested = true;
+        diff.forEach((key, value) -> {
+            overlays.remove(key);
+            addConfig(DSL, key, value);
+        });
+        if (!running) {
+            return this;
+        } else if (reloadable && writeRuntimeConf()) {
+            logger.info(() -> format("Reloading [%s] pid [%s] changes %s", name, pid(), diff.keySet()));
+            sendReload();
+        } else {
+            if (reloadable) {
+                // runtime config not writable - reloadable options don't change the port or pid file
+                shutdown(false);
+            }
+            start();
+        }
+        return this;
+    }
+
+    /**
+     * The runtime config is only used when needed - it costs a file write per start and changes the command line
+     *
+     * @return true if the server is started with the {@link Nats#runtimeConfFile()} - when {@link NatsConfig#NATS_RELOADABLE} is enabled,
+     * after the first {@link Nats#reconfigure(Map)} or when options without a command line flag are set e.g. {@link NatsConfig#MAX_PAYLOAD}
+     */
+    protected boolean useRuntimeConf() {
+        return (reloadRequested || parseBoolean(getValue(NATS_RELOADABLE)) || hasConfOnlyOptions()) && runtimeConf() != null;
+    }
+
+    private boolean hasConfOnlyOptions() {
+        for (final NatsConfig key : configMap.keySet()) {
+            if (key.key() == null && key.confKey() != null && isNotEmpty(getValue(key, () -> null)) && (!key.confKey().startsWith(JETSTREAM_BLOCK) || jetStream())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runtime config file which includes {@link NatsConfig#CONFIG} and holds all options with a {@link NatsConfig#confKey()}
+     *
+     * @return file next to the {@link Nats#pidFile()}
+     */
+    public Path runtimeConfFile() {
+        return Paths.get(pidFile() + ".conf");
+    }
+
+    /**
+     * @return runtime config or null if {@link NatsConfig#CONFIG} can't be included relative to {@link Nats#runtimeConfFile()}
+     */
+    protected NatsConf runtimeConf() {
+        final NatsConf result = new NatsConf();
+        final Path userConfig = configFile();
+        if (userConfig != null) {
+            try {
+                result.include(runtimeConfFile().toAbsolutePath().getParent().relativize(userConfig.toAbsolutePath()).toString());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        configMap.forEach((key, mapValue) -> {
+            final String value = getValue(key, () -> null);
+            if (key.confKey() != null && isNotEmpty(value) && (mapValue.source() != DEFAULT || !value.equals(key.defaultValueStr()))
+                    && (!key.confKey().startsWith(JETSTREAM_BLOCK) || jetStream())) {
+                final String[] path = key.confKey().split("\\.");
+                NatsConf block = result;
+                for (int i = 0; i < path.length - 1; i++) {
+                    block = block.block(path[i]);
+                }
+                block.put(path[path.length - 1], confValue(key, value));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sends "reload" via {@link Nats#signal(String)} - the same path as "stop" and "ldm"
+     */
+    protected void sendReload() {
+        signal("reload");
+    }
+
+    private boolean writeRuntimeConf() {
+        final NatsConf conf = runtimeConf();
+        if (conf == null) {
+            return false;
+        }
+        try {
+            conf.write(runtimeConfFile());
+            return true;
+        } catch (IOException e) {
+            logger.warning(() -> format("Could not write runtime config [%s] cause [%s]", runtimeConfFile(), e.getMessage()));
+            return false;
+        }
+    }
+
+    private static Object confValue(final NatsConfig key, final String value) {
+        if (key.type() == Boolean.class || key.type() == NatsConfig.SilentBoolean.class) {
+            return parseBoolean(value.trim());
+        } else if (key.type() == Integer.class || key.type() == Long.class) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stable hash of the effective server arguments (binary incl. version and all server configs) without volatile outputs like {@link NatsConfig#PID}, {@link NatsConfig#LOG}
+     * and the auto assigned {@link NatsConfig#HTTP_PORT} and {@link NatsConfig#PROFILE} - those are restored from the {@link Nats#autoPortsFile()} on {@link Nats#attach()}
+     *
+     * Pure - writes neither files nor overlays, so it can be computed before a start e.g. to find a reusable server
+     *
+     * @return SHA-256 config fingerprint
+     */
+    public String fingerprint() {
+        final List<String> volatileArgs = Stream.concat(Stream.of(PID, LOG), AUTO_PORT_KEYS.stream().filter(overlays::containsKey))
+                .map(key -> key.key() + "=")
+                .collect(Collectors.toList());
+        return NatsUtils.sha256(args().stream()
+                .filter(arg -> volatileArgs.stream().noneMatch(arg::startsWith))
+                .sorted()
+                .collect(Collectors.joining("\n")) + ofNullable(runtimeConf()).map(NatsConf::render).orElse("") + resources());
+    }
+
+    /**
+     * @return file next to the {@link Nats#pidFile()} which holds the {@link Nats#fingerprint()} of the running server
+     */
+    public Path fingerprintFile() {
+        return Paths.get(pidFile() + ".sha256");
+    }
+
+    /**
+     * @return file next to the {@link Nats#fingerprintFile()} which holds the auto assigned {@link NatsConfig#HTTP_PORT} and {@link NatsConfig#PROFILE} of the running server
+     */
+    public Path autoPortsFile() {
+        return Paths.get(pidFile() + ".ports");
+    }
+
+    private void writeAutoPorts() throws IOException {
+        Files.writeString(autoPortsFile(), AUTO_PORT_KEYS.stream()
+                .filter(overlays::containsKey)
+                .map(key -> key.name() + "=" + overlays.get(key))
+                .collect(Collectors.joining("\n")), StandardCharsets.UTF_8);
+    }
+
+    private void restoreAutoPorts() {
+        try (Stream<String> lines = Files.lines(autoPortsFile(), StandardCharsets.UTF_8)) {
+            lines.map(line -> line.split("=", 2))
+                    .filter(kv -> kv.length == 2 && AUTO_PORT_KEYS.stream().anyMatch(key -> key.name().equals(kv[0])))
+                    .forEach(kv -> overlays.putIfAbsent(NatsConfig.valueOf(kv[0]), kv[1].trim()));
+        } catch (IOException | UncheckedIOException ignored) {
+            // server was started without auto assigned ports
+        }
+    }
+
+    /**
+     * @return true if {@link NatsConfig#NATS_REUSE} is enabled
+     */
+    public boolean reuse() {
+        return parseBoolean(getValue(NATS_REUSE));
+    }
+
+    /**
+     * Attaches to a live server on the same port which was started with the same {@link Nats#fingerprint()}
+     *
+     * @return true if attached
+     */
+    protected boolean attach() {
+        final int port = port();
+        final int pid = pid();
+        if (port <= 0 || pid == -1 || NatsUtils.isPortAvailable(port) || !ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+            return false;
+        }
+        final String fingerprint = fingerprint();
+        if (!fingerprint.equals(readFingerprint())) {
+            logger.warning(() -> format("Can't reuse [%s] pid [%s] port [%s] - config fingerprint differs", name, pid, port));
+            return false;
+        }
+        restoreAutoPorts();
+        acquireLease();
+        logger.info(() -> format("Attached [%s] port [%s] pid [%s] fingerprint [%s]", name, port, pid, fingerprint));
+        return true;
+    }
+
+    /**
+     * @return directory with one lease file per {@link Nats} instance which uses the reused server
+     */
+    protected Path leaseDir() {
+        return Paths.get(pidFile() + ".leases");
+    }
+
+    /**
+     * @return lease file of this instance named "jvmPid-instanceId"
+     */
+    protected Path leaseFile() {
+        return leaseDir().resolve(ProcessHandle.current().pid() + "-" + Integer.toHexString(System.identityHashCode(this)));
+    }
+
+    protected void acquireLease() {
+        ignoreException(run -> {
+            Files.createDirectories(leaseDir());
+            Files.writeString(leaseFile(), String.valueOf(System.currentTimeMillis()), StandardCharsets.UTF_8);
+            return run;
+        });
+        leased.set(true);
+    }
+
+    /**
+     * Releases the lease of this instance and removes leases of dead JVMs
+     *
+     * @return true if the server may be stopped - no other live JVM holds a lease and {@link NatsConfig#NATS_REUSE_KEEP_ALIVE} is disabled
+     */
+    protected boolean releaseLease() {
+        final Path leaseDir = leaseDir();
+        long livingLeases = 0;
+        try {
+            Files.deleteIfExists(leaseFile());
+            try (final Stream<Path> leases = Files.list(leaseDir)) {
+                livingLeases = leases.filter(this::isLivingLease).count();
+            }
+        } catch (IOException ignored) {
+            // no leases left
+        }
+        if (livingLeases > 0 || parseBoolean(getValue(NATS_REUSE_KEEP_ALIVE))) {
+            return false;
+        }
+        ignoreException(run -> {
+            Files.deleteIfExists(leaseDir);
+            return run;
+        });
+        return true;
+    }
+
+    private boolean isLivingLease(final Path lease) {
+        try {
+            final String jvmPid = lease.getFileName().toString().split("-")[0];
+            if (ProcessHandle.of(Long.parseLong(jvmPid)).map(ProcessHandle::isAlive).orElse(false)) {
+                return true;
+            }
+            Files.deleteIfExists(lease);
+        } catch (IOException | NumberFormatException ignored) {
+            // foreign or already deleted file
+        }
+        return false;
+    }
+
+    private String readFingerprint() {
+        try {
+            return Files.readString(fingerprintFile(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends a signal to the running server via {@link NatsConfig#SIGNAL} <br />
+     * e.g. "ldm" (lame duck mode), "reopen" (log files), "reload" (config), "stop", "quit", "term"
+     *
+     * @param signal signal name
+     * @return self {@link Nats}
+     */
+    public Nats signal(final String signal) {
+        final int pid = pid();
+        if (pid != -1) {
+            logger.fine(() -> format("Sending signal [%s] to [%s] pid [%s]", signal, name, pid));
+            Process signalProcess = null;
+            try {
+                signalProcess = new ProcessBuilder(binary().toString(), SIGNAL.key(), signal + "=" + pid).start();
+                NatsOutputPump.shared().pump(signalProcess, this::capture, this::capture).get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (IOException | ExecutionException | TimeoutException e) {
+                logger.warning(() -> format("Could not send signal [%s] to [%s] pid [%s] cause [%s]", signal, name, pid, e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                ofNullable(signalProcess).filter(Process::isAlive).ifPresent(Process::destroy);
+            }
+        }
+        return this;
     }
 
     protected void sendStopSignal() {
         logger.info(() -> format("Stopping [%s]", name));
-        if (pid() != -1) {
-            new Terminal()
-                    .consumerInfoStream(logger::info)
-                    .consumerErrorStream(logger::severe)
-                    .breakOnError(false)
-                    .execute(binary() + " " + SIGNAL.key() + " stop=" + pid());
-        }
+        signal("stop");
     }
 
     protected void waitForShutDown(final long timeoutMs) {
@@ -518,17 +1259,35 @@ public class Nats implements NatsInterface {
         });
     }
 
-    protected void startProcess(final String command) {
-        terminal.set(new Terminal()
-                .timeoutMs(timeoutMs)
-                .breakOnError(false)
-                .consumerErrorStream(logger::info)
-                .consumerInfoStream(serve -> {
-                    logger.severe(serve);
-                    terminal.set(null);
-                })
-                .execute(command, null)
-        );
+    protected void deleteStoreDir() {
+        ofNullable(getValue(NATS_STORE_CLEANUP)).filter(Boolean::parseBoolean).map(cleanup -> storeDir()).ifPresent(storeDir -> {
+            logger.fine(() -> format("Deleting store [%s] of [%s]", storeDir, name));
+            NatsUtils.deleteDirectoryAsync(storeDir);
+        });
+    }
+
+    /**
+     * Starts the server process with the Go runtime variables of {@link NatsResources#environment()} - stdout and stderr are read by the shared {@link NatsOutputPump}
+     *
+     * @param command command line from {@link Nats#prepareCommandLine()}
+     * @throws IOException if the process can't be started
+     */
+    protected void startProcess(final List<String> command) throws IOException {
+        logs.forwardTo(logger, Integer.parseInt(getValue(NATS_LOG_FORWARD_RATE)));
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        builder.environment().putAll(resources().environment());
+        final Process started = builder.start();
+        started.getOutputStream().close();
+        process.set(started);
+        NatsOutputPump.shared().pump(started, serve -> {
+            capture(serve);
+            process.compareAndSet(started, null);
+        }, this::capture);
+    }
+
+    protected void capture(final String line) {
+        logs.append(line);
+        logEvents.accept(line);
     }
 
     @Override
@@ -0,0 +1,475 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsConfig;
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.model.NatsConvergenceReport;
+import berlin.yuna.natsserver.model.NatsRoutez;
+import berlin.yuna.natsserver.model.exception.NatsStartException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.natsserver.config.NatsConfig.CLUSTER;
+import static berlin.yuna.natsserver.config.NatsConfig.CLUSTER_NAME;
+import static berlin.yuna.natsserver.config.NatsConfig.HTTP_PORT;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_AUTOSTART;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_TIMEOUT_MS;
+import static berlin.yuna.natsserver.config.NatsConfig.PORT;
+import static berlin.yuna.natsserver.config.NatsConfig.ROUTES;
+import static berlin.yuna.natsserver.config.NatsConfig.SERVER_NAME;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsUtils.waitFor;
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+
+/**
+ * {@link NatsCluster} starts N routed {@link Nats} nodes in parallel on one machine <br />
+ * Client, cluster and monitoring ports are allocated per node, every node solicits routes to all other nodes (full mesh). <br />
+ * The cluster is ready when every node reports a route to every other node via "/routez". <br />
+ * Nodes can be added to, removed from and restarted in a running cluster, all report their convergence timings.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsCluster implements AutoCloseable {
+
+    public static final String ROUTE_HOST = "127.0.0.1";
+    public static final int DEFAULT_CLUSTER_PORT = 6222;
+    public static final int DEFAULT_HTTP_PORT = 8222;
+    protected static final long POLL_MS = 25;
+
+    protected final int size;
+    protected final String name;
+    protected final long timeoutMs;
+    protected final Logger logger;
+    protected final NatsOptionsBuilder template;
+    protected final List<Nats> nodes = new CopyOnWriteArrayList<>();
+    protected final List<Integer> ports = new CopyOnWriteArrayList<>();
+    protected final AtomicInteger nextIndex = new AtomicInteger(0);
+    protected long startupMs = -1;
+
+    /**
+     * @param size number of nodes
+     */
+    public NatsCluster(final int size) {
+        this(size, natsBuilder());
+    }
+
+    /**
+     * @param size     number of nodes
+     * @param template config which is applied to every node - ports, routes and server names are set by the cluster
+     */
+    public NatsCluster(final int size, final NatsOptionsBuilder template) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Cluster size must be greater than 0 but was [" + size + "]");
+        }
+        this.size = size;
+        this.template = natsBuilder().configMap(template.configMap()).logger(template.logger()).listeners(template.listeners());
+        this.name = ofNullable(template.configMap().get(CLUSTER_NAME)).filter(NatsUtils::isNotEmpty).orElse("nats-cluster");
+        this.timeoutMs = ofNullable(template.timeoutMs()).filter(timeout -> timeout > 0).orElseGet(() -> Long.parseLong(NATS_TIMEOUT_MS.defaultValueStr()));
+        this.logger = ofNullable(template.logger()).orElseGet(() -> Logger.getLogger(NatsCluster.class.getSimpleName()));
+    }
+
+    /**
+     * Starts all nodes in parallel and blocks until the cluster is ready <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @return self {@link NatsCluster}
+     */
+    public synchronized NatsCluster start() {
+        if (startupMs != -1) {
+            logger.severe(() -> format("[%s] is already running", name));
+            return this;
+        }
+        final long started = System.currentTimeMillis();
+        prepare();
+        try {
+            nodes.get(0).downloadNats();
+            forEachParallel(Nats::start);
+            awaitReady();
+        } catch (final Exception e) {
+            close();
+            throw e instanceof NatsStartException ? (NatsStartException) e : new NatsStartException(e);
+        }
+        startupMs = System.currentTimeMillis() - started;
+        logger.info(() -> format("Started [%s] nodes [%s] in [%s] ms", name, nodes.size(), startupMs));
+        return this;
+    }
+
+    /**
+     * Reserves all ports and creates the nodes without starting them - called by {@link NatsCluster#start()}
+     *
+     * @return self {@link NatsCluster}
+     */
+    public synchronized NatsCluster prepare() {
+        if (nodes.isEmpty()) {
+            final List<String> clusterUrls = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                clusterUrls.add(reserveClusterUrl());
+            }
+            for (int i = 0; i < size; i++) {
+                nodes.add(createNode(i, clusterUrls.get(i), clusterUrls));
+            }
+            nextIndex.set(size);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a node to the running cluster which solicits routes to all current members <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @return timings until the routes (and JetStream meta group) converged - measured from the start of the operation
+     */
+    public synchronized NatsConvergenceReport addNode() {
+        final long started = System.currentTimeMillis();
+        final Nats node = createNode(nextIndex.getAndIncrement(), reserveClusterUrl(), nodes.stream().map(NatsCluster::clusterUrl).collect(Collectors.toList()));
+        try {
+            node.start();
+        } catch (final RuntimeException e) {
+            discard(node);
+            throw e instanceof NatsStartException ? (NatsStartException) e : new NatsStartException(e);
+        }
+        nodes.add(node);
+        try {
+            return convergenceReport("add", node.getValue(SERVER_NAME), started, null);
+        } catch (final TimeoutException e) {
+            throw new NatsStartException(e);
+        }
+    }
+
+    /**
+     * Removes a node gracefully using lame duck mode and waits up to the timeout for the node to exit before it is stopped
+     *
+     * @param node node to remove
+     * @return timings until the routes (and JetStream meta group) converged - measured from the start of the operation
+     */
+    public NatsConvergenceReport removeNode(final Nats node) {
+        return removeNode(node, timeoutMs);
+    }
+
+    /**
+     * Removes a node gracefully using lame duck mode <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @param node       node to remove
+     * @param lameDuckMs max milliseconds to wait for the lame duck shutdown before the node is stopped
+     * @return timings until the routes (and JetStream meta group) converged - measured from the start of the operation
+     */
+    public synchronized NatsConvergenceReport removeNode(final Nats node, final long lameDuckMs) {
+        if (!nodes.contains(node)) {
+            throw new IllegalArgumentException("Node [" + node + "] is not part of [" + name + "]");
+        }
+        final long started = System.currentTimeMillis();
+        final String serverName = node.getValue(SERVER_NAME);
+        stopGracefully(node, lameDuckMs);
+        nodes.remove(node);
+        try {
+            return convergenceReport("remove", serverName, started, serverName);
+        } catch (final TimeoutException e) {
+            throw new NatsStartException(e);
+        }
+    }
+
+    /**
+     * Restarts a node with a changed config e.g. a new {@link berlin.yuna.natsserver.config.NatsConfig#NATS_VERSION} <br />
+     * The node is stopped gracefully using lame duck mode and started again on the same ports and routes <br />
+     * If the restarted node fails to start, it is removed from the cluster and its ports are released <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @param node       node to restart
+     * @param lameDuckMs max milliseconds to wait for the lame duck shutdown before the node is stopped
+     * @param change     config changes of the restarted node
+     * @return timings until the routes (and JetStream meta group) converged - measured from the start of the operation
+     */
+    public synchronized NatsConvergenceReport restartNode(final Nats node, final long lameDuckMs, final Consumer<NatsOptionsBuilder> change) {
+        final int index = nodes.indexOf(node);
+        if (index == -1) {
+            throw new IllegalArgumentException("Node [" + node + "] is not part of [" + name + "]");
+        }
+        final long started = System.currentTimeMillis();
+        final NatsOptionsBuilder config = natsBuilder().configMap(node.config()).logger(template.logger()).listeners(template.listeners());
+        change.accept(config);
+        config.config(NATS_AUTOSTART, "false");
+        // the hook of the replaced node already stops whatever runs on the shared pid file
+        config.shutdownHook(false);
+        stopGracefully(node, lameDuckMs);
+        final Nats restarted = new Nats(config);
+        try {
+            restarted.start();
+        } catch (final RuntimeException e) {
+            nodes.remove(index);
+            discard(restarted);
+            throw e instanceof NatsStartException ? (NatsStartException) e : new NatsStartException(e);
+        }
+        nodes.set(index, restarted);
+        try {
+            return convergenceReport("restart", restarted.getValue(SERVER_NAME), started, null);
+        } catch (final TimeoutException e) {
+            throw new NatsStartException(e);
+        }
+    }
+
+    /**
+     * @return cluster nodes
+     */
+    public List<Nats> nodes() {
+        return List.copyOf(nodes);
+    }
+
+    /**
+     * @param index node index
+     * @return node
+     */
+    public Nats node(final int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @return cluster name
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return comma separated client urls of all nodes
+     */
+    public String url() {
+        return nodes.stream().map(Nats::url).collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return milliseconds from launch until the cluster was ready or -1 if not started
+     */
+    public long startupMs() {
+        return startupMs;
+    }
+
+    /**
+     * @param node cluster node
+     * @return the cluster url other nodes use to route to this node
+     */
+    public static String clusterUrl(final Nats node) {
+        return node.getValue(CLUSTER);
+    }
+
+    /**
+     * @param node cluster node
+     * @return monitoring url of this node e.g. "http://127.0.0.1:8222"
+     */
+    public static String monitorUrl(final Nats node) {
+        return "http://" + ROUTE_HOST + ":" + node.getValue(HTTP_PORT);
+    }
+
+    /**
+     * @param node cluster node
+     * @return monitoring client of this node
+     */
+    public NatsMonitor monitor(final Nats node) {
+        return new NatsMonitor(monitorUrl(node), timeoutMs);
+    }
+
+    /**
+     * @param node cluster node
+     * @return routes of the node or null if the monitoring endpoint is not reachable
+     */
+    public NatsRoutez routez(final Nats node) {
+        return monitor(node).routez();
+    }
+
+    /**
+     * @param node cluster node
+     * @return number of distinct servers the node has routes to or -1 if the monitoring endpoint is not reachable
+     */
+    public int routeCount(final Nats node) {
+        final NatsRoutez routez = routez(node);
+        if (routez == null) {
+            return -1;
+        }
+        return (int) routez.routes().stream().map(NatsRoutez.Route::remoteId).filter(NatsUtils::isNotEmpty).distinct().count();
+    }
+
+    @Override
+    public synchronized void close() {
+        forEachParallel(Nats::close);
+        nodes.clear();
+        ports.forEach(NatsUtils::releasePort);
+        ports.clear();
+        startupMs = -1;
+    }
+
+    /**
+     * Creates a node which solicits routes to all other cluster urls
+     *
+     * @param index      node index
+     * @param clusterUrl cluster url of the new node
+     * @param routes     cluster urls of all nodes
+     * @return not started node
+     */
+    protected Nats createNode(final int index, final String clusterUrl, final List<String> routes) {
+        final NatsOptionsBuilder config = nodeConfig(index);
+        config.config(CLUSTER, clusterUrl);
+        config.config(CLUSTER_NAME, name);
+        ofNullable(routes.stream().filter(route -> !route.equals(clusterUrl)).collect(Collectors.joining(",")))
+                .filter(NatsUtils::isNotEmpty)
+                .ifPresent(route -> config.config(ROUTES, route));
+        return new Nats(config);
+    }
+
+    /**
+     * Node specific config - override to add e.g. JetStream settings
+     *
+     * @param index node index
+     * @return node config
+     */
+    protected NatsOptionsBuilder nodeConfig(final int index) {
+        final NatsOptionsBuilder config = natsBuilder().configMap(template.configMap()).logger(template.logger()).listeners(template.listeners());
+        config.config(PORT, String.valueOf(reservePort((int) PORT.defaultValue())));
+        config.config(HTTP_PORT, String.valueOf(reservePort(DEFAULT_HTTP_PORT)));
+        config.config(SERVER_NAME, ofNullable(template.configMap().get(SERVER_NAME)).filter(NatsUtils::isNotEmpty).orElse(name) + "-" + index);
+        config.config(NATS_AUTOSTART, "false");
+        return config;
+    }
+
+    /**
+     * Blocks until every node has a route to every other node
+     *
+     * @throws TimeoutException if the routes are not established within the timeout
+     */
+    protected void awaitReady() throws TimeoutException {
+        awaitConvergence(this::routesConverged, System.currentTimeMillis(), "routes");
+    }
+
+    /**
+     * @return true if every node has a route to every other node and to no one else
+     */
+    protected boolean routesConverged() {
+        final int expectedRoutes = nodes.size() - 1;
+        return nodes.stream().allMatch(node -> routeCount(node) == expectedRoutes);
+    }
+
+    /**
+     * @return true if the cluster runs a clustered JetStream meta group
+     */
+    protected boolean jetStreamClustered() {
+        return false;
+    }
+
+    /**
+     * @param removedServer server name which must not be the meta leader anymore or null
+     * @return true if the JetStream meta group of all nodes converged
+     */
+    protected boolean metaGroupConverged(final String removedServer) {
+        return true;
+    }
+
+    /**
+     * @param condition convergence condition
+     * @param started   start of the operation in milliseconds
+     * @param subject   what converges - used for the timeout message
+     * @return milliseconds from start until the condition was met
+     * @throws TimeoutException if the condition is not met within the timeout
+     */
+    protected long awaitConvergence(final BooleanSupplier condition, final long started, final String subject) throws TimeoutException {
+        if (!waitFor(condition, timeoutMs, POLL_MS)) {
+            throw new TimeoutException(format("[%s] %s not converged within [%s] ms", name, subject, timeoutMs));
+        }
+        return System.currentTimeMillis() - started;
+    }
+
+    protected NatsConvergenceReport convergenceReport(final String operation, final String serverName, final long started, final String removedServer) throws TimeoutException {
+        final long routesMs = awaitConvergence(this::routesConverged, started, "routes");
+        final long jetStreamMs = jetStreamClustered() ? awaitConvergence(() -> metaGroupConverged(removedServer), started, "JetStream meta group") : -1;
+        final NatsConvergenceReport report = new NatsConvergenceReport(operation, serverName, nodes.size(), routesMs, jetStreamMs, System.currentTimeMillis() - started);
+        logger.info(() -> format("Converged [%s] after [%s] of [%s] %s", name, operation, serverName, report));
+        return report;
+    }
+
+    /**
+     * Puts the node into lame duck mode and waits up to the timeout for the node to exit before it is stopped
+     *
+     * @param node       node to stop
+     * @param lameDuckMs max milliseconds to wait for the lame duck shutdown
+     */
+    protected void stopGracefully(final Nats node, final long lameDuckMs) {
+        node.signal("ldm");
+        ofNullable(node.process()).ifPresent(process -> {
+            try {
+                process.waitFor(lameDuckMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        node.close();
+    }
+
+    protected String reserveClusterUrl() {
+        return "nats://" + ROUTE_HOST + ":" + reservePort(DEFAULT_CLUSTER_PORT);
+    }
+
+    /**
+     * Stops a node which is not part of the cluster and releases its reserved client, cluster and monitoring ports
+     *
+     * @param node node to discard
+     */
+    protected void discard(final Nats node) {
+        node.close();
+        Stream.of(URI.create(clusterUrl(node)).getPort(), portOf(node, PORT), portOf(node, HTTP_PORT)).filter(port -> port > 0).forEach(port -> {
+            ports.remove(port);
+            NatsUtils.releasePort(port);
+        });
+    }
+
+    private static int portOf(final Nats node, final NatsConfig key) {
+        return ofNullable(node.getValue(key, () -> null)).filter(NatsUtils::isNotEmpty).map(String::trim).map(Integer::parseInt).orElse(-1);
+    }
+
+    protected int reservePort(final int startPort) {
+        final int port = NatsUtils.reservePort(startPort);
+        ports.add(port);
+        return port;
+    }
+
+    protected void forEachParallel(final Consumer<Nats> action) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+        try {
+            CompletableFuture.allOf(nodes.stream()
+                    .map(node -> CompletableFuture.runAsync(() -> action.accept(node), executor))
+                    .toArray(CompletableFuture[]::new)
+            ).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new NatsStartException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NatsCluster{" +
+                "name=" + name +
+                ", nodes=" + nodes.size() +
+                ", startupMs=" + startupMs +
+                '}';
+    }
+}
@@ -0,0 +1,151 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsConfig;
+import berlin.yuna.natsserver.model.MapValue;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static berlin.yuna.natsserver.logic.NatsUtils.getEnv;
+
+/**
+ * {@link NatsConfigSnapshot} is the immutable, fully resolved view of the layered config of a {@link Nats} instance <br />
+ * The winning value of every {@link NatsConfig} is resolved once, placeholders of other configs are replaced by their resolved values. <br />
+ * Placeholders of configs which are not set fall back to the environment and are resolved on every lookup.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsTemplate
+ * @since 2.14
+ */
+public final class NatsConfigSnapshot {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final long version;
+    private final Map<NatsConfig, String> raw;
+    private final Map<NatsConfig, String> values = new EnumMap<>(NatsConfig.class);
+    private final Map<NatsConfig, RuntimeException> errors = new EnumMap<>(NatsConfig.class);
+    private final Set<NatsConfig> dynamic = EnumSet.noneOf(NatsConfig.class);
+
+    private NatsConfigSnapshot(final long version, final Map<NatsConfig, String> raw) {
+        this.version = version;
+        this.raw = raw;
+    }
+
+    /**
+     * @param config  layered config
+     * @param version config version the snapshot belongs to
+     * @return resolved snapshot
+     */
+    public static NatsConfigSnapshot of(final Map<NatsConfig, MapValue> config, final long version) {
+        final Map<NatsConfig, String> raw = new EnumMap<>(NatsConfig.class);
+        config.forEach((key, mapValue) -> {
+            if (mapValue != null && mapValue.value() != null) {
+                raw.put(key, mapValue.value());
+            }
+        });
+        final NatsConfigSnapshot result = new NatsConfigSnapshot(version, Collections.unmodifiableMap(raw));
+        raw.keySet().forEach(key -> result.compute(key, 0));
+        return result;
+    }
+
+    /**
+     * @return config version the snapshot belongs to
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @param key config key
+     * @return true if the config has a value
+     */
+    public boolean contains(final NatsConfig key) {
+        return raw.containsKey(key);
+    }
+
+    /**
+     * @param key config key
+     * @return resolved value or null if not set
+     * @throws IllegalArgumentException if the value contains unknown placeholders
+     */
+    public String get(final NatsConfig key) {
+        final RuntimeException error = errors.get(key);
+        if (error != null) {
+            throw error;
+        }
+        return dynamic.contains(key) ? resolve(raw.get(key), 0) : values.get(key);
+    }
+
+    /**
+     * @param value any value e.g. a fallback
+     * @return value with all placeholders replaced by this snapshot
+     * @throws IllegalArgumentException if the value contains unknown placeholders
+     */
+    public String resolve(final String value) {
+        return resolve(value, 0);
+    }
+
+    private String resolve(final String value, final int depth) {
+        return NatsTemplate.compile(value).resolve(reference -> {
+            if (values.containsKey(reference) && !dynamic.contains(reference)) {
+                return values.get(reference);
+            }
+            return raw.containsKey(reference) ? resolveNested(reference, depth) : getEnv(reference.name(), () -> "");
+        });
+    }
+
+    private String resolveNested(final NatsConfig key, final int depth) {
+        if (depth >= MAX_DEPTH) {
+            throw new IllegalArgumentException("Cyclic placeholder [%" + key.name() + "%]");
+        }
+        final RuntimeException error = errors.get(key);
+        if (error != null) {
+            throw error;
+        }
+        return resolve(raw.get(key), depth + 1);
+    }
+
+    private void compute(final NatsConfig key, final int depth) {
+        if (values.containsKey(key) || errors.containsKey(key)) {
+            return;
+        }
+        try {
+            final NatsTemplate template = NatsTemplate.compile(raw.get(key));
+            boolean isDynamic = false;
+            for (final NatsConfig reference : template.references()) {
+                if (!raw.containsKey(reference)) {
+                    isDynamic = true;
+                } else if (reference == key || depth >= MAX_DEPTH) {
+                    throw new IllegalArgumentException("Cyclic placeholder [%" + reference.name() + "%]");
+                } else {
+                    compute(reference, depth + 1);
+                    isDynamic |= dynamic.contains(reference);
+                    final RuntimeException error = errors.get(reference);
+                    if (error != null) {
+                        throw error;
+                    }
+                }
+            }
+            if (isDynamic) {
+                dynamic.add(key);
+            }
+            values.put(key, template.resolve(reference -> values.containsKey(reference) ? values.get(reference) : getEnv(reference.name(), () -> "")));
+        } catch (final RuntimeException e) {
+            errors.put(key, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NatsConfigSnapshot{" +
+                "version=" + version +
+                ", values=" + values.size() +
+                ", dynamic=" + dynamic.size() +
+                ", errors=" + errors.size() +
+                '}';
+    }
+}
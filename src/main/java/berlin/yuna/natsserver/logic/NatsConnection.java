@@ -0,0 +1,329 @@
+package berlin.yuna.natsserver.logic;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NatsConnection} is the minimal text protocol client (CONNECT/PUB/SUB/MSG/PING/PONG) shared by the load generator, the workload and the probe <br />
+ * A non-blocking {@link SocketChannel} with pooled direct buffers - incoming frames are parsed in place, only errors create objects.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsLoadGenerator
+ * @see NatsWorkload
+ * @see NatsProbe
+ * @since 2.14
+ */
+class NatsConnection implements AutoCloseable {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_POOLED = 64;
+    static final byte[] CRLF = ascii("\r\n");
+    private static final int MAX_LINE = 4096;
+    private static final long SELECT_SLICE_MS = 100;
+    private static final BlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(MAX_POOLED);
+    private static final byte[] PING = ascii("PING\r\n");
+    private static final byte[] PONG = ascii("PONG\r\n");
+    private static final byte[] MSG_OP = ascii("MSG ");
+    private static final byte[] PING_OP = ascii("PING");
+    private static final byte[] PONG_OP = ascii("PONG");
+    private static final byte[] ERR_OP = ascii("-ERR");
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    private final ByteBuffer in;
+    private final ByteBuffer out;
+    private final long writeTimeoutNanos;
+    private final byte[] line = new byte[MAX_LINE];
+    private int lineLength;
+    private long payloadRemaining;
+    private int payloadSize;
+    private byte[] head = new byte[0];
+    private int headLength;
+    private MessageListener listener;
+    long messages;
+    long bytes;
+    long pongs;
+    long lastMessageNanos;
+
+    /**
+     * Receives the first bytes of every complete message
+     */
+    interface MessageListener {
+        /**
+         * @param head   first payload bytes - reused for the next message
+         * @param length number of valid bytes in head
+         * @param size   full payload size
+         * @throws IOException to fail the read
+         */
+        void onMessage(byte[] head, int length, int size) throws IOException;
+    }
+
+    /**
+     * Connects and handshakes with CONNECT and PING/PONG
+     *
+     * @param host        server host
+     * @param port        server client port
+     * @param name        client name shown in the server monitoring
+     * @param deadline    {@link System#nanoTime()} deadline for connect and handshake - the remaining time is the timeout of every flush
+     * @param outCapacity min size of the write buffer - e.g. the largest frame
+     * @throws IOException on connection errors, -ERR or timeout
+     */
+    NatsConnection(final String host, final int port, final String name, final long deadline, final int outCapacity) throws IOException {
+        this(open(host, port, deadline), deadline, outCapacity);
+        try {
+            write(ascii("CONNECT {\"verbose\":false,\"pedantic\":false,\"name\":\"" + name + "\"}\r\n"));
+            awaitPong(deadline);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param channel     channel without handshake e.g. for parsing only
+     * @param deadline    {@link System#nanoTime()} deadline - the remaining time is the timeout of every flush
+     * @param outCapacity min size of the write buffer
+     * @throws IOException if the channel can't be registered
+     */
+    NatsConnection(final SocketChannel channel, final long deadline, final int outCapacity) throws IOException {
+        this.channel = channel;
+        this.writeTimeoutNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), deadline - System.nanoTime());
+        this.in = acquire(BUFFER_SIZE);
+        this.out = acquire(outCapacity);
+        this.selector = Selector.open();
+        try {
+            channel.configureBlocking(false);
+            key = channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param headSize max payload bytes passed to the listener
+     * @param listener called for every complete message
+     * @return self {@link NatsConnection}
+     */
+    NatsConnection onMessage(final int headSize, final MessageListener listener) {
+        this.head = new byte[Math.max(0, headSize)];
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Buffers the bytes - flushes first if they do not fit, writes directly if they are larger than the buffer
+     */
+    void write(final byte[] data) throws IOException {
+        if (out.remaining() < data.length) {
+            flush();
+        }
+        if (data.length > out.capacity()) {
+            writeFully(ByteBuffer.wrap(data));
+        } else {
+            out.put(data);
+        }
+    }
+
+    void write(final String data) throws IOException {
+        write(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void flush() throws IOException {
+        out.flip();
+        writeFully(out);
+        out.clear();
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        final long deadline = System.nanoTime() + writeTimeoutNanos;
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0 && !select(SelectionKey.OP_WRITE, deadline)) {
+                throw new IOException("Write timeout");
+            }
+        }
+    }
+
+    /**
+     * Sends PING and reads until the matching PONG - all previous frames are processed by the server
+     *
+     * @param deadline {@link System#nanoTime()} deadline
+     * @throws IOException on -ERR, closed connection or timeout
+     */
+    void awaitPong(final long deadline) throws IOException {
+        final long target = pongs + 1;
+        write(PING);
+        flush();
+        while (pongs < target) {
+            if (!read(deadline)) {
+                throw new IOException("No PONG until timeout");
+            }
+        }
+    }
+
+    /**
+     * Reads and parses the available bytes or waits up to {@link NatsConnection#SELECT_SLICE_MS} for new ones
+     *
+     * @param deadline {@link System#nanoTime()} deadline
+     * @return false if the deadline is reached
+     * @throws IOException on -ERR or closed connection
+     */
+    boolean read(final long deadline) throws IOException {
+        final int count = channel.read(in);
+        if (count < 0) {
+            throw new IOException("Connection closed by server");
+        } else if (count == 0) {
+            return select(SelectionKey.OP_READ, deadline);
+        }
+        in.flip();
+        parse(in);
+        in.clear();
+        return true;
+    }
+
+    private boolean select(final int ops, final long deadline) throws IOException {
+        final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMs <= 0) {
+            return false;
+        }
+        key.interestOps(ops);
+        selector.select(Math.min(remainingMs, SELECT_SLICE_MS));
+        selector.selectedKeys().clear();
+        return true;
+    }
+
+    void parse(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (payloadRemaining > 0) {
+                final int skip = (int) Math.min(payloadRemaining, buffer.remaining());
+                final int copy = (int) Math.min(Math.min(skip, head.length - headLength), Math.max(0, payloadRemaining - CRLF.length));
+                if (copy > 0) {
+                    buffer.get(head, headLength, copy);
+                    headLength += copy;
+                }
+                buffer.position(buffer.position() + skip - copy);
+                payloadRemaining -= skip;
+                if (payloadRemaining == 0) {
+                    messages++;
+                    bytes += payloadSize;
+                    lastMessageNanos = System.nanoTime();
+                    if (listener != null) {
+                        listener.onMessage(head, headLength, payloadSize);
+                    }
+                }
+            } else {
+                final byte b = buffer.get();
+                if (b == '\n') {
+                    onLine(lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength);
+                    lineLength = 0;
+                } else if (lineLength < line.length) {
+                    line[lineLength++] = b;
+                }
+            }
+        }
+    }
+
+    private void onLine(final int length) throws IOException {
+        if (startsWith(MSG_OP, length)) {
+            payloadSize = lastNumber(length);
+            payloadRemaining = payloadSize + (long) CRLF.length;
+            headLength = 0;
+        } else if (startsWith(PING_OP, length)) {
+            write(PONG);
+            flush();
+        } else if (startsWith(PONG_OP, length)) {
+            pongs++;
+        } else if (startsWith(ERR_OP, length)) {
+            throw new IOException(new String(line, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    private boolean startsWith(final byte[] op, final int length) {
+        if (length < op.length) {
+            return false;
+        }
+        for (int i = 0; i < op.length; i++) {
+            if (line[i] != op[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return payload size - the last token of "MSG subject sid [reply-to] size"
+     */
+    private int lastNumber(final int length) throws IOException {
+        int start = length;
+        while (start > 0 && line[start - 1] >= '0' && line[start - 1] <= '9') {
+            start--;
+        }
+        if (start == length) {
+            throw new IOException("Invalid MSG line [" + new String(line, 0, length, StandardCharsets.US_ASCII) + "]");
+        }
+        int result = 0;
+        for (int i = start; i < length; i++) {
+            result = result * 10 + (line[i] - '0');
+        }
+        return result;
+    }
+
+    private static SocketChannel open(final String host, final int port, final long deadline) throws IOException {
+        final SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.socket().connect(new InetSocketAddress(host, port), (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return one complete PUB frame - header, payload and CRLF
+     */
+    static byte[] frame(final String subject, final int payloadSize) {
+        final byte[] header = ascii("PUB " + subject + " " + payloadSize + "\r\n");
+        final byte[] frame = new byte[header.length + payloadSize + CRLF.length];
+        System.arraycopy(header, 0, frame, 0, header.length);
+        Arrays.fill(frame, header.length, header.length + payloadSize, (byte) 'x');
+        System.arraycopy(CRLF, 0, frame, header.length + payloadSize, CRLF.length);
+        return frame;
+    }
+
+    static ByteBuffer acquire(final int capacity) {
+        final ByteBuffer buffer = POOL.poll();
+        return buffer != null && buffer.capacity() >= capacity ? buffer.clear() : ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, capacity));
+    }
+
+    static void release(final ByteBuffer buffer) {
+        POOL.offer(buffer.clear());
+    }
+
+    static byte[] ascii(final String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            selector.close();
+            channel.close();
+        } finally {
+            release(in);
+            release(out);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.model.NatsJsz;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static berlin.yuna.natsserver.config.NatsConfig.JETSTREAM;
+import static berlin.yuna.natsserver.config.NatsConfig.SERVER_NAME;
+import static berlin.yuna.natsserver.config.NatsConfig.STORE_DIR;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsUtils.getEnv;
+import static berlin.yuna.natsserver.logic.NatsUtils.httpGet;
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+
+/**
+ * {@link NatsJetStreamCluster} starts a replicated JetStream cluster (e.g. R3) <br />
+ * Every node gets its own server name and store dir. The cluster is ready when all routes are established,
+ * a meta leader is elected and "/healthz?js-enabled-only=true" passes on every node.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsCluster
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsJetStreamCluster extends NatsCluster {
+
+    protected volatile String metaLeader;
+    protected long electionMs = -1;
+
+    /**
+     * @param size number of nodes e.g. 3 for R3 streams
+     */
+    public NatsJetStreamCluster(final int size) {
+        this(size, natsBuilder());
+    }
+
+    /**
+     * @param size     number of nodes e.g. 3 for R3 streams
+     * @param template config which is applied to every node - {@link berlin.yuna.natsserver.config.NatsConfig#STORE_DIR} is used as base dir for the node stores
+     */
+    public NatsJetStreamCluster(final int size, final NatsOptionsBuilder template) {
+        super(size, template);
+    }
+
+    /**
+     * @return milliseconds from "all nodes are listening" until a meta leader was elected and all nodes are healthy or -1 if not started
+     */
+    public long electionMs() {
+        return electionMs;
+    }
+
+    /**
+     * @return server name of the elected meta leader or null if not started
+     */
+    public String metaLeader() {
+        return metaLeader;
+    }
+
+    /**
+     * @param node cluster node
+     * @return server name of the meta leader the node knows or null if there is none
+     */
+    public String metaLeader(final Nats node) {
+        return ofNullable(jsz(node)).map(NatsJsz::metaLeader).orElse(null);
+    }
+
+    /**
+     * @param node cluster node
+     * @return JetStream statistics of the node or null if the monitoring endpoint is not reachable
+     */
+    public NatsJsz jsz(final Nats node) {
+        return monitor(node).jsz();
+    }
+
+    /**
+     * @param node cluster node
+     * @return true if the JetStream health check of the node passes
+     */
+    public boolean healthy(final Nats node) {
+        return httpGet(monitorUrl(node) + "/healthz?js-enabled-only=true", timeoutMs) != null;
+    }
+
+    @Override
+    protected NatsOptionsBuilder nodeConfig(final int index) {
+        final NatsOptionsBuilder config = super.nodeConfig(index);
+        final Path baseDir = ofNullable(template.configMap().get(STORE_DIR))
+                .filter(NatsUtils::isNotEmpty)
+                .map(Paths::get)
+                .orElseGet(() -> Paths.get(getEnv("java.io.tmpdir"), "nats_jetstream", name));
+        config.config(JETSTREAM, "true");
+        config.config(STORE_DIR, baseDir.resolve(config.configMap().get(SERVER_NAME)).toString());
+        return config;
+    }
+
+    @Override
+    protected void awaitReady() throws TimeoutException {
+        final long started = System.currentTimeMillis();
+        metaLeader = null;
+        super.awaitReady();
+        electionMs = awaitConvergence(() -> metaGroupConverged(null), started, "JetStream meta leader election");
+        logger.info(() -> format("Elected [%s] as meta leader of [%s] in [%s] ms", metaLeader, name, electionMs));
+    }
+
+    @Override
+    protected boolean jetStreamClustered() {
+        return true;
+    }
+
+    /**
+     * The meta group converged when every node knows the same leader and exactly the current nodes as online peers <br />
+     * A removed server stays in "cluster_size" until it is peer-removed, so it only has to vanish from the online peers
+     */
+    @Override
+    protected boolean metaGroupConverged(final String removedServer) {
+        final String leader = metaLeader(nodes.get(0));
+        final Set<String> serverNames = nodes.stream().map(node -> node.getValue(SERVER_NAME)).collect(Collectors.toSet());
+        if (leader == null || leader.equals(removedServer) || !nodes.stream().allMatch(node -> {
+            final NatsJsz jsz = jsz(node);
+            return jsz != null
+                    && leader.equals(jsz.metaLeader())
+                    && serverNames.equals(onlinePeers(jsz))
+                    && healthy(node);
+        })) {
+            return false;
+        }
+        metaLeader = leader;
+        return true;
+    }
+
+    /**
+     * @param jsz JetStream statistics of a node
+     * @return server names of the meta leader and all current peers which are not offline
+     */
+    protected static Set<String> onlinePeers(final NatsJsz jsz) {
+        final Set<String> result = new HashSet<>();
+        ofNullable(jsz.metaLeader()).ifPresent(result::add);
+        jsz.metaReplicas().stream().filter(replica -> replica.current() && !replica.offline()).map(NatsJsz.Replica::name).filter(Objects::nonNull).forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsJetStreamCluster{" +
+                "name=" + name +
+                ", nodes=" + nodes.size() +
+                ", metaLeader=" + metaLeader +
+                ", electionMs=" + electionMs +
+                ", startupMs=" + startupMs +
+                '}';
+    }
+}
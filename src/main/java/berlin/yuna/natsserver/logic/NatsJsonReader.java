@@ -0,0 +1,235 @@
+package berlin.yuna.natsserver.logic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link NatsJsonReader} is a minimal streaming JSON reader for the monitoring endpoints <br />
+ * Scalars are reported with their path e.g. "api.total" or "connections[].cid" - array elements share the path suffix "[]". <br />
+ * The read buffer and the path/value builders are reused between calls, a reader instance is not thread safe.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsMonitor
+ * @since 2.14
+ */
+public class NatsJsonReader {
+
+    /**
+     * Receives the JSON events - the given {@link CharSequence}s are reused and only valid during the call
+     */
+    public interface Handler {
+
+        /**
+         * @param path  path of the value e.g. "in_msgs"
+         * @param value raw value - strings are unescaped, null is reported as "null"
+         */
+        void value(CharSequence path, CharSequence value);
+
+        /**
+         * @param path path of the object e.g. "connections[]", empty for the root object
+         */
+        default void beginObject(final CharSequence path) {
+        }
+
+        /**
+         * @param path path of the object e.g. "connections[]", empty for the root object
+         */
+        default void endObject(final CharSequence path) {
+        }
+    }
+
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] buffer = new byte[16 * 1024];
+    private final StringBuilder path = new StringBuilder(128);
+    private final StringBuilder value = new StringBuilder(64);
+    private final int[] pathLengths = new int[MAX_DEPTH];
+    private final byte[] utf8 = new byte[4];
+    private InputStream in;
+    private int pos;
+    private int limit;
+    private int peeked = -1;
+
+    /**
+     * Reads one JSON document
+     *
+     * @param input   JSON input - not closed
+     * @param handler event handler
+     * @throws IOException on read errors or invalid JSON
+     */
+    public void read(final InputStream input, final Handler handler) throws IOException {
+        in = input;
+        pos = 0;
+        limit = 0;
+        peeked = -1;
+        path.setLength(0);
+        try {
+            readValue(handler, 0);
+        } finally {
+            in = null;
+        }
+    }
+
+    private void readValue(final Handler handler, final int depth) throws IOException {
+        if (depth >= MAX_DEPTH) {
+            throw new IOException("JSON nesting too deep");
+        }
+        final int c = nextNonWhitespace();
+        if (c == '{') {
+            readObject(handler, depth);
+        } else if (c == '[') {
+            readArray(handler, depth);
+        } else if (c == '"') {
+            readString();
+            handler.value(path, value);
+        } else if (c != -1) {
+            readLiteral(c);
+            handler.value(path, value);
+        } else {
+            throw new IOException("Unexpected end of JSON");
+        }
+    }
+
+    private void readObject(final Handler handler, final int depth) throws IOException {
+        handler.beginObject(path);
+        final int base = path.length();
+        pathLengths[depth] = base;
+        int c = nextNonWhitespace();
+        while (c != '}') {
+            if (c != '"') {
+                throw new IOException("Expected object key but was [" + (char) c + "]");
+            }
+            readString();
+            path.setLength(base);
+            if (base > 0) {
+                path.append('.');
+            }
+            path.append(value);
+            if (nextNonWhitespace() != ':') {
+                throw new IOException("Expected [:] after key [" + path + "]");
+            }
+            readValue(handler, depth + 1);
+            path.setLength(base);
+            c = nextNonWhitespace();
+            if (c == ',') {
+                c = nextNonWhitespace();
+            } else if (c != '}') {
+                throw new IOException("Expected [,] or [}] but was [" + (char) c + "]");
+            }
+        }
+        path.setLength(pathLengths[depth]);
+        handler.endObject(path);
+    }
+
+    private void readArray(final Handler handler, final int depth) throws IOException {
+        final int base = path.length();
+        path.append("[]");
+        int c = nextNonWhitespace();
+        while (c != ']') {
+            peeked = c;
+            readValue(handler, depth + 1);
+            path.setLength(base + 2);
+            c = nextNonWhitespace();
+            if (c == ',') {
+                c = nextNonWhitespace();
+            } else if (c != ']') {
+                throw new IOException("Expected [,] or []] but was [" + (char) c + "]");
+            }
+        }
+        path.setLength(base);
+    }
+
+    private void readString() throws IOException {
+        value.setLength(0);
+        int c;
+        while ((c = next()) != '"') {
+            if (c == -1) {
+                throw new IOException("Unterminated string");
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c < 0x80) {
+                value.append((char) c);
+            } else {
+                readUtf8(c);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        final int c = next();
+        switch (c) {
+            case 'n':
+                value.append('\n');
+                break;
+            case 't':
+                value.append('\t');
+                break;
+            case 'r':
+                value.append('\r');
+                break;
+            case 'b':
+                value.append('\b');
+                break;
+            case 'f':
+                value.append('\f');
+                break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    code = (code << 4) | Character.digit(next(), 16);
+                }
+                value.append((char) code);
+                break;
+            default:
+                value.append((char) c);
+        }
+    }
+
+    private void readUtf8(final int first) throws IOException {
+        final int length = first >= 0xF0 ? 4 : (first >= 0xE0 ? 3 : 2);
+        utf8[0] = (byte) first;
+        for (int i = 1; i < length; i++) {
+            utf8[i] = (byte) next();
+        }
+        value.append(new String(utf8, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private void readLiteral(final int first) throws IOException {
+        value.setLength(0);
+        value.append((char) first);
+        int c;
+        while ((c = next()) != -1) {
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                peeked = c;
+                break;
+            }
+            value.append((char) c);
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = next();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int next() throws IOException {
+        if (peeked != -1) {
+            final int result = peeked;
+            peeked = -1;
+            return result;
+        }
+        if (pos >= limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++] & 0xFF;
+    }
+}
@@ -0,0 +1,85 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsPhase;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * JFR event for each {@link NatsPhase} e.g. download, extraction, port scan, spawn, readiness and shutdown <br />
+ * Recorded only while a JFR recording with the event enabled is running e.g. "-XX:StartFlightRecording"
+ *
+ * @author Yuna Morgenstern
+ * @since 2.14
+ */
+@Name("berlin.yuna.natsserver.Lifecycle")
+@Label("Nats Lifecycle Phase")
+@Category({"Nats", "Lifecycle"})
+@Description("Duration of a nats-server wrapper lifecycle phase")
+@StackTrace(false)
+public class NatsLifecycleEvent extends Event {
+
+    @Label("Phase")
+    protected String phase;
+
+    @Label("Name")
+    protected String name;
+
+    @Label("Port")
+    protected int port;
+
+    @Label("Version")
+    protected String version;
+
+    protected final transient NatsPhase natsPhase;
+    protected transient long startNanos;
+
+    protected NatsLifecycleEvent(final NatsPhase phase) {
+        this.natsPhase = phase;
+        this.phase = phase.name();
+    }
+
+    /**
+     * @param phase lifecycle phase
+     * @return started event
+     */
+    public static NatsLifecycleEvent beginPhase(final NatsPhase phase) {
+        final NatsLifecycleEvent event = new NatsLifecycleEvent(phase);
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if the recording is interested - labels are only resolved in that case
+     *
+     * @param name    instance name supplier
+     * @param port    port supplier
+     * @param version version supplier
+     * @return duration of the phase in nanoseconds
+     */
+    public long endPhase(final Supplier<String> name, final IntSupplier port, final Supplier<String> version) {
+        end();
+        final long durationNanos = System.nanoTime() - startNanos;
+        if (shouldCommit()) {
+            this.name = name.get();
+            this.port = port.getAsInt();
+            this.version = version.get();
+            commit();
+        }
+        return durationNanos;
+    }
+
+    /**
+     * @return lifecycle phase of the event
+     */
+    public NatsPhase phase() {
+        return natsPhase;
+    }
+}
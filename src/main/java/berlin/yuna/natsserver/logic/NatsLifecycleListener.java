@@ -0,0 +1,31 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.model.NatsPhase;
+
+/**
+ * Listener for the {@link NatsPhase} transitions of a {@link Nats} instance e.g. to enforce startup budgets <br />
+ * Called synchronously on the thread running the phase - exceptions are logged and ignored
+ *
+ * @author Yuna Morgenstern
+ * @see NatsOptionsBuilder#listener(NatsLifecycleListener)
+ * @see Nats#startupReport()
+ * @since 2.14
+ */
+@FunctionalInterface
+public interface NatsLifecycleListener {
+
+    /**
+     * @param nats  server instance
+     * @param phase started phase
+     */
+    default void onPhaseStart(final Nats nats, final NatsPhase phase) {
+    }
+
+    /**
+     * @param nats          server instance
+     * @param phase         ended phase
+     * @param durationNanos duration of the phase in nanoseconds
+     */
+    void onPhaseEnd(Nats nats, NatsPhase phase, long durationNanos);
+}
@@ -0,0 +1,246 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsLoadResult;
+import io.nats.commons.NatsInterface;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static berlin.yuna.natsserver.logic.NatsConnection.BUFFER_SIZE;
+import static berlin.yuna.natsserver.logic.NatsConnection.frame;
+import static java.lang.String.format;
+
+/**
+ * {@link NatsLoadGenerator} drives core pub/sub load against any server without a client library - like "nats bench" <br />
+ * Each publisher and subscriber owns a {@link NatsConnection} - a non-blocking socket channel with pooled direct buffers speaking the text protocol (CONNECT/PUB/SUB/MSG). <br />
+ * Publishers copy one pre-encoded PUB frame per message and flush in batches, subscribers count MSG frames in place - the hot loops do not allocate.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#url()
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsLoadGenerator {
+
+    private int publishers = 1;
+    private int subscribers = 1;
+    private long messages = 100_000;
+    private int payloadSize = 128;
+    private int batchSize = 100;
+    private long timeoutMs = 30_000;
+    private String subject;
+
+    /**
+     * @param publishers number of publisher connections
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator publishers(final int publishers) {
+        this.publishers = Math.max(1, publishers);
+        return this;
+    }
+
+    /**
+     * @param subscribers number of subscriber connections - every subscriber receives every message, 0 measures publishing only
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator subscribers(final int subscribers) {
+        this.subscribers = Math.max(0, subscribers);
+        return this;
+    }
+
+    /**
+     * @param messages messages per publisher
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator messages(final long messages) {
+        this.messages = Math.max(0, messages);
+        return this;
+    }
+
+    /**
+     * @param payloadSize payload bytes per message
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator payloadSize(final int payloadSize) {
+        this.payloadSize = Math.max(0, payloadSize);
+        return this;
+    }
+
+    /**
+     * @param batchSize messages per flush, &lt;=0 flushes only when the buffer is full
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator batchSize(final int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param timeoutMs timeout for connecting and for the whole run
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator timeoutMs(final long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        return this;
+    }
+
+    /**
+     * @param subject subject to publish on - default is a unique subject per run
+     * @return self {@link NatsLoadGenerator}
+     */
+    public NatsLoadGenerator subject(final String subject) {
+        this.subject = subject;
+        return this;
+    }
+
+    /**
+     * @param nats running server
+     * @return throughput of this run
+     * @throws IOException on connection or protocol errors
+     */
+    public NatsLoadResult run(final NatsInterface nats) throws IOException {
+        return run(nats.url());
+    }
+
+    /**
+     * @param url server url e.g. "nats://127.0.0.1:4222" - wildcard hosts like "0.0.0.0" are mapped to "127.0.0.1"
+     * @return throughput of this run
+     * @throws IOException on connection or protocol errors
+     */
+    public NatsLoadResult run(final String url) throws IOException {
+        final URI uri = URI.create(url.contains("://") ? url : "nats://" + url);
+        if (uri.getHost() == null || uri.getPort() <= 0) {
+            throw new IllegalArgumentException(format("Invalid nats url [%s]", url));
+        }
+        final String host = uri.getHost();
+        return run("0.0.0.0".equals(host) || "[::]".equals(host) ? "127.0.0.1" : host, uri.getPort());
+    }
+
+    /**
+     * Subscribes all subscribers, starts all publishers at once and waits until every message is received or the timeout is reached
+     *
+     * @param host server host
+     * @param port server client port
+     * @return throughput of this run - see {@link NatsLoadResult#complete()} for lost messages
+     * @throws IOException on connection or protocol errors
+     */
+    public NatsLoadResult run(final String host, final int port) throws IOException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        final String target = subject != null ? subject : "_load." + Long.toHexString(System.nanoTime());
+        final byte[] frame = frame(target, payloadSize);
+        final long expected = publishers * messages;
+        final CountDownLatch ready = new CountDownLatch(publishers + subscribers);
+        final CountDownLatch go = new CountDownLatch(1);
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final long[] counts = new long[subscribers];
+        final long[] ends = new long[publishers + subscribers];
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            final int index = i;
+            threads.add(start("nats-load-sub-" + i, error, ready, () -> {
+                try (NatsConnection sub = new NatsConnection(host, port, "nats-load-sub", deadline, BUFFER_SIZE)) {
+                    sub.write("SUB " + target + " " + (index + 1) + "\r\n");
+                    sub.awaitPong(deadline);
+                    ready.countDown();
+                    await(go, deadline);
+                    while (sub.messages < expected && error.get() == null && sub.read(deadline)) {
+                        // counted by the parser
+                    }
+                    counts[index] = sub.messages;
+                    ends[publishers + index] = sub.lastMessageNanos;
+                }
+            }));
+        }
+        for (int i = 0; i < publishers; i++) {
+            final int index = i;
+            threads.add(start("nats-load-pub-" + i, error, ready, () -> {
+                try (NatsConnection pub = new NatsConnection(host, port, "nats-load-pub", deadline, Math.max(BUFFER_SIZE, frame.length))) {
+                    ready.countDown();
+                    await(go, deadline);
+                    if (error.get() != null) {
+                        return;
+                    }
+                    int batched = 0;
+                    for (long m = 0; m < messages; m++) {
+                        pub.write(frame);
+                        if (++batched == batchSize) {
+                            pub.flush();
+                            batched = 0;
+                        }
+                    }
+                    pub.awaitPong(deadline);
+                    ends[index] = System.nanoTime();
+                }
+            }));
+        }
+        await(ready, deadline);
+        if (error.get() == null && ready.getCount() > 0) {
+            error.compareAndSet(null, new IOException(format("Load generator connections not ready within [%s] ms", timeoutMs)));
+        }
+        final long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            join(thread, deadline);
+        }
+        if (error.get() != null) {
+            throw new IOException(format("Load generator failed [%s]", error.get().getMessage()), error.get());
+        }
+        final long publishEnd = Arrays.stream(ends, 0, publishers).max().orElse(start);
+        final long receiveEnd = Arrays.stream(ends, publishers, ends.length).max().orElse(start);
+        return new NatsLoadResult(publishers, subscribers, payloadSize, expected, Math.max(0, publishEnd - start), Arrays.stream(counts).sum(), Math.max(0, receiveEnd - start));
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static Thread start(final String name, final AtomicReference<Exception> error, final CountDownLatch ready, final Task task) {
+        final Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                error.compareAndSet(null, e);
+                while (ready.getCount() > 0) {
+                    ready.countDown();
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void await(final CountDownLatch latch, final long deadline) {
+        try {
+            latch.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void join(final Thread thread, final long deadline) {
+        try {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 250));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NatsLoadGenerator{" +
+                "publishers=" + publishers +
+                ", subscribers=" + subscribers +
+                ", messages=" + messages +
+                ", payloadSize=" + payloadSize +
+                ", batchSize=" + batchSize +
+                ", timeoutMs=" + timeoutMs +
+                '}';
+    }
+}
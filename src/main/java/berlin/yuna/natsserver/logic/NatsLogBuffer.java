@@ -0,0 +1,280 @@
+package berlin.yuna.natsserver.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * {@link NatsLogBuffer} keeps the latest server output lines in a fixed size lock-free ring buffer <br />
+ * The process reader threads only append - forwarding to the java logger is drained asynchronously and rate limited. <br />
+ * {@link NatsLogBuffer#awaitLog(Pattern, long)} lets tests sync on server events without racing the logger.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#logs()
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsLogBuffer implements AutoCloseable {
+
+    public static final long DRAIN_INTERVAL_MS = 100;
+    private static final ScheduledExecutorService DRAINER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "nats-log-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Line> lines;
+    private final AtomicLong head = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicInteger waiters = new AtomicInteger(0);
+    private final Object signal = new Object();
+    private Logger logger;
+    private int linesPerSecond;
+    private double tokens;
+    private long lastDrainNanos;
+    private long forwarded;
+    private ScheduledFuture<?> drainer;
+
+    private static final class Line {
+        private final long sequence;
+        private final String text;
+
+        private Line(final long sequence, final String text) {
+            this.sequence = sequence;
+            this.text = text;
+        }
+    }
+
+    /**
+     * @param capacity max lines kept - rounded up to the next power of two
+     */
+    public NatsLogBuffer(final int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.lines = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * Appends a line and overwrites the oldest one when full - never blocks
+     *
+     * @param text output line of stdout or stderr
+     * @return sequence of the line
+     */
+    public long append(final String text) {
+        final long sequence = head.getAndIncrement();
+        lines.set(index(sequence), new Line(sequence, text));
+        if (waiters.get() > 0) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * @return sequence of the next line - can be used as start for {@link NatsLogBuffer#awaitLog(Pattern, long, long)}
+     */
+    public long sequence() {
+        return head.get();
+    }
+
+    /**
+     * @return max lines kept
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return lines which were not forwarded to the logger cause of the rate limit or overflow
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @param n max number of lines
+     * @return latest lines - oldest first
+     */
+    public List<String> tail(final int n) {
+        final long end = head.get();
+        final long start = Math.max(0, Math.max(end - capacity, end - Math.max(0, n)));
+        final List<String> result = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            final Line line = lines.get(index(sequence));
+            if (line != null && line.sequence == sequence) {
+                result.add(line.text);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a line matching the pattern - the lines still in the buffer are included
+     *
+     * @param pattern   pattern to find in a line
+     * @param timeoutMs max wait time
+     * @return first matching line or null on timeout
+     */
+    public String awaitLog(final Pattern pattern, final long timeoutMs) {
+        return awaitLog(pattern, 0, timeoutMs);
+    }
+
+    /**
+     * @param pattern       pattern to find in a line
+     * @param startSequence first line to check e.g. from {@link NatsLogBuffer#sequence()} before triggering an event
+     * @param timeoutMs     max wait time
+     * @return first matching line or null on timeout
+     */
+    public String awaitLog(final Pattern pattern, final long startSequence, final long timeoutMs) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        long cursor = startSequence;
+        waiters.incrementAndGet();
+        try {
+            while (true) {
+                final long end = head.get();
+                cursor = Math.max(cursor, end - capacity);
+                for (; cursor < end; cursor++) {
+                    final Line line = lines.get(index(cursor));
+                    if (line == null || line.sequence < cursor) {
+                        break;
+                    } else if (line.sequence == cursor && pattern.matcher(line.text).find()) {
+                        return line.text;
+                    }
+                }
+                final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return null;
+                }
+                synchronized (signal) {
+                    if (head.get() == end) {
+                        signal.wait(Math.min(remainingMs, DRAIN_INTERVAL_MS));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Forwards new lines asynchronously to the logger - levels are taken from the server log tags e.g. "[WRN]"
+     *
+     * @param logger         target logger
+     * @param linesPerSecond max forwarded lines per second, &lt;=0 disables forwarding
+     * @return self {@link NatsLogBuffer}
+     */
+    public synchronized NatsLogBuffer forwardTo(final Logger logger, final int linesPerSecond) {
+        stopForwarding();
+        if (logger != null && linesPerSecond > 0) {
+            this.logger = logger;
+            this.linesPerSecond = linesPerSecond;
+            this.tokens = linesPerSecond;
+            this.lastDrainNanos = System.nanoTime();
+            this.forwarded = head.get();
+            this.drainer = DRAINER.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Forwards the pending lines and stops forwarding
+     *
+     * @return self {@link NatsLogBuffer}
+     */
+    public synchronized NatsLogBuffer stopForwarding() {
+        if (drainer != null) {
+            drainer.cancel(false);
+            drainer = null;
+            drain();
+            logger = null;
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        stopForwarding();
+    }
+
+    /**
+     * @param text server log line e.g. "[1] 2024/01/01 00:00:00.000000 [WRN] ..."
+     * @return java log level of the server log tag - default {@link Level#INFO}
+     */
+    public static Level levelOf(final String text) {
+        if (text.contains("[ERR]") || text.contains("[FTL]")) {
+            return Level.SEVERE;
+        } else if (text.contains("[WRN]")) {
+            return Level.WARNING;
+        } else if (text.contains("[DBG]")) {
+            return Level.FINE;
+        } else if (text.contains("[TRC]")) {
+            return Level.FINEST;
+        }
+        return Level.INFO;
+    }
+
+    private synchronized void drain() {
+        if (logger == null) {
+            return;
+        }
+        final long now = System.nanoTime();
+        tokens = Math.min(linesPerSecond, tokens + (now - lastDrainNanos) * linesPerSecond / 1_000_000_000d);
+        lastDrainNanos = now;
+        final long end = head.get();
+        long skipped = Math.max(0, end - capacity - forwarded);
+        long sequence = forwarded + skipped;
+        for (; sequence < end; sequence++) {
+            final Line line = lines.get(index(sequence));
+            if (line == null || line.sequence < sequence) {
+                break;
+            }
+            final Level level = levelOf(line.text);
+            if (line.sequence > sequence) {
+                skipped++;
+            } else if (!logger.isLoggable(level)) {
+                continue;
+            } else if (tokens >= 1) {
+                tokens--;
+                logger.log(level, line.text);
+            } else {
+                skipped++;
+            }
+        }
+        forwarded = sequence;
+        if (skipped > 0) {
+            dropped.addAndGet(skipped);
+            final long count = skipped;
+            logger.warning(() -> format("Skipped [%s] server output lines - rate limit [%s] lines/s", count, linesPerSecond));
+        }
+    }
+
+    private int index(final long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    @Override
+    public String toString() {
+        return "NatsLogBuffer{" +
+                "capacity=" + capacity +
+                ", sequence=" + sequence() +
+                ", dropped=" + dropped() +
+                '}';
+    }
+}
@@ -0,0 +1,147 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsLogEvent;
+import berlin.yuna.natsserver.model.NatsLogEvent.Type;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * {@link NatsLogParser} turns server log lines into typed {@link NatsLogEvent}s with a counter per {@link Type} <br />
+ * Lines are matched by plain substrings first - only matching lines are split into level, source and message. <br />
+ * e.g. assert that a load run had no slow consumers: {@code nats.logEvents().count(Type.SLOW_CONSUMER) == 0}
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#logEvents()
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsLogParser implements Consumer<String> {
+
+    private static final Type[] TYPES = Type.values();
+    private static final Pattern LINE = Pattern.compile("^(?:\\[\\d+] )?(?:\\S+ \\S+ )?\\[([A-Z]{3})] (?:(\\S+ - \\w+:\\d+(?: - \"[^\"]*\")?) - )?(.*)$");
+
+    private final AtomicLongArray counts = new AtomicLongArray(TYPES.length);
+    private final List<Consumer<NatsLogEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final Logger logger = Logger.getLogger(NatsLogParser.class.getSimpleName());
+
+    /**
+     * Parses the line, counts and publishes the event to the listeners
+     *
+     * @param line server log line
+     */
+    @Override
+    public void accept(final String line) {
+        parse(line);
+    }
+
+    /**
+     * @param line server log line
+     * @return parsed event or null if the line has no known event
+     */
+    public NatsLogEvent parse(final String line) {
+        final Type type = typeOf(line);
+        if (type == null) {
+            return null;
+        }
+        counts.incrementAndGet(type.ordinal());
+        final Matcher matcher = LINE.matcher(line);
+        final NatsLogEvent event = matcher.matches()
+                ? new NatsLogEvent(type, System.currentTimeMillis(), matcher.group(1), matcher.group(2), matcher.group(3), line)
+                : new NatsLogEvent(type, System.currentTimeMillis(), null, null, line, line);
+        for (Consumer<NatsLogEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.warning(() -> format("Log event listener [%s] failed on [%s] cause [%s]", listener, type, e.getMessage()));
+            }
+        }
+        return event;
+    }
+
+    /**
+     * @param listener called on the capturing thread for each event - must not block
+     * @return self {@link NatsLogParser}
+     */
+    public NatsLogParser listener(final Consumer<NatsLogEvent> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * @param type     event type
+     * @param listener called on the capturing thread for each event of the type - must not block
+     * @return self {@link NatsLogParser}
+     */
+    public NatsLogParser listener(final Type type, final Consumer<NatsLogEvent> listener) {
+        return listener(event -> {
+            if (event.type() == type) {
+                listener.accept(event);
+            }
+        });
+    }
+
+    /**
+     * @param type event type
+     * @return number of events since creation or the last {@link NatsLogParser#reset()}
+     */
+    public long count(final Type type) {
+        return counts.get(type.ordinal());
+    }
+
+    /**
+     * @return number of events per type - types without events are included with 0
+     */
+    public Map<Type, Long> counts() {
+        final Map<Type, Long> result = new EnumMap<>(Type.class);
+        for (Type type : TYPES) {
+            result.put(type, counts.get(type.ordinal()));
+        }
+        return result;
+    }
+
+    /**
+     * Resets all counters e.g. before a load run
+     *
+     * @return self {@link NatsLogParser}
+     */
+    public NatsLogParser reset() {
+        for (int i = 0; i < TYPES.length; i++) {
+            counts.set(i, 0);
+        }
+        return this;
+    }
+
+    /**
+     * @param line server log line
+     * @return first matching type or null
+     */
+    public static Type typeOf(final String line) {
+        if (line == null) {
+            return null;
+        }
+        for (Type type : TYPES) {
+            if (type.matches(line)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsLogParser{" +
+                "counts=" + counts +
+                ", listeners=" + listeners.size() +
+                '}';
+    }
+}
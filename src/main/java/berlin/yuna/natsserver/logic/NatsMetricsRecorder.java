@@ -0,0 +1,344 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsJsz;
+import berlin.yuna.natsserver.model.NatsVarz;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+/**
+ * {@link NatsMetricsRecorder} samples "/varz" and "/jsz" at a fixed interval into columnar primitive arrays <br />
+ * Memory is bounded by the capacity - when full, every second sample is dropped and the sample interval doubles. <br />
+ * On close the series including rates of the counters (e.g. msgs/s) can be exported as CSV and JSON.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#recorder(long, int)
+ * @see NatsMonitor
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsMetricsRecorder implements AutoCloseable {
+
+    public enum Column {
+        IN_MSGS("in_msgs", true, varz(NatsVarz::inMsgs)),
+        OUT_MSGS("out_msgs", true, varz(NatsVarz::outMsgs)),
+        IN_BYTES("in_bytes", true, varz(NatsVarz::inBytes)),
+        OUT_BYTES("out_bytes", true, varz(NatsVarz::outBytes)),
+        SLOW_CONSUMERS("slow_consumers", false, varz(NatsVarz::slowConsumers)),
+        MEM("mem", false, varz(NatsVarz::mem)),
+        CONNECTIONS("connections", false, varz(NatsVarz::connections)),
+        SUBSCRIPTIONS("subscriptions", false, varz(NatsVarz::subscriptions)),
+        JS_MEMORY("js_memory", false, jsz(NatsJsz::memory)),
+        JS_STORAGE("js_storage", false, jsz(NatsJsz::storage)),
+        JS_MESSAGES("js_messages", false, jsz(NatsJsz::messages));
+
+        private final String key;
+        private final boolean counter;
+        private final Extractor extractor;
+
+        Column(final String key, final boolean counter, final Extractor extractor) {
+            this.key = key;
+            this.counter = counter;
+            this.extractor = extractor;
+        }
+
+        /**
+         * @return export name e.g. "in_msgs"
+         */
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return true if the value is cumulative and a rate per second is exported
+         */
+        public boolean counter() {
+            return counter;
+        }
+
+        private static Extractor varz(final ToLongFunction<NatsVarz> value) {
+            return (varz, jsz) -> varz == null ? -1 : value.applyAsLong(varz);
+        }
+
+        private static Extractor jsz(final ToLongFunction<NatsJsz> value) {
+            return (varz, jsz) -> jsz == null ? -1 : value.applyAsLong(jsz);
+        }
+    }
+
+    private interface Extractor {
+        long apply(NatsVarz varz, NatsJsz jsz);
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final NatsMonitor monitor;
+    private final long intervalMs;
+    private final int capacity;
+    private final long[] timestamps;
+    private final long[][] values;
+    private final Logger logger = Logger.getLogger(NatsMetricsRecorder.class.getSimpleName());
+    private int size;
+    private int stride = 1;
+    private long ticks;
+    private Path exportDir;
+    private String exportName;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param monitor    monitoring client e.g. {@link Nats#monitor()}
+     * @param intervalMs sample interval
+     * @param capacity   max samples - min 2
+     */
+    public NatsMetricsRecorder(final NatsMonitor monitor, final long intervalMs, final int capacity) {
+        this.monitor = monitor;
+        this.intervalMs = Math.max(1, intervalMs);
+        this.capacity = Math.max(2, capacity);
+        this.timestamps = new long[this.capacity];
+        this.values = new long[COLUMNS.length][this.capacity];
+    }
+
+    /**
+     * Exports the series on {@link NatsMetricsRecorder#close()} to "[name].csv" and "[name].json"
+     *
+     * @param directory target directory
+     * @param name      file name without extension
+     * @return self {@link NatsMetricsRecorder}
+     */
+    public NatsMetricsRecorder exportOnClose(final Path directory, final String name) {
+        this.exportDir = directory;
+        this.exportName = name;
+        return this;
+    }
+
+    /**
+     * Starts sampling on a single daemon thread
+     *
+     * @return self {@link NatsMetricsRecorder}
+     */
+    public synchronized NatsMetricsRecorder start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "nats-metrics-recorder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::tick, 0, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Reads "/varz" and "/jsz" and appends a sample
+     *
+     * @return true if "/varz" was reachable
+     */
+    public boolean sample() {
+        final NatsVarz varz = monitor.varz();
+        if (varz == null) {
+            return false;
+        }
+        final NatsJsz jsz = monitor.jsz();
+        synchronized (this) {
+            if (size == capacity) {
+                downsample();
+            }
+            timestamps[size] = varz.timestamp();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                values[i][size] = COLUMNS[i].extractor.apply(varz, jsz);
+            }
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of samples
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return current sample interval in milliseconds - grows with every downsampling
+     */
+    public synchronized long effectiveIntervalMs() {
+        return intervalMs * stride;
+    }
+
+    /**
+     * @return epoch milliseconds of the samples
+     */
+    public synchronized long[] timestamps() {
+        return Arrays.copyOf(timestamps, size);
+    }
+
+    /**
+     * @param column column
+     * @return values of the samples, -1 == not available
+     */
+    public synchronized long[] series(final Column column) {
+        return Arrays.copyOf(values[column.ordinal()], size);
+    }
+
+    /**
+     * @param column column
+     * @return change per second to the previous sample - the first value is 0
+     */
+    public synchronized double[] rate(final Column column) {
+        final long[] series = values[column.ordinal()];
+        final double[] result = new double[size];
+        for (int i = 1; i < size; i++) {
+            final long millis = timestamps[i] - timestamps[i - 1];
+            result[i] = millis <= 0 || series[i] < 0 || series[i - 1] < 0 ? 0 : (series[i] - series[i - 1]) * 1000d / millis;
+        }
+        return result;
+    }
+
+    /**
+     * @return CSV with header - one row per sample incl. rates of the counters
+     */
+    public synchronized String toCsv() {
+        final StringBuilder sb = new StringBuilder("timestamp");
+        for (Column column : COLUMNS) {
+            sb.append(',').append(column.key);
+        }
+        for (Column column : COLUMNS) {
+            if (column.counter) {
+                sb.append(',').append(column.key).append("_per_sec");
+            }
+        }
+        sb.append('\n');
+        final double[][] rates = rates();
+        for (int row = 0; row < size; row++) {
+            sb.append(timestamps[row]);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                sb.append(',').append(values[i][row]);
+            }
+            for (double[] rate : rates) {
+                if (rate != null) {
+                    sb.append(',').append(format(Locale.ROOT, "%.2f", rate[row]));
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return JSON object with the interval and one array per column incl. rates of the counters
+     */
+    public synchronized String toJson() {
+        final StringBuilder sb = new StringBuilder("{\"interval_ms\":").append(intervalMs * stride).append(",\"timestamp\":");
+        appendArray(sb, timestamps);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            sb.append(",\"").append(COLUMNS[i].key).append("\":");
+            appendArray(sb, values[i]);
+        }
+        final double[][] rates = rates();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (rates[i] != null) {
+                sb.append(",\"").append(COLUMNS[i].key).append("_per_sec\":[");
+                for (int row = 0; row < size; row++) {
+                    sb.append(row == 0 ? "" : ",").append(format(Locale.ROOT, "%.2f", rates[i][row]));
+                }
+                sb.append(']');
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Writes "[name].csv" and "[name].json"
+     *
+     * @param directory target directory
+     * @param name      file name without extension
+     * @throws IOException if the files can't be written
+     */
+    public void export(final Path directory, final String name) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(name + ".csv"), toCsv(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve(name + ".json"), toJson(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        if (exportDir != null) {
+            try {
+                export(exportDir, exportName);
+            } catch (IOException e) {
+                logger.warning(() -> format("Could not export metrics to [%s] cause [%s]", exportDir, e.getMessage()));
+            }
+        }
+    }
+
+    private void tick() {
+        final boolean due;
+        synchronized (this) {
+            due = ticks++ % stride == 0;
+        }
+        if (due) {
+            sample();
+        }
+    }
+
+    /**
+     * Keeps every second sample incl. the latest - counters stay exact, gauges lose resolution
+     */
+    private void downsample() {
+        int target = 0;
+        for (int source = (size - 1) % 2; source < size; source += 2) {
+            timestamps[target] = timestamps[source];
+            for (long[] column : values) {
+                column[target] = column[source];
+            }
+            target++;
+        }
+        size = target;
+        stride *= 2;
+    }
+
+    private double[][] rates() {
+        final double[][] result = new double[COLUMNS.length][];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (COLUMNS[i].counter) {
+                result[i] = rate(COLUMNS[i]);
+            }
+        }
+        return result;
+    }
+
+    private void appendArray(final StringBuilder sb, final long[] array) {
+        sb.append('[');
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append(array[i]);
+        }
+        sb.append(']');
+    }
+
+    @Override
+    public String toString() {
+        return "NatsMetricsRecorder{" +
+                "monitor=" + monitor +
+                ", intervalMs=" + intervalMs +
+                ", capacity=" + capacity +
+                ", size=" + size() +
+                '}';
+    }
+}
@@ -0,0 +1,208 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsConnz;
+import berlin.yuna.natsserver.model.NatsJsz;
+import berlin.yuna.natsserver.model.NatsMonitorSnapshot;
+import berlin.yuna.natsserver.model.NatsRoutez;
+import berlin.yuna.natsserver.model.NatsSubsz;
+import berlin.yuna.natsserver.model.NatsVarz;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * {@link NatsMonitor} reads the monitoring endpoints of a server into typed snapshots <br />
+ * Responses are parsed while streaming with a reused {@link NatsJsonReader}, only scalar values are kept. <br />
+ * All methods return null if the endpoint is not reachable like {@link NatsUtils#httpGet(String, long)}.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#monitor()
+ * @since 2.14
+ */
+@SuppressWarnings("unused")
+public class NatsMonitor {
+
+    private final String baseUrl;
+    private final long timeoutMs;
+    private final NatsJsonReader reader = new NatsJsonReader();
+
+    /**
+     * @param baseUrl   monitoring url e.g. "http://127.0.0.1:8222"
+     * @param timeoutMs connect and read timeout
+     */
+    public NatsMonitor(final String baseUrl, final long timeoutMs) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return monitoring url
+     */
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return server statistics from "/varz"
+     */
+    public NatsVarz varz() {
+        return read("/varz", null, (values, items) -> new NatsVarz(System.currentTimeMillis(), values));
+    }
+
+    /**
+     * @return client connections from "/connz"
+     */
+    public NatsConnz connz() {
+        return read("/connz", "connections[]", (values, items) -> {
+            final long now = System.currentTimeMillis();
+            final List<NatsConnz.Connection> connections = new ArrayList<>(items.size());
+            items.forEach(item -> connections.add(new NatsConnz.Connection(now, item)));
+            return new NatsConnz(now, values, connections);
+        });
+    }
+
+    /**
+     * @return subscription routing statistics from "/subsz"
+     */
+    public NatsSubsz subsz() {
+        return read("/subsz", null, (values, items) -> new NatsSubsz(System.currentTimeMillis(), values));
+    }
+
+    /**
+     * @return JetStream statistics from "/jsz"
+     */
+    public NatsJsz jsz() {
+        return read("/jsz", "meta_cluster.replicas[]", (values, items) -> {
+            final long now = System.currentTimeMillis();
+            final List<NatsJsz.Replica> replicas = new ArrayList<>(items.size());
+            items.forEach(item -> replicas.add(new NatsJsz.Replica(now, item)));
+            return new NatsJsz(now, values, replicas);
+        });
+    }
+
+    /**
+     * @return cluster routes from "/routez"
+     */
+    public NatsRoutez routez() {
+        return read("/routez", "routes[]", (values, items) -> {
+            final long now = System.currentTimeMillis();
+            final List<NatsRoutez.Route> routes = new ArrayList<>(items.size());
+            items.forEach(item -> routes.add(new NatsRoutez.Route(now, item)));
+            return new NatsRoutez(now, values, routes);
+        });
+    }
+
+    /**
+     * @param endpoint endpoint incl. query e.g. "/connz?limit=10"
+     * @return scalar values of any endpoint
+     */
+    public NatsMonitorSnapshot snapshot(final String endpoint) {
+        return read(endpoint, null, (values, items) -> new NatsMonitorSnapshot(System.currentTimeMillis(), values));
+    }
+
+    /**
+     * @param endpoint endpoint e.g. "/varz"
+     * @param itemPath array path which is collected as items e.g. "connections[]"
+     * @param factory  creates the snapshot from the top level values and the items
+     * @return snapshot or null if the endpoint is not reachable or the response is invalid
+     */
+    protected synchronized <T> T read(final String endpoint, final String itemPath, final BiFunction<Map<String, String>, List<Map<String, String>>, T> factory) {
+        try {
+            final HttpURLConnection con = (HttpURLConnection) new URL(baseUrl + endpoint).openConnection();
+            con.setConnectTimeout((int) timeoutMs);
+            con.setReadTimeout((int) timeoutMs);
+            if (con.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                con.disconnect();
+                return null;
+            }
+            final Collector collector = new Collector(itemPath);
+            try (final InputStream inputStream = con.getInputStream()) {
+                reader.read(inputStream, collector);
+            }
+            return factory.apply(collector.values, collector.items);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Keeps top level scalars incl. nested objects and the scalars of the items - other arrays are skipped
+     */
+    private static class Collector implements NatsJsonReader.Handler {
+        private final String itemPath;
+        private final String itemPrefix;
+        private final Map<String, String> values = new HashMap<>();
+        private final List<Map<String, String>> items = new ArrayList<>();
+        private Map<String, String> item;
+
+        private Collector(final String itemPath) {
+            this.itemPath = itemPath;
+            this.itemPrefix = itemPath == null ? null : itemPath + ".";
+        }
+
+        @Override
+        public void value(final CharSequence path, final CharSequence value) {
+            if (item != null && startsWith(path, itemPrefix)) {
+                if (!contains(path, itemPrefix.length())) {
+                    item.put(path.subSequence(itemPrefix.length(), path.length()).toString(), value.toString());
+                }
+            } else if (!contains(path, 0)) {
+                values.put(path.toString(), value.toString());
+            }
+        }
+
+        @Override
+        public void beginObject(final CharSequence path) {
+            if (itemPath != null && itemPath.contentEquals(path)) {
+                item = new HashMap<>();
+            }
+        }
+
+        @Override
+        public void endObject(final CharSequence path) {
+            if (item != null && itemPath.contentEquals(path)) {
+                items.add(item);
+                item = null;
+            }
+        }
+
+        private static boolean startsWith(final CharSequence path, final String prefix) {
+            if (path.length() < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (path.charAt(i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the path contains an array marker after the offset
+         */
+        private static boolean contains(final CharSequence path, final int offset) {
+            for (int i = offset; i < path.length() - 1; i++) {
+                if (path.charAt(i) == '[' && path.charAt(i + 1) == ']') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NatsMonitor{" +
+                "baseUrl=" + baseUrl +
+                ", timeoutMs=" + timeoutMs +
+                '}';
+    }
+}
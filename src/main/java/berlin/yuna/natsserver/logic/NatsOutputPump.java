@@ -0,0 +1,211 @@
+package berlin.yuna.natsserver.logic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+/**
+ * {@link NatsOutputPump} reads the stdout and stderr pipes of all server processes on one shared daemon thread <br />
+ * Streams are polled with {@link InputStream#available()} so no thread blocks on a pipe - the pump backs off while all pipes are idle. <br />
+ * Replaces two reader threads per process (plus two per signal process) e.g. 60+ threads for a 30 node topology.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#logs()
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsOutputPump {
+
+    public static final long MIN_IDLE_NANOS = 500_000;
+    public static final long MAX_IDLE_NANOS = 20_000_000;
+    public static final int MAX_LINE_BYTES = 1 << 20;
+    private static final NatsOutputPump SHARED = new NatsOutputPump("nats-output-pump");
+
+    private final String threadName;
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+    private final byte[] chunk = new byte[8192];
+    private final Logger logger = Logger.getLogger(NatsOutputPump.class.getSimpleName());
+    private Thread thread;
+
+    private static final class Source {
+        private final Process process;
+        private final InputStream stream;
+        private final Consumer<String> consumer;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private byte[] line = new byte[256];
+        private int length;
+
+        private Source(final Process process, final InputStream stream, final Consumer<String> consumer) {
+            this.process = process;
+            this.stream = stream;
+            this.consumer = consumer;
+        }
+    }
+
+    /**
+     * @return pump shared by all {@link Nats} instances
+     */
+    public static NatsOutputPump shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param threadName name of the pump thread
+     */
+    public NatsOutputPump(final String threadName) {
+        this.threadName = threadName;
+    }
+
+    /**
+     * Pumps stdout and stderr of the process line by line into the consumers until the process ended
+     *
+     * @param process        process to read
+     * @param stdoutConsumer consumer for stdout lines - called on the pump thread, must not block
+     * @param stderrConsumer consumer for stderr lines - called on the pump thread, must not block
+     * @return future which completes when both streams are drained after the process ended
+     */
+    public CompletableFuture<Void> pump(final Process process, final Consumer<String> stdoutConsumer, final Consumer<String> stderrConsumer) {
+        final Source stdout = new Source(process, process.getInputStream(), stdoutConsumer);
+        final Source stderr = new Source(process, process.getErrorStream(), stderrConsumer);
+        sources.add(stdout);
+        sources.add(stderr);
+        ensureRunning();
+        return CompletableFuture.allOf(stdout.done, stderr.done);
+    }
+
+    /**
+     * @return number of streams which are currently pumped
+     */
+    public int streams() {
+        return sources.size();
+    }
+
+    private synchronized void ensureRunning() {
+        if (thread == null || !thread.isAlive()) {
+            thread = new Thread(this::run, threadName);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        long idleNanos = MIN_IDLE_NANOS;
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean read = false;
+            for (Source source : sources) {
+                read |= read(source);
+            }
+            if (sources.isEmpty()) {
+                synchronized (this) {
+                    if (sources.isEmpty()) {
+                        thread = null;
+                        return;
+                    }
+                }
+            }
+            if (read) {
+                idleNanos = MIN_IDLE_NANOS;
+            } else {
+                LockSupport.parkNanos(this, idleNanos);
+                idleNanos = Math.min(MAX_IDLE_NANOS, idleNanos * 2);
+            }
+        }
+    }
+
+    /**
+     * @return true if bytes were read
+     */
+    private boolean read(final Source source) {
+        try {
+            final boolean alive = source.process.isAlive();
+            final int available = source.stream.available();
+            if (available > 0) {
+                final int count = source.stream.read(chunk, 0, Math.min(available, chunk.length));
+                if (count > 0) {
+                    split(source, count);
+                    return true;
+                }
+            }
+            if (!alive) {
+                drain(source);
+            }
+            return false;
+        } catch (IOException e) {
+            finish(source);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the buffered rest of the stream of an ended process - never blocks e.g. on a pipe inherited by a child process
+     */
+    private void drain(final Source source) throws IOException {
+        int available;
+        while ((available = source.stream.available()) > 0) {
+            final int count = source.stream.read(chunk, 0, Math.min(available, chunk.length));
+            if (count <= 0) {
+                break;
+            }
+            split(source, count);
+        }
+        finish(source);
+    }
+
+    private void finish(final Source source) {
+        if (sources.remove(source)) {
+            if (source.length > 0) {
+                emit(source);
+            }
+            try {
+                source.stream.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+            source.done.complete(null);
+        }
+    }
+
+    private void split(final Source source, final int count) {
+        for (int i = 0; i < count; i++) {
+            final byte b = chunk[i];
+            if (b == '\n') {
+                emit(source);
+            } else {
+                if (source.length == MAX_LINE_BYTES) {
+                    emit(source);
+                } else if (source.length == source.line.length) {
+                    source.line = Arrays.copyOf(source.line, Math.min(MAX_LINE_BYTES, source.line.length * 2));
+                }
+                source.line[source.length++] = b;
+            }
+        }
+    }
+
+    private void emit(final Source source) {
+        final int length = source.length > 0 && source.line[source.length - 1] == '\r' ? source.length - 1 : source.length;
+        source.length = 0;
+        try {
+            source.consumer.accept(new String(source.line, 0, length, StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            logger.warning(() -> format("Output consumer failed cause [%s]", e.getMessage()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NatsOutputPump{" +
+                "threadName=" + threadName +
+                ", streams=" + streams() +
+                '}';
+    }
+}
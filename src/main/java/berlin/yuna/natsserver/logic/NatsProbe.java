@@ -0,0 +1,282 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.exception.NatsStartException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import static berlin.yuna.natsserver.logic.NatsConnection.BUFFER_SIZE;
+import static berlin.yuna.natsserver.logic.NatsUtils.waitFor;
+import static java.lang.String.format;
+
+/**
+ * {@link NatsProbe} is a minimal pub/sub client on {@link NatsConnection} to measure availability gaps <br />
+ * A publisher sends sequence numbers and confirms every message with PING/PONG, a subscriber on a different node records the received sequences. <br />
+ * Both reconnect to the next url when their server goes away.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsRollingUpgrade
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsProbe implements AutoCloseable {
+
+    private static final long RECONNECT_MS = 25;
+    private static final int READ_TIMEOUT_MS = 250;
+    private static final int SEQUENCE_LENGTH = 10;
+
+    private final Supplier<List<String>> urls;
+    private final long intervalMs;
+    private final long timeoutMs;
+    private final Logger logger;
+    private final String subject = "_probe." + Long.toHexString(System.nanoTime());
+    private final BitSet received = new BitSet();
+    private final AtomicInteger published = new AtomicInteger(0);
+    private final AtomicInteger stepStart = new AtomicInteger(0);
+    private final AtomicLong maxStallMs = new AtomicLong(0);
+    private volatile boolean running;
+    private Thread publisher;
+    private Thread subscriber;
+
+    /**
+     * @param urls       client urls to connect to e.g. from {@link NatsCluster#nodes()}
+     * @param intervalMs pause between two publishes
+     * @param timeoutMs  connect and PONG timeout
+     * @param logger     logger for connection changes
+     */
+    public NatsProbe(final Supplier<List<String>> urls, final long intervalMs, final long timeoutMs, final Logger logger) {
+        this.urls = urls;
+        this.intervalMs = intervalMs;
+        this.timeoutMs = timeoutMs;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts publisher and subscriber and blocks until the first message went through <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @return self {@link NatsProbe}
+     */
+    public synchronized NatsProbe start() {
+        if (running) {
+            return this;
+        }
+        running = true;
+        subscriber = startThread("subscriber", this::subscribe);
+        publisher = startThread("publisher", this::publish);
+        if (!waitFor(() -> received() > 0, timeoutMs, RECONNECT_MS)) {
+            close();
+            throw new NatsStartException(new IOException(format("Probe [%s] received no message within [%s] ms", subject, timeoutMs)));
+        }
+        beginStep();
+        return this;
+    }
+
+    /**
+     * Starts a new measuring step - resets the max stall
+     */
+    public void beginStep() {
+        stepStart.set(published.get());
+        maxStallMs.set(0);
+    }
+
+    /**
+     * Waits until a message published after this call was received to flush in flight messages
+     *
+     * @return true if the message flow was restored within the timeout
+     */
+    public boolean awaitFlow() {
+        final int target = published.get() + 1;
+        return waitFor(() -> lastReceived() >= target, timeoutMs, RECONNECT_MS);
+    }
+
+    /**
+     * @return max milliseconds between two confirmed publishes since {@link NatsProbe#beginStep()}
+     */
+    public long maxStallMs() {
+        return maxStallMs.get();
+    }
+
+    /**
+     * @return number of confirmed publishes since {@link NatsProbe#beginStep()}
+     */
+    public int stepPublished() {
+        return published.get() - stepStart.get();
+    }
+
+    /**
+     * @return number of confirmed publishes since {@link NatsProbe#beginStep()} which were not received
+     */
+    public int stepLost() {
+        final int from = stepStart.get() + 1;
+        final int to = published.get() + 1;
+        synchronized (received) {
+            return (to - from) - received.get(from, to).cardinality();
+        }
+    }
+
+    /**
+     * @return number of confirmed publishes
+     */
+    public int published() {
+        return published.get();
+    }
+
+    /**
+     * @return number of distinct received messages
+     */
+    public int received() {
+        synchronized (received) {
+            return received.cardinality();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        join(publisher);
+        join(subscriber);
+    }
+
+    protected void publish() {
+        NatsConnection connection = null;
+        int urlIndex = 0;
+        long lastConfirmed = -1;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect(urlIndex++);
+                }
+                final int seq = published.get() + 1;
+                final String payload = String.valueOf(seq);
+                connection.write("PUB " + subject + " " + payload.length() + "\r\n" + payload + "\r\n");
+                connection.awaitPong(deadline(timeoutMs));
+                final long now = System.currentTimeMillis();
+                if (lastConfirmed != -1) {
+                    final long stall = now - lastConfirmed;
+                    maxStallMs.accumulateAndGet(stall, Math::max);
+                }
+                lastConfirmed = now;
+                published.set(seq);
+                sleep(intervalMs);
+            } catch (IOException e) {
+                connection = reconnect(connection, "publisher", e);
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    protected void subscribe() {
+        NatsConnection connection = null;
+        int urlIndex = -1;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect(urlIndex--).onMessage(SEQUENCE_LENGTH, (head, length, size) -> record(sequence(head, length, size)));
+                    connection.write("SUB " + subject + " 1\r\n");
+                    connection.awaitPong(deadline(timeoutMs));
+                }
+                connection.read(deadline(READ_TIMEOUT_MS));
+            } catch (IOException e) {
+                connection = reconnect(connection, "subscriber", e);
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    private NatsConnection connect(final int urlIndex) throws IOException {
+        final List<String> targets = urls.get();
+        if (targets.isEmpty()) {
+            throw new IOException("No urls to connect to");
+        }
+        final URI uri = URI.create(targets.get(Math.floorMod(urlIndex, targets.size())));
+        final NatsConnection connection = new NatsConnection(uri.getHost(), uri.getPort(), subject, deadline(timeoutMs), BUFFER_SIZE);
+        logger.fine(() -> format("Probe [%s] connected to [%s]", subject, uri));
+        return connection;
+    }
+
+    private NatsConnection reconnect(final NatsConnection connection, final String role, final Exception cause) {
+        closeQuietly(connection);
+        if (running) {
+            logger.fine(() -> format("Probe [%s] %s disconnected [%s]", subject, role, cause.getMessage()));
+            sleep(RECONNECT_MS);
+        }
+        return null;
+    }
+
+    /**
+     * @return sequence number of a probe message - the payload is the decimal sequence
+     */
+    private static int sequence(final byte[] head, final int length, final int size) throws IOException {
+        if (length == 0 || length != size) {
+            throw new IOException("Invalid probe payload size [" + size + "]");
+        }
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            if (head[i] < '0' || head[i] > '9') {
+                throw new IOException("Invalid probe payload [" + new String(head, 0, length, StandardCharsets.US_ASCII) + "]");
+            }
+            result = result * 10 + (head[i] - '0');
+        }
+        return result;
+    }
+
+    private void record(final int seq) {
+        synchronized (received) {
+            received.set(seq);
+        }
+    }
+
+    private int lastReceived() {
+        synchronized (received) {
+            return received.length() - 1;
+        }
+    }
+
+    private Thread startThread(final String role, final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "nats-probe-" + role);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void join(final Thread thread) {
+        if (thread != null) {
+            try {
+                thread.join(timeoutMs + READ_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void sleep(final long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long deadline(final long timeoutMs) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    private static void closeQuietly(final NatsConnection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+    }
+}
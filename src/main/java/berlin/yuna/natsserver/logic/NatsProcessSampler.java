@@ -0,0 +1,331 @@
+package berlin.yuna.natsserver.logic;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link NatsProcessSampler} periodically reads the resource usage of the server process from /proc (linux only) <br />
+ * Samples are kept in a fixed size primitive ring buffer, peak and mean values cover all samples since the start.
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#sampler(long, int)
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsProcessSampler implements AutoCloseable {
+
+    /**
+     * USER_HZ of /proc/[pid]/stat - 100 on all common linux platforms
+     */
+    protected static final long CLOCK_TICKS_PER_SECOND = 100;
+    protected static final Path PROC = Paths.get("/proc");
+
+    public enum Metric {
+        RSS_BYTES,
+        CPU_NANOS,
+        THREADS,
+        OPEN_FDS,
+        READ_BYTES,
+        WRITE_BYTES
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    private final LongSupplier pid;
+    private final long intervalMs;
+    private final int capacity;
+    private final long[] timestamps;
+    private final long[][] values;
+    private final long[] peaks = new long[METRICS.length];
+    private final long[] sums = new long[METRICS.length];
+    private final long[] counts = new long[METRICS.length];
+    private final long[] current = new long[METRICS.length];
+    private final byte[] buffer = new byte[8192];
+    private int head;
+    private int size;
+    private long count;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param pid        process id supplier e.g. {@link Nats#pid()}
+     * @param intervalMs sample interval
+     * @param capacity   max samples kept in the time series - older samples are overwritten
+     */
+    public NatsProcessSampler(final LongSupplier pid, final long intervalMs, final int capacity) {
+        this.pid = pid;
+        this.intervalMs = Math.max(1, intervalMs);
+        this.capacity = Math.max(1, capacity);
+        this.timestamps = new long[this.capacity];
+        this.values = new long[METRICS.length][this.capacity];
+        Arrays.fill(peaks, -1);
+    }
+
+    /**
+     * @return true if /proc is available
+     */
+    public static boolean isSupported() {
+        return Files.isDirectory(PROC.resolve("self"));
+    }
+
+    /**
+     * Starts sampling on a daemon thread - does nothing if /proc is not available
+     *
+     * @return self {@link NatsProcessSampler}
+     */
+    public synchronized NatsProcessSampler start() {
+        if (scheduler == null && isSupported()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "nats-process-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::sample, 0, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Takes one sample
+     *
+     * @return true if the process was found and sampled
+     */
+    public synchronized boolean sample() {
+        final long processId = pid.getAsLong();
+        if (processId <= 0) {
+            return false;
+        }
+        final Path dir = PROC.resolve(String.valueOf(processId));
+        Arrays.fill(current, -1);
+        if (!readStat(dir.resolve("stat")) || !readStatus(dir.resolve("status"))) {
+            return false;
+        }
+        readIo(dir.resolve("io"));
+        current[Metric.OPEN_FDS.ordinal()] = countFds(dir.resolve("fd"));
+        timestamps[head] = System.currentTimeMillis();
+        for (int i = 0; i < METRICS.length; i++) {
+            values[i][head] = current[i];
+            if (current[i] >= 0) {
+                peaks[i] = Math.max(peaks[i], current[i]);
+                sums[i] += current[i];
+                counts[i]++;
+            }
+        }
+        head = (head + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        count++;
+        return true;
+    }
+
+    /**
+     * @return number of samples in the time series
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return number of samples since the start
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * @param metric metric
+     * @return max value since the start or -1 if not available
+     */
+    public synchronized long peak(final Metric metric) {
+        return peaks[metric.ordinal()];
+    }
+
+    /**
+     * @param metric metric
+     * @return mean value since the start or -1 if not available
+     */
+    public synchronized double mean(final Metric metric) {
+        return counts[metric.ordinal()] == 0 ? -1 : (double) sums[metric.ordinal()] / counts[metric.ordinal()];
+    }
+
+    /**
+     * @param metric metric
+     * @return latest value or -1 if not available
+     */
+    public synchronized long last(final Metric metric) {
+        return size == 0 ? -1 : values[metric.ordinal()][Math.floorMod(head - 1, capacity)];
+    }
+
+    /**
+     * @param metric metric
+     * @return values of the time series - oldest first, -1 == not available
+     */
+    public synchronized long[] series(final Metric metric) {
+        return ordered(values[metric.ordinal()]);
+    }
+
+    /**
+     * @return epoch milliseconds of the time series - oldest first
+     */
+    public synchronized long[] timestamps() {
+        return ordered(timestamps);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private long[] ordered(final long[] ring) {
+        final long[] result = new long[size];
+        final int start = Math.floorMod(head - size, capacity);
+        for (int i = 0; i < size; i++) {
+            result[i] = ring[(start + i) % capacity];
+        }
+        return result;
+    }
+
+    /**
+     * Fields after the command name: state(3) ... utime(14) stime(15) ... num_threads(20)
+     */
+    private boolean readStat(final Path file) {
+        final int length = read(file);
+        int pos = lastIndexOf(length, (byte) ')');
+        if (pos < 0) {
+            return false;
+        }
+        long utime = -1;
+        long stime = -1;
+        int field = 2;
+        while (++pos < length && field < 20) {
+            if (buffer[pos] == ' ') {
+                field++;
+                if (field == 14) {
+                    utime = parseLong(pos + 1, length);
+                } else if (field == 15) {
+                    stime = parseLong(pos + 1, length);
+                } else if (field == 20) {
+                    current[Metric.THREADS.ordinal()] = parseLong(pos + 1, length);
+                }
+            }
+        }
+        if (utime >= 0 && stime >= 0) {
+            current[Metric.CPU_NANOS.ordinal()] = (utime + stime) * (TimeUnit.SECONDS.toNanos(1) / CLOCK_TICKS_PER_SECOND);
+        }
+        return true;
+    }
+
+    private boolean readStatus(final Path file) {
+        final int length = read(file);
+        final long rssKb = valueOf(length, "VmRSS:");
+        current[Metric.RSS_BYTES.ordinal()] = rssKb < 0 ? -1 : rssKb * 1024;
+        return length > 0;
+    }
+
+    private void readIo(final Path file) {
+        final int length = read(file);
+        current[Metric.READ_BYTES.ordinal()] = valueOf(length, "read_bytes:");
+        current[Metric.WRITE_BYTES.ordinal()] = valueOf(length, "write_bytes:");
+    }
+
+    private static long countFds(final Path dir) {
+        long result = 0;
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(dir)) {
+            for (Path ignored : fds) {
+                result++;
+            }
+            return result;
+        } catch (IOException | SecurityException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return bytes read into the reused buffer, -1 if the file is not readable
+     */
+    private int read(final Path file) {
+        try (InputStream in = new FileInputStream(file.toFile())) {
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+            return length;
+        } catch (IOException | SecurityException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return first number after the line prefix e.g. "VmRSS:" or -1 if not found
+     */
+    private long valueOf(final int length, final String prefix) {
+        final int prefixLength = prefix.length();
+        int lineStart = 0;
+        while (lineStart >= 0 && lineStart + prefixLength <= length) {
+            boolean match = true;
+            for (int i = 0; i < prefixLength && match; i++) {
+                match = buffer[lineStart + i] == prefix.charAt(i);
+            }
+            if (match) {
+                return parseLong(lineStart + prefixLength, length);
+            }
+            lineStart = indexOf(lineStart, length, (byte) '\n');
+            lineStart = lineStart < 0 ? -1 : lineStart + 1;
+        }
+        return -1;
+    }
+
+    private long parseLong(final int from, final int length) {
+        int pos = from;
+        while (pos < length && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+            pos++;
+        }
+        long result = -1;
+        while (pos < length && buffer[pos] >= '0' && buffer[pos] <= '9') {
+            result = (result < 0 ? 0 : result * 10) + (buffer[pos++] - '0');
+        }
+        return result;
+    }
+
+    private int indexOf(final int from, final int length, final byte value) {
+        for (int i = from; i < length; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lastIndexOf(final int length, final byte value) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsProcessSampler{" +
+                "intervalMs=" + intervalMs +
+                ", capacity=" + capacity +
+                ", count=" + count() +
+                ", peakRss=" + peak(Metric.RSS_BYTES) +
+                ", peakThreads=" + peak(Metric.THREADS) +
+                ", peakFds=" + peak(Metric.OPEN_FDS) +
+                '}';
+    }
+}
@@ -0,0 +1,169 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsProfileCapture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+/**
+ * {@link NatsProfiler} captures Go pprof profiles from the {@link berlin.yuna.natsserver.config.NatsConfig#PROFILE} port while a workload runs <br />
+ * The cpu profile covers the workload window, heap, goroutine and mutex profiles are taken right after. <br />
+ * Profiles are stored as "[outputDir]/[testName]/[version]/[profile].pb.gz" and can be opened with "go tool pprof".
+ *
+ * @author Yuna Morgenstern
+ * @see Nats#profiler(Path)
+ * @since 2.14
+ */
+@SuppressWarnings("unused")
+public class NatsProfiler {
+
+    public static final String CPU = "cpu";
+    public static final String[] SNAPSHOT_PROFILES = {"heap", "goroutine", "mutex"};
+
+    private final String baseUrl;
+    private final String version;
+    private final Path outputDir;
+    private final long timeoutMs;
+    private final Logger logger = Logger.getLogger(NatsProfiler.class.getSimpleName());
+
+    /**
+     * @param baseUrl   pprof url e.g. "http://127.0.0.1:6060"
+     * @param version   server version label e.g. "v2.14.2"
+     * @param outputDir root directory for the profiles e.g. next to the benchmark results
+     * @param timeoutMs connect and read timeout in addition to the window
+     */
+    public NatsProfiler(final String baseUrl, final String version, final Path outputDir, final long timeoutMs) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.version = version;
+        this.outputDir = outputDir;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Captures profiles for a window without running a workload - e.g. when the workload runs on other threads
+     *
+     * @param testName label e.g. the test name
+     * @param windowMs cpu profile window - rounded up to full seconds
+     * @return captured profiles
+     */
+    public NatsProfileCapture capture(final String testName, final long windowMs) {
+        return capture(testName, windowMs, null);
+    }
+
+    /**
+     * Runs the workload while the cpu profile is recorded and takes the snapshot profiles afterwards <br />
+     * Exceptions of the workload are rethrown after the profiles are stored
+     *
+     * @param testName label e.g. the test name
+     * @param windowMs cpu profile window - rounded up to full seconds
+     * @param workload workload to profile or null
+     * @return captured profiles
+     */
+    public NatsProfileCapture capture(final String testName, final long windowMs, final Runnable workload) {
+        final long seconds = Math.max(1, (windowMs + 999) / 1000);
+        final Path directory = outputDir.resolve(sanitize(testName)).resolve(sanitize(version));
+        final Map<String, Path> profiles = new LinkedHashMap<>();
+        final CompletableFuture<Path> cpu = CompletableFuture.supplyAsync(() -> fetch(CPU, "/debug/pprof/profile?seconds=" + seconds, directory, seconds * 1000));
+        RuntimeException failure = null;
+        try {
+            if (workload != null) {
+                workload.run();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        try {
+            put(profiles, CPU, cpu.get());
+        } catch (ExecutionException e) {
+            logger.warning(() -> format("Could not capture [%s] profile cause [%s]", CPU, e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (String profile : SNAPSHOT_PROFILES) {
+            put(profiles, profile, fetch(profile, "/debug/pprof/" + profile, directory, 0));
+        }
+        writeLabels(directory, testName, seconds * 1000);
+        if (failure != null) {
+            throw failure;
+        }
+        return new NatsProfileCapture(testName, version, directory, seconds * 1000, profiles);
+    }
+
+    /**
+     * @return stored file or null if the profile could not be captured
+     */
+    protected Path fetch(final String name, final String endpoint, final Path directory, final long windowMs) {
+        try {
+            Files.createDirectories(directory);
+            final HttpURLConnection con = (HttpURLConnection) new URL(baseUrl + endpoint).openConnection();
+            con.setConnectTimeout((int) timeoutMs);
+            con.setReadTimeout((int) (timeoutMs + windowMs));
+            try {
+                if (con.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    logger.warning(() -> format("Could not capture [%s] profile from [%s] cause [%s]", name, baseUrl + endpoint, responseCode(con)));
+                    return null;
+                }
+                final Path target = directory.resolve(name + ".pb.gz");
+                try (InputStream inputStream = con.getInputStream()) {
+                    Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return target;
+            } finally {
+                con.disconnect();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning(() -> format("Could not capture [%s] profile from [%s] cause [%s]", name, baseUrl + endpoint, e.getMessage()));
+            return null;
+        }
+    }
+
+    private void writeLabels(final Path directory, final String testName, final long windowMs) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("labels.properties"), "test=" + testName + "\nversion=" + version + "\nwindow_ms=" + windowMs + "\ncaptured=" + Instant.now() + "\n", StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warning(() -> format("Could not write profile labels to [%s] cause [%s]", directory, e.getMessage()));
+        }
+    }
+
+    private static void put(final Map<String, Path> profiles, final String name, final Path file) {
+        if (file != null) {
+            profiles.put(name, file);
+        }
+    }
+
+    private static String responseCode(final HttpURLConnection con) {
+        try {
+            return String.valueOf(con.getResponseCode());
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String sanitize(final String label) {
+        return label == null || label.isBlank() ? "unknown" : label.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+
+    @Override
+    public String toString() {
+        return "NatsProfiler{" +
+                "baseUrl=" + baseUrl +
+                ", version=" + version +
+                ", outputDir=" + outputDir +
+                '}';
+    }
+}
@@ -0,0 +1,285 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static berlin.yuna.clu.logic.SystemUtil.OS;
+import static berlin.yuna.clu.model.OsType.OS_WINDOWS;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_CGROUP_CPU_MAX;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_CGROUP_MEMORY_MAX;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_CGROUP_PARENT;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_CPU_AFFINITY;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_GOGC;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_GOMAXPROCS;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_GOMEMLIMIT;
+import static berlin.yuna.natsserver.logic.NatsUtils.isNotEmpty;
+import static java.lang.String.format;
+
+/**
+ * {@link NatsResources} limits the resources of the spawned server process <br />
+ * Go runtime variables are set in the process environment, the CPU affinity (taskset) is applied as launch command prefix,
+ * cgroup v2 limits are applied to the spawned process in a cgroup next to the cgroup of this JVM or below {@link NatsConfig#NATS_CGROUP_PARENT}.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsConfig#NATS_GOMAXPROCS
+ * @see NatsConfig#NATS_CPU_AFFINITY
+ * @see NatsConfig#NATS_CGROUP_MEMORY_MAX
+ * @see NatsConfig#NATS_CGROUP_PARENT
+ * @since 2.14
+ */
+public class NatsResources {
+
+    protected static final Path CGROUP_ROOT = Paths.get("/sys/fs/cgroup");
+    protected static final long CPU_PERIOD_US = 100000;
+
+    private final Map<String, String> environment;
+    private final String cpuAffinity;
+    private final String memoryMax;
+    private final String cpuMax;
+    private final String cgroupParent;
+
+    /**
+     * @param config config lookup e.g. {@link Nats#getValue(NatsConfig)}
+     * @return resource limits from {@link NatsConfig}
+     */
+    public static NatsResources resourcesOf(final Function<NatsConfig, String> config) {
+        return new NatsResources(config);
+    }
+
+    protected NatsResources(final Function<NatsConfig, String> config) {
+        final Map<String, String> env = new LinkedHashMap<>();
+        putIfNotEmpty(env, "GOMAXPROCS", config.apply(NATS_GOMAXPROCS));
+        putIfNotEmpty(env, "GOMEMLIMIT", config.apply(NATS_GOMEMLIMIT));
+        putIfNotEmpty(env, "GOGC", config.apply(NATS_GOGC));
+        this.environment = Collections.unmodifiableMap(env);
+        this.cpuAffinity = trimToNull(config.apply(NATS_CPU_AFFINITY));
+        this.memoryMax = trimToNull(config.apply(NATS_CGROUP_MEMORY_MAX));
+        this.cpuMax = trimToNull(config.apply(NATS_CGROUP_CPU_MAX));
+        this.cgroupParent = trimToNull(config.apply(NATS_CGROUP_PARENT));
+    }
+
+    /**
+     * @return Go runtime variables for the environment of the server process
+     */
+    public Map<String, String> environment() {
+        return environment;
+    }
+
+    /**
+     * @return true if no limit is configured
+     */
+    public boolean isEmpty() {
+        return environment.isEmpty() && cpuAffinity == null && !hasCgroupLimits();
+    }
+
+    /**
+     * @return true if a cgroup memory or cpu limit is configured
+     */
+    public boolean hasCgroupLimits() {
+        return memoryMax != null || cpuMax != null;
+    }
+
+    /**
+     * Launch command prefix e.g. "taskset -c 0-1" - unsupported parts are skipped with a warning
+     *
+     * @param logger logger for skipped limits
+     * @return command prefix, empty if nothing is to apply
+     */
+    public List<String> commandPrefix(final Logger logger) {
+        final List<String> result = new ArrayList<>();
+        if (cpuAffinity == null) {
+            return result;
+        }
+        final Path taskset = OS == OS_WINDOWS ? null : findExecutable("taskset");
+        if (taskset != null) {
+            result.add(taskset.toString());
+            result.add("-c");
+            result.add(cpuAffinity);
+        } else {
+            logger.warning(() -> format("Ignoring cpu affinity [%s] - taskset not found on [%s]", cpuAffinity, OS));
+        }
+        return result;
+    }
+
+    /**
+     * Moves the process into a new cgroup v2 and applies memory.max and cpu.max <br />
+     * The cgroup is created below {@link NatsConfig#NATS_CGROUP_PARENT} or next to the cgroup of this JVM,
+     * as a cgroup holding processes (the JVM) can't enable controllers for its children
+     *
+     * @param name   cgroup name e.g. "nats-4222"
+     * @param pid    server process id
+     * @param logger logger for missing permissions
+     * @return created cgroup directory or null if no limit is configured or the limits could not be applied
+     */
+    public Path applyCgroup(final String name, final long pid, final Logger logger) {
+        if (!hasCgroupLimits() || pid <= 0) {
+            return null;
+        }
+        return applyCgroup(cgroupParent != null ? Paths.get(cgroupParent) : parentCgroup(), name, pid, logger);
+    }
+
+    protected Path applyCgroup(final Path parent, final String name, final long pid, final Logger logger) {
+        if (parent == null || !Files.isWritable(parent.resolve("cgroup.subtree_control"))) {
+            logger.warning(() -> format("Server pid [%s] runs WITHOUT cgroup limits memory [%s] cpu [%s] - cgroup v2 [%s] is not writable", pid, memoryMax, cpuMax, parent));
+            return null;
+        }
+        final Path cgroup = parent.resolve(name.replaceAll("[^a-zA-Z0-9._-]", "_"));
+        try {
+            enableControllers(parent);
+            Files.createDirectories(cgroup);
+            if (memoryMax != null) {
+                write(cgroup.resolve("memory.max"), memoryMax);
+            }
+            if (cpuMax != null) {
+                write(cgroup.resolve("cpu.max"), toCpuMax(cpuMax));
+            }
+            write(cgroup.resolve("cgroup.procs"), String.valueOf(pid));
+            logger.fine(() -> format("Applied cgroup [%s] memory [%s] cpu [%s] to pid [%s]", cgroup, memoryMax, cpuMax, pid));
+            return cgroup;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning(() -> format("Server pid [%s] runs WITHOUT cgroup limits - could not apply cgroup [%s] cause [%s]", pid, cgroup, e.getMessage()));
+            removeCgroup(cgroup);
+            return null;
+        }
+    }
+
+    /**
+     * Enables the memory and cpu controller for the children of the parent cgroup
+     *
+     * @param parent parent cgroup
+     * @throws IOException if a controller is not available or can't be enabled
+     */
+    protected void enableControllers(final Path parent) throws IOException {
+        final List<String> available = List.of(Files.readString(parent.resolve("cgroup.controllers"), StandardCharsets.UTF_8).trim().split("\\s+"));
+        final List<String> enabled = List.of(Files.readString(parent.resolve("cgroup.subtree_control"), StandardCharsets.UTF_8).trim().split("\\s+"));
+        final List<String> required = new ArrayList<>();
+        if (memoryMax != null) {
+            required.add("memory");
+        }
+        if (cpuMax != null) {
+            required.add("cpu");
+        }
+        final StringBuilder enable = new StringBuilder();
+        for (String controller : required) {
+            if (!available.contains(controller)) {
+                throw new IOException("controller [" + controller + "] is not available in [" + parent + "]");
+            }
+            if (!enabled.contains(controller)) {
+                enable.append(enable.length() == 0 ? "" : " ").append('+').append(controller);
+            }
+        }
+        if (enable.length() > 0) {
+            write(parent.resolve("cgroup.subtree_control"), enable.toString());
+        }
+    }
+
+    /**
+     * Removes an empty cgroup e.g. after the server process stopped
+     *
+     * @param cgroup cgroup directory from {@link NatsResources#applyCgroup(String, long, Logger)}
+     */
+    public static void removeCgroup(final Path cgroup) {
+        if (cgroup != null) {
+            try {
+                Files.deleteIfExists(cgroup);
+            } catch (IOException ignored) {
+                // still in use or already removed by the system
+            }
+        }
+    }
+
+    /**
+     * @param cores cpu cores e.g. "1.5" or raw cpu.max value e.g. "150000 100000"
+     * @return cpu.max value
+     */
+    protected static String toCpuMax(final String cores) {
+        if (cores.contains(" ") || "max".equals(cores)) {
+            return cores;
+        }
+        final double value = Double.parseDouble(cores);
+        if (value <= 0) {
+            throw new IllegalArgumentException("cpu cores must be positive [" + cores + "]");
+        }
+        return Math.round(value * CPU_PERIOD_US) + " " + CPU_PERIOD_US;
+    }
+
+    /**
+     * @return parent of the cgroup v2 directory of this JVM, the root if the JVM runs in the root cgroup or null if cgroup v2 is not available
+     */
+    protected static Path parentCgroup() {
+        final Path own = ownCgroup();
+        return own == null || own.equals(CGROUP_ROOT) ? own : own.getParent();
+    }
+
+    /**
+     * @return cgroup v2 directory of this JVM or null if cgroup v2 is not available
+     */
+    protected static Path ownCgroup() {
+        final Path procCgroup = Paths.get("/proc/self/cgroup");
+        if (!Files.exists(CGROUP_ROOT.resolve("cgroup.controllers")) || !Files.isReadable(procCgroup)) {
+            return null;
+        }
+        try (Stream<String> lines = Files.lines(procCgroup)) {
+            return lines.filter(line -> line.startsWith("0::"))
+                    .map(line -> line.substring(3).replaceFirst("^/", ""))
+                    .map(CGROUP_ROOT::resolve)
+                    .findFirst()
+                    .orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    protected static Path findExecutable(final String name) {
+        final String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            final Path candidate = Paths.get(dir, name);
+            if (Files.isExecutable(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static void write(final Path file, final String value) throws IOException {
+        Files.write(file, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void putIfNotEmpty(final Map<String, String> env, final String key, final String value) {
+        if (isNotEmpty(value)) {
+            env.put(key, value.trim());
+        }
+    }
+
+    private static String trimToNull(final String value) {
+        return isNotEmpty(value) ? value.trim() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsResources{" +
+                "environment=" + environment +
+                ", cpuAffinity='" + cpuAffinity + '\'' +
+                ", memoryMax='" + memoryMax + '\'' +
+                ", cpuMax='" + cpuMax + '\'' +
+                ", cgroupParent='" + cgroupParent + '\'' +
+                '}';
+    }
+}
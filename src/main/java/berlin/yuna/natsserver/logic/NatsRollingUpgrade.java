@@ -0,0 +1,152 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.config.NatsVersion;
+import berlin.yuna.natsserver.model.NatsConvergenceReport;
+import berlin.yuna.natsserver.model.NatsUpgradeStep;
+import berlin.yuna.natsserver.model.exception.NatsStartException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_VERSION;
+import static berlin.yuna.natsserver.config.NatsConfig.SERVER_NAME;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static java.lang.String.format;
+
+/**
+ * {@link NatsRollingUpgrade} rehearses a node by node version upgrade of a {@link NatsCluster} <br />
+ * Every node is restarted on the target version one at a time, the next node follows when the cluster converged again. <br />
+ * A background {@link NatsProbe} measures the max publish stall and the message loss of every step.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsCluster
+ * @see NatsProbe
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsRollingUpgrade implements AutoCloseable {
+
+    private final NatsCluster cluster;
+    private final String targetVersion;
+    private long lameDuckMs;
+    private long probeIntervalMs = 5;
+
+    /**
+     * @param size number of nodes
+     * @param from version the cluster starts on
+     * @param to   version every node is upgraded to
+     */
+    public NatsRollingUpgrade(final int size, final NatsVersion from, final NatsVersion to) {
+        this(new NatsCluster(size, natsBuilder().version(from)), to);
+    }
+
+    /**
+     * @param cluster cluster configured with the source version - started by {@link NatsRollingUpgrade#run()} if not running
+     * @param to      version every node is upgraded to
+     */
+    public NatsRollingUpgrade(final NatsCluster cluster, final NatsVersion to) {
+        if (to == null) {
+            throw new IllegalArgumentException("Target version must not be null");
+        }
+        this.cluster = cluster;
+        this.targetVersion = to.value();
+        this.lameDuckMs = cluster.timeoutMs;
+    }
+
+    /**
+     * @param lameDuckMs max milliseconds to wait for the lame duck shutdown of a node before it is stopped
+     * @return self {@link NatsRollingUpgrade}
+     */
+    public NatsRollingUpgrade lameDuckMs(final long lameDuckMs) {
+        this.lameDuckMs = lameDuckMs;
+        return this;
+    }
+
+    /**
+     * @param probeIntervalMs pause between two probe publishes
+     * @return self {@link NatsRollingUpgrade}
+     */
+    public NatsRollingUpgrade probeIntervalMs(final long probeIntervalMs) {
+        this.probeIntervalMs = probeIntervalMs;
+        return this;
+    }
+
+    /**
+     * @return the upgraded cluster
+     */
+    public NatsCluster cluster() {
+        return cluster;
+    }
+
+    /**
+     * Upgrades all nodes one by one <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @return one step per node in upgrade order
+     */
+    public List<NatsUpgradeStep> run() {
+        if (cluster.startupMs() == -1) {
+            cluster.start();
+        }
+        downloadTarget();
+        final List<NatsUpgradeStep> steps = new ArrayList<>();
+        try (final NatsProbe probe = new NatsProbe(this::urls, probeIntervalMs, cluster.timeoutMs, cluster.logger).start()) {
+            for (final Nats node : cluster.nodes()) {
+                steps.add(upgrade(node, probe));
+            }
+        }
+        cluster.logger.info(() -> format("Upgraded [%s] to [%s] max stall [%s] ms lost [%s] messages",
+                cluster.name(),
+                targetVersion,
+                steps.stream().mapToLong(NatsUpgradeStep::maxStallMs).max().orElse(0),
+                steps.stream().mapToInt(NatsUpgradeStep::lost).sum()
+        ));
+        return steps;
+    }
+
+    @Override
+    public void close() {
+        cluster.close();
+    }
+
+    protected NatsUpgradeStep upgrade(final Nats node, final NatsProbe probe) {
+        final String serverName = node.getValue(SERVER_NAME);
+        final String fromVersion = node.getValue(NATS_VERSION);
+        probe.beginStep();
+        final NatsConvergenceReport convergence = cluster.restartNode(node, lameDuckMs, config -> config.version(targetVersion));
+        if (!probe.awaitFlow()) {
+            cluster.logger.warning(() -> format("Probe messages of [%s] are not flowing after upgrading [%s]", cluster.name(), serverName));
+        }
+        final NatsUpgradeStep step = new NatsUpgradeStep(serverName, fromVersion, targetVersion, convergence, probe.maxStallMs(), probe.stepPublished(), probe.stepLost());
+        cluster.logger.info(() -> format("Upgraded [%s] %s", serverName, step));
+        return step;
+    }
+
+    /**
+     * Downloads the target binary before the first node goes down, so the download is not part of the measured gap
+     */
+    protected void downloadTarget() {
+        final NatsOptionsBuilder config = natsBuilder().configMap(cluster.template.configMap()).version(targetVersion).autostart(false).shutdownHook(false);
+        try {
+            new Nats(config).downloadNats();
+        } catch (IOException e) {
+            throw new NatsStartException(e);
+        }
+    }
+
+    private List<String> urls() {
+        return cluster.nodes().stream().map(node -> "nats://" + NatsCluster.ROUTE_HOST + ":" + node.port()).collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "NatsRollingUpgrade{" +
+                "cluster=" + cluster.name() +
+                ", targetVersion=" + targetVersion +
+                ", lameDuckMs=" + lameDuckMs +
+                '}';
+    }
+}
@@ -0,0 +1,104 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link NatsTemplate} is a config value with precompiled "%KEY%" placeholders <br />
+ * The value is parsed once into literals and {@link NatsConfig} references, resolving only concatenates the parts.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsConfigSnapshot
+ * @since 2.14
+ */
+public final class NatsTemplate {
+
+    private static final char MARKER = '%';
+    private static final int CACHE_LIMIT = 1024;
+    private static final Map<String, NatsTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final String raw;
+    private final String[] literals;
+    private final NatsConfig[] references;
+
+    private NatsTemplate(final String raw, final String[] literals, final NatsConfig[] references) {
+        this.raw = raw;
+        this.literals = literals;
+        this.references = references;
+    }
+
+    /**
+     * @param raw config value e.g. "nats-server-%NATS_VERSION%.zip"
+     * @return compiled template - cached for values containing placeholders
+     * @throws IllegalArgumentException if a placeholder is not a {@link NatsConfig} name
+     */
+    public static NatsTemplate compile(final String raw) {
+        if (raw == null || raw.indexOf(MARKER) == -1) {
+            return new NatsTemplate(raw, new String[]{raw}, new NatsConfig[0]);
+        }
+        final NatsTemplate cached = CACHE.get(raw);
+        if (cached != null) {
+            return cached;
+        }
+        if (CACHE.size() >= CACHE_LIMIT) {
+            CACHE.clear();
+        }
+        final NatsTemplate result = parse(raw);
+        CACHE.put(raw, result);
+        return result;
+    }
+
+    /**
+     * @return true if the value has no placeholders
+     */
+    public boolean isConstant() {
+        return references.length == 0;
+    }
+
+    /**
+     * @return referenced configs in order of appearance
+     */
+    public NatsConfig[] references() {
+        return references.clone();
+    }
+
+    /**
+     * @param resolver resolved value of a referenced config
+     * @return value with all placeholders replaced
+     */
+    public String resolve(final Function<NatsConfig, String> resolver) {
+        if (isConstant()) {
+            return raw;
+        }
+        final StringBuilder result = new StringBuilder(raw.length() + 32);
+        for (int i = 0; i < references.length; i++) {
+            result.append(literals[i]).append(resolver.apply(references[i]));
+        }
+        return result.append(literals[references.length]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+    private static NatsTemplate parse(final String raw) {
+        final List<String> literals = new ArrayList<>();
+        final List<NatsConfig> references = new ArrayList<>();
+        int position = 0;
+        int start;
+        int end;
+        while ((start = raw.indexOf(MARKER, position)) != -1 && (end = raw.indexOf(MARKER, start + 1)) != -1) {
+            literals.add(raw.substring(position, start));
+            references.add(NatsConfig.valueOf(raw.substring(start + 1, end)));
+            position = end + 1;
+        }
+        literals.add(raw.substring(position));
+        return new NatsTemplate(raw, literals.toArray(String[]::new), references.toArray(NatsConfig[]::new));
+    }
+}
@@ -0,0 +1,351 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.model.NatsConf;
+import berlin.yuna.natsserver.model.NatsMonitorSnapshot;
+import berlin.yuna.natsserver.model.exception.NatsStartException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.natsserver.config.NatsConfig.CLUSTER_NAME;
+import static berlin.yuna.natsserver.config.NatsConfig.CONFIG;
+import static berlin.yuna.natsserver.config.NatsConfig.HTTP_PORT;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_AUTOSTART;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_TIMEOUT_MS;
+import static berlin.yuna.natsserver.config.NatsConfig.PORT;
+import static berlin.yuna.natsserver.config.NatsConfig.SERVER_NAME;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsCluster.DEFAULT_HTTP_PORT;
+import static berlin.yuna.natsserver.logic.NatsCluster.POLL_MS;
+import static berlin.yuna.natsserver.logic.NatsCluster.ROUTE_HOST;
+import static berlin.yuna.natsserver.logic.NatsCluster.monitorUrl;
+import static berlin.yuna.natsserver.logic.NatsUtils.waitFor;
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+
+/**
+ * {@link NatsTopology} describes and starts a supercluster on one machine <br />
+ * Clusters are connected via gateways, leaf nodes are attached to a hub cluster. <br />
+ * All ports are allocated upfront, the config files are generated, hub clusters start in parallel, leaf nodes start in parallel after their hubs.
+ *
+ * <pre>{@code
+ * try (final NatsTopology topology = new NatsTopology()
+ *         .cluster("east", 3)
+ *         .cluster("west", 3)
+ *         .leaf("edge", "east")
+ *         .start()) {
+ *     topology.leaf("edge").url();
+ * }
+ * }</pre>
+ *
+ * @author Yuna Morgenstern
+ * @see NatsCluster
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsTopology implements AutoCloseable {
+
+    public static final int DEFAULT_GATEWAY_PORT = 7222;
+    public static final int DEFAULT_LEAF_PORT = 7422;
+
+    protected final long timeoutMs;
+    protected final Logger logger;
+    protected final NatsOptionsBuilder template;
+    protected final Map<String, HubCluster> clusters = new LinkedHashMap<>();
+    protected final Map<String, String> leafHubs = new LinkedHashMap<>();
+    protected final Map<String, Nats> leaves = new LinkedHashMap<>();
+    protected final List<Integer> ports = new ArrayList<>();
+    protected Path configDir;
+    protected long startupMs = -1;
+
+    public NatsTopology() {
+        this(natsBuilder());
+    }
+
+    /**
+     * @param template config which is applied to every server - ports, names, routes, gateways and leaf nodes are set by the topology
+     */
+    public NatsTopology(final NatsOptionsBuilder template) {
+        this.template = natsBuilder().configMap(template.configMap()).logger(template.logger()).listeners(template.listeners());
+        this.timeoutMs = ofNullable(template.timeoutMs()).filter(timeout -> timeout > 0).orElseGet(() -> Long.parseLong(NATS_TIMEOUT_MS.defaultValueStr()));
+        this.logger = ofNullable(template.logger()).orElseGet(() -> Logger.getLogger(NatsTopology.class.getSimpleName()));
+    }
+
+    /**
+     * Adds a cluster which is connected to all other clusters via gateways
+     *
+     * @param name cluster and gateway name (lower case)
+     * @param size number of nodes
+     * @return self {@link NatsTopology}
+     */
+    public synchronized NatsTopology cluster(final String name, final int size) {
+        final String clusterName = validName(name);
+        clusters.put(clusterName, new HubCluster(size, natsBuilder().configMap(template.configMap()).logger(template.logger()).listeners(template.listeners()).config(CLUSTER_NAME, clusterName)));
+        return this;
+    }
+
+    /**
+     * Adds a leaf node which connects to all nodes of the hub cluster
+     *
+     * @param name server name (lower case)
+     * @param hub  name of the hub cluster
+     * @return self {@link NatsTopology}
+     */
+    public synchronized NatsTopology leaf(final String name, final String hub) {
+        leafHubs.put(validName(name), validName(hub));
+        return this;
+    }
+
+    /**
+     * Generates the config files and starts the topology in dependency order <br />
+     * Throws all exceptions as {@link NatsStartException} which is a {@link RuntimeException}
+     *
+     * @return self {@link NatsTopology}
+     */
+    public synchronized NatsTopology start() {
+        if (startupMs != -1) {
+            logger.severe(() -> "Topology is already running");
+            return this;
+        }
+        final long started = System.currentTimeMillis();
+        try {
+            prepare();
+            clusters.values().iterator().next().node(0).downloadNats();
+            runParallel(clusters.values().stream().map(cluster -> (Runnable) cluster::start));
+            awaitGateways();
+            runParallel(leaves.values().stream().map(leaf -> (Runnable) leaf::start));
+            awaitLeaves();
+        } catch (final Exception e) {
+            close();
+            throw e instanceof NatsStartException ? (NatsStartException) e : new NatsStartException(e);
+        }
+        startupMs = System.currentTimeMillis() - started;
+        logger.info(() -> format("Started topology clusters [%s] leaves [%s] in [%s] ms", clusters.keySet(), leaves.keySet(), startupMs));
+        return this;
+    }
+
+    /**
+     * @param name cluster name
+     * @return cluster or null if not defined
+     */
+    public NatsCluster cluster(final String name) {
+        return clusters.get(validName(name));
+    }
+
+    /**
+     * @param name leaf node name
+     * @return leaf node or null if not started
+     */
+    public Nats leaf(final String name) {
+        return leaves.get(validName(name));
+    }
+
+    /**
+     * @return all servers of the topology - hub nodes first
+     */
+    public List<Nats> nodes() {
+        return Stream.concat(clusters.values().stream().flatMap(cluster -> cluster.nodes().stream()), leaves.values().stream()).collect(Collectors.toList());
+    }
+
+    /**
+     * @return milliseconds from launch until all gateways and leaf connections were established or -1 if not started
+     */
+    public long startupMs() {
+        return startupMs;
+    }
+
+    /**
+     * @return directory of the generated config files
+     */
+    public Path configDir() {
+        return configDir;
+    }
+
+    @Override
+    public synchronized void close() {
+        runParallel(Stream.concat(leaves.values().stream().map(leaf -> (Runnable) leaf::close), clusters.values().stream().map(cluster -> (Runnable) cluster::close)));
+        leaves.clear();
+        ports.forEach(NatsUtils::releasePort);
+        ports.clear();
+        ofNullable(configDir).ifPresent(NatsUtils::deleteDirectoryAsync);
+        configDir = null;
+        startupMs = -1;
+    }
+
+    /**
+     * Reserves all ports, creates all servers and writes their config files
+     *
+     * @throws IOException if a config file can't be written
+     */
+    protected void prepare() throws IOException {
+        if (clusters.isEmpty()) {
+            throw new IllegalStateException("Topology needs at least one cluster");
+        }
+        configDir = Files.createTempDirectory("nats_topology_");
+        clusters.values().forEach(NatsCluster::prepare);
+        for (final Map.Entry<String, String> leaf : leafHubs.entrySet()) {
+            final HubCluster hub = ofNullable(clusters.get(leaf.getValue()))
+                    .orElseThrow(() -> new IllegalStateException(format("Leaf [%s] references unknown hub cluster [%s]", leaf.getKey(), leaf.getValue())));
+            hub.leafPorts(); // reserves the leaf listen ports of the hub
+            leaves.put(leaf.getKey(), createLeaf(leaf.getKey(), hub));
+        }
+        for (final HubCluster cluster : clusters.values()) {
+            for (int i = 0; i < cluster.nodes().size(); i++) {
+                hubConf(cluster, i).write(cluster.configFile(i));
+            }
+        }
+    }
+
+    protected NatsConf hubConf(final HubCluster cluster, final int index) {
+        final NatsConf conf = new NatsConf();
+        if (clusters.size() > 1) {
+            final NatsConf gateway = conf.block("gateway");
+            gateway.put("name", cluster.name());
+            gateway.put("listen", ROUTE_HOST + ":" + cluster.gatewayPort(index));
+            gateway.put("gateways", clusters.values().stream().filter(other -> other != cluster).map(other -> new NatsConf()
+                    .put("name", other.name())
+                    .put("urls", other.gatewayPorts().stream().map(port -> "nats://" + ROUTE_HOST + ":" + port).collect(Collectors.toList()))
+            ).collect(Collectors.toList()));
+        }
+        if (leafHubs.containsValue(cluster.name())) {
+            conf.block("leafnodes").put("listen", ROUTE_HOST + ":" + cluster.leafPorts().get(index));
+        }
+        return conf;
+    }
+
+    protected Nats createLeaf(final String name, final HubCluster hub) throws IOException {
+        final Path configFile = configDir.resolve(name + ".conf");
+        new NatsConf().block("leafnodes").put("remotes", List.of(new NatsConf().put("urls",
+                hub.leafPorts().stream().map(port -> "nats-leaf://" + ROUTE_HOST + ":" + port).collect(Collectors.toList())
+        ))).write(configFile);
+        return new Nats(natsBuilder().configMap(template.configMap()).logger(template.logger()).listeners(template.listeners())
+                .config(PORT, String.valueOf(reservePort((int) PORT.defaultValue())))
+                .config(HTTP_PORT, String.valueOf(reservePort(DEFAULT_HTTP_PORT)))
+                .config(SERVER_NAME, name)
+                .config(CONFIG, configFile.toString())
+                .config(NATS_AUTOSTART, "false")
+        );
+    }
+
+    protected void awaitGateways() throws TimeoutException {
+        if (clusters.size() > 1 && !waitFor(() -> clusters.values().stream().allMatch(cluster -> cluster.nodes().stream().allMatch(node -> {
+            final NatsMonitorSnapshot gatewayz = monitor(node).snapshot("/gatewayz");
+            return gatewayz != null && clusters.keySet().stream().filter(other -> !other.equals(cluster.name()))
+                    .allMatch(other -> gatewayz.values().keySet().stream().anyMatch(key -> key.startsWith("outbound_gateways." + other + ".connection.")));
+        })), timeoutMs, POLL_MS)) {
+            throw new TimeoutException(format("Gateways between [%s] not established within [%s] ms", clusters.keySet(), timeoutMs));
+        }
+    }
+
+    protected void awaitLeaves() throws TimeoutException {
+        if (!waitFor(() -> leaves.values().stream().allMatch(leaf -> ofNullable(monitor(leaf).varz())
+                .map(varz -> varz.leafnodes() > 0).orElse(false)
+        ), timeoutMs, POLL_MS)) {
+            throw new TimeoutException(format("Leaf nodes [%s] not connected within [%s] ms", leaves.keySet(), timeoutMs));
+        }
+    }
+
+    /**
+     * @param node node of the topology
+     * @return monitoring client of the node
+     */
+    public NatsMonitor monitor(final Nats node) {
+        return new NatsMonitor(monitorUrl(node), timeoutMs);
+    }
+
+    protected int reservePort(final int startPort) {
+        final int port = NatsUtils.reservePort(startPort);
+        ports.add(port);
+        return port;
+    }
+
+    protected void runParallel(final Stream<Runnable> actions) {
+        final List<Runnable> tasks = actions.collect(Collectors.toList());
+        if (tasks.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CompletableFuture.allOf(tasks.stream().map(task -> CompletableFuture.runAsync(task, executor)).toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new NatsStartException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String validName(final String name) {
+        if (name == null || name.isBlank() || !name.matches("[a-zA-Z0-9_-]+")) {
+            throw new IllegalArgumentException("Invalid name [" + name + "] allowed are letters, digits, '-' and '_'");
+        }
+        return name.toLowerCase();
+    }
+
+    @Override
+    public String toString() {
+        return "NatsTopology{" +
+                "clusters=" + clusters.keySet() +
+                ", leaves=" + leafHubs.keySet() +
+                ", startupMs=" + startupMs +
+                '}';
+    }
+
+    /**
+     * Cluster which additionally listens for gateways and leaf nodes - configured by a generated config file per node
+     */
+    protected class HubCluster extends NatsCluster {
+
+        protected final List<Integer> gatewayPorts = new ArrayList<>();
+        protected final List<Integer> leafPorts = new ArrayList<>();
+
+        protected HubCluster(final int size, final NatsOptionsBuilder template) {
+            super(size, template);
+        }
+
+        protected int gatewayPort(final int index) {
+            return gatewayPorts.get(index);
+        }
+
+        protected List<Integer> gatewayPorts() {
+            return gatewayPorts;
+        }
+
+        protected synchronized List<Integer> leafPorts() {
+            while (leafPorts.size() < size) {
+                leafPorts.add(reservePort(DEFAULT_LEAF_PORT));
+            }
+            return leafPorts;
+        }
+
+        protected Path configFile(final int index) {
+            return configDir.resolve(name + "_" + index + ".conf");
+        }
+
+        @Override
+        protected NatsOptionsBuilder nodeConfig(final int index) {
+            gatewayPorts.add(reservePort(DEFAULT_GATEWAY_PORT));
+            return super.nodeConfig(index).config(CONFIG, configFile(index).toString());
+        }
+
+        @Override
+        public synchronized void close() {
+            super.close();
+            gatewayPorts.clear();
+            leafPorts.clear();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.model.NatsSweepResult;
+import berlin.yuna.natsserver.model.NatsWorkloadResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static java.lang.String.format;
+
+/**
+ * {@link NatsTuningSweep} starts a server for every combination of the given Go runtime settings,
+ * runs the same {@link NatsWorkload} against each and ranks the settings by throughput, p99 latency and peak RSS.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsWorkload
+ * @see NatsResources
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsTuningSweep {
+
+    public static final String GOGC = "GOGC";
+    public static final String GOMEMLIMIT = "GOMEMLIMIT";
+    public static final String GOMAXPROCS = "GOMAXPROCS";
+
+    private final Supplier<NatsOptionsBuilder> options;
+    private final Logger logger = Logger.getLogger(NatsTuningSweep.class.getSimpleName());
+    private List<String> goGc = Collections.singletonList(null);
+    private List<String> goMemLimit = Collections.singletonList(null);
+    private List<Integer> goMaxProcs = Collections.singletonList(null);
+    private NatsWorkload workload = new NatsWorkload(100000, 128, 30000);
+    private int warmups = 1;
+
+    public NatsTuningSweep() {
+        this(() -> natsBuilder().shutdownHook(false));
+    }
+
+    /**
+     * @param options base server options for every run - port and Go runtime settings are overwritten
+     */
+    public NatsTuningSweep(final Supplier<NatsOptionsBuilder> options) {
+        this.options = options;
+    }
+
+    /**
+     * @param values GOGC values e.g. "100", "200", "off" - null == go default
+     * @return self {@link NatsTuningSweep}
+     */
+    public NatsTuningSweep goGc(final String... values) {
+        goGc = axis(values);
+        return this;
+    }
+
+    /**
+     * @param values GOMEMLIMIT values e.g. "256MiB" - null == go default
+     * @return self {@link NatsTuningSweep}
+     */
+    public NatsTuningSweep goMemLimit(final String... values) {
+        goMemLimit = axis(values);
+        return this;
+    }
+
+    /**
+     * @param values GOMAXPROCS values e.g. 1, 2, 4 - null == go default
+     * @return self {@link NatsTuningSweep}
+     */
+    public NatsTuningSweep goMaxProcs(final Integer... values) {
+        goMaxProcs = axis(values);
+        return this;
+    }
+
+    /**
+     * @param workload workload for every run
+     * @return self {@link NatsTuningSweep}
+     */
+    public NatsTuningSweep workload(final NatsWorkload workload) {
+        this.workload = Objects.requireNonNull(workload);
+        return this;
+    }
+
+    /**
+     * @param warmups unmeasured workload runs before the measured run
+     * @return self {@link NatsTuningSweep}
+     */
+    public NatsTuningSweep warmups(final int warmups) {
+        this.warmups = Math.max(0, warmups);
+        return this;
+    }
+
+    /**
+     * @return all combinations of the configured Go runtime settings
+     */
+    public List<Map<String, String>> grid() {
+        final List<Map<String, String>> result = new ArrayList<>();
+        for (String gc : goGc) {
+            for (String memLimit : goMemLimit) {
+                for (Integer maxProcs : goMaxProcs) {
+                    final Map<String, String> settings = new LinkedHashMap<>();
+                    putIfNotNull(settings, GOGC, gc);
+                    putIfNotNull(settings, GOMEMLIMIT, memLimit);
+                    putIfNotNull(settings, GOMAXPROCS, maxProcs);
+                    result.add(Collections.unmodifiableMap(settings));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the workload for every combination of {@link NatsTuningSweep#grid()} - one server at a time
+     *
+     * @return results ranked by {@link NatsTuningSweep#ranking()}
+     */
+    public List<NatsSweepResult> run() {
+        final List<NatsSweepResult> result = grid().stream().map(this::run).collect(Collectors.toList());
+        result.sort(ranking());
+        return result;
+    }
+
+    /**
+     * @return successful runs first, then higher throughput, lower p99 latency and lower peak RSS
+     */
+    public static Comparator<NatsSweepResult> ranking() {
+        return Comparator.comparing((NatsSweepResult result) -> !result.success())
+                .thenComparing(result -> result.workload() == null ? 0 : result.workload().msgsPerSec(), Comparator.reverseOrder())
+                .thenComparingLong(result -> result.workload() == null ? Long.MAX_VALUE : result.workload().p99Ns())
+                .thenComparingLong(result -> result.peakRssBytes() < 0 ? Long.MAX_VALUE : result.peakRssBytes());
+    }
+
+    /**
+     * @param results ranked results from {@link NatsTuningSweep#run()}
+     * @return human readable report table
+     */
+    public static String report(final List<NatsSweepResult> results) {
+        final StringBuilder sb = new StringBuilder();
+        final String row = "%-4s %-8s %-12s %-10s %14s %12s %12s  %s%n";
+        sb.append(format(row, "RANK", GOGC, GOMEMLIMIT, GOMAXPROCS, "MSGS/S", "P99_US", "PEAK_RSS_MB", "ERROR"));
+        for (int i = 0; i < results.size(); i++) {
+            final NatsSweepResult result = results.get(i);
+            final NatsWorkloadResult workload = result.workload();
+            sb.append(format(row,
+                    i + 1,
+                    result.settings().getOrDefault(GOGC, "-"),
+                    result.settings().getOrDefault(GOMEMLIMIT, "-"),
+                    result.settings().getOrDefault(GOMAXPROCS, "-"),
+                    workload == null ? "-" : Math.round(workload.msgsPerSec()),
+                    workload == null ? "-" : workload.p99Ns() / 1000,
+                    result.peakRssBytes() < 0 ? "-" : result.peakRssBytes() / (1024 * 1024),
+                    result.error() == null ? (result.success() ? "" : "lost " + (workload.published() - workload.received())) : result.error()
+            ));
+        }
+        return sb.toString();
+    }
+
+    protected NatsSweepResult run(final Map<String, String> settings) {
+        final NatsOptionsBuilder builder = options.get()
+                .autostart(true)
+                .port(-1)
+                .goGc(settings.get(GOGC))
+                .goMemLimit(settings.get(GOMEMLIMIT))
+                .goMaxProcs(settings.containsKey(GOMAXPROCS) ? Integer.valueOf(settings.get(GOMAXPROCS)) : null);
+        try (Nats nats = start(builder)) {
+            for (int i = 0; i < warmups; i++) {
+                workload.run("127.0.0.1", nats.port());
+            }
+            final NatsWorkloadResult measured = workload.run("127.0.0.1", nats.port());
+            final long peakRss = peakRssBytes(nats.pid());
+            logger.info(() -> format("Sweep %s [%s] msgs/s p99 [%s] us peak rss [%s] bytes", settings, Math.round(measured.msgsPerSec()), measured.p99Ns() / 1000, peakRss));
+            return new NatsSweepResult(settings, measured, peakRss, null);
+        } catch (IOException | RuntimeException e) {
+            logger.warning(() -> format("Sweep %s failed cause [%s]", settings, e.getMessage()));
+            return new NatsSweepResult(settings, null, -1, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * @param builder options of a single run
+     * @return started server - closed after the run
+     */
+    protected Nats start(final NatsOptionsBuilder builder) {
+        return builder.nats();
+    }
+
+    /**
+     * @param pid process id
+     * @return peak resident set size (VmHWM) from /proc or -1 if not available
+     */
+    protected static long peakRssBytes(final long pid) {
+        final Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        if (pid <= 0 || !Files.isReadable(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmHWM:"))
+                    .map(line -> line.replaceAll("\\D", ""))
+                    .filter(NatsUtils::isNotEmpty)
+                    .mapToLong(kb -> Long.parseLong(kb) * 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static void putIfNotNull(final Map<String, String> settings, final String key, final Object value) {
+        if (value != null) {
+            settings.put(key, value.toString());
+        }
+    }
+
+    @SafeVarargs
+    private static <T> List<T> axis(final T... values) {
+        return values == null || values.length == 0 ? Collections.singletonList(null) : Arrays.asList(values);
+    }
+
+    @Override
+    public String toString() {
+        return "NatsTuningSweep{" +
+                "goGc=" + goGc +
+                ", goMemLimit=" + goMemLimit +
+                ", goMaxProcs=" + goMaxProcs +
+                ", messages=" + workload.messages() +
+                ", payloadSize=" + workload.payloadSize() +
+                ", warmups=" + warmups +
+                '}';
+    }
+}
@@ -6,28 +6,54 @@ import berlin.yuna.natsserver.model.MapValue;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.Socket;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static berlin.yuna.clu.logic.SystemUtil.OS;
 import static berlin.yuna.clu.logic.SystemUtil.OS_ARCH;
 import static berlin.yuna.clu.logic.SystemUtil.OS_ARCH_TYPE;
 import static java.nio.channels.Channels.newChannel;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.util.Optional.ofNullable;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class NatsUtils {
 
+    public static final String TOMBSTONE_MARKER = ".nats-tombstone-";
+    private static final ForkJoinPool CLEANUP_POOL = new ForkJoinPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    private static final Set<Path> REAPED_DIRS = ConcurrentHashMap.newKeySet();
+    private static final Set<Integer> RESERVED_PORTS = ConcurrentHashMap.newKeySet();
+    private static final Map<String, PropertyScan> PROPERTY_SCANS = new ConcurrentHashMap<>();
+
     private NatsUtils() {
     }
 
@@ -43,17 +69,40 @@ public class NatsUtils {
                 .orElseGet(fallback);
     }
 
+    /**
+     * Replaces "%KEY%" placeholders using precompiled {@link NatsTemplate}s - {@link Nats} uses the cached {@link NatsConfigSnapshot} instead
+     *
+     * @param input  value with placeholders
+     * @param config layered config
+     * @return resolved value
+     * @throws IllegalArgumentException if a placeholder is not a {@link NatsConfig} name or cyclic
+     */
     public static String resolveEnvs(final String input, final Map<NatsConfig, MapValue> config) {
-        String result = input;
-        int start;
-        int end;
-        while (result != null && (start = result.indexOf("%")) != -1 && (end = result.indexOf("%", start + 1)) != -1) {
-            final String key = result.substring(start + 1, end);
-            result = result.substring(0, start)
-                    + envValue(key, config)
-                    + result.substring(end + 1);
+        return resolveEnvs(input, config, 0);
+    }
+
+    private static String resolveEnvs(final String input, final Map<NatsConfig, MapValue> config, final int depth) {
+        if (depth > 32) {
+            throw new IllegalArgumentException("Cyclic placeholder in [" + input + "]");
+        }
+        return NatsTemplate.compile(input).resolve(key -> resolveEnvs(envValue(key, config), config, depth + 1));
+    }
+
+    /**
+     * @param input text
+     * @return lower case hex SHA-256 of the UTF-8 bytes
+     */
+    public static String sha256(final String input) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder result = new StringBuilder(hash.length * 2);
+            for (final byte b : hash) {
+                result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        return result;
     }
 
     public static String getSystem() {
@@ -72,21 +121,57 @@ public class NatsUtils {
         }
     }
 
+    /**
+     * Deletes the directory recursively using a bounded fork-join walk and blocks until done
+     *
+     * @param directory directory to delete
+     * @throws IOException kept for compatibility, delete failures are ignored
+     */
     public static void deleteDirectory(final Path directory) throws IOException {
-        if (Files.exists(directory)) {
-            try (final Stream<Path> walk = Files.walk(directory)) {
-                walk.sorted(Comparator.reverseOrder()).forEach(path -> {
-                            try {
-                                Files.delete(path);
-                            } catch (IOException e) {
-                                // ignored
-                            }
-                        }
-                );
-            }
+        if (directory != null && Files.exists(directory, NOFOLLOW_LINKS)) {
+            CLEANUP_POOL.invoke(new DeleteTask(directory));
         }
     }
 
+    /**
+     * Renames the directory atomically to a tombstone and deletes the tombstone in the background <br />
+     * Leftover tombstones (e.g. from a killed JVM) are reaped by {@link NatsUtils#reapTombstones(Path)} <br />
+     * If the rename fails the directory is deleted synchronously - a background delete in place would race with a new server reusing the path
+     *
+     * @param directory directory to delete
+     * @return future which completes when the tombstone is deleted
+     */
+    public static CompletableFuture<Void> deleteDirectoryAsync(final Path directory) {
+        if (directory == null || !Files.exists(directory, NOFOLLOW_LINKS)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final Path tombstone = tombstone(directory);
+        if (tombstone == null) {
+            CLEANUP_POOL.invoke(new DeleteTask(directory));
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> new DeleteTask(tombstone).invoke(), CLEANUP_POOL);
+    }
+
+    /**
+     * Deletes leftover tombstones of {@link NatsUtils#deleteDirectoryAsync(Path)} in the background - once per directory and JVM
+     *
+     * @param parent directory which may contain tombstones
+     * @return future which completes when all found tombstones are deleted
+     */
+    public static CompletableFuture<Void> reapTombstones(final Path parent) {
+        if (parent == null || !Files.isDirectory(parent) || !REAPED_DIRS.add(parent.toAbsolutePath().normalize())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final List<CompletableFuture<Void>> result = new ArrayList<>();
+        try (final DirectoryStream<Path> children = Files.newDirectoryStream(parent, path -> path.getFileName().toString().contains(TOMBSTONE_MARKER))) {
+            children.forEach(tombstone -> result.add(CompletableFuture.runAsync(() -> new DeleteTask(tombstone).invoke(), CLEANUP_POOL)));
+        } catch (IOException ignored) {
+            // nothing to reap
+        }
+        return CompletableFuture.allOf(result.toArray(CompletableFuture[]::new));
+    }
+
     public static void validatePort(final int port, final long timeoutMs, final boolean untilFree, final Supplier<Exception> onFail, final BooleanSupplier disrupt) throws Exception {
         if (!waitForPort(port, timeoutMs, untilFree, disrupt)) {
             throw onFail.get();
@@ -130,6 +215,94 @@ public class NatsUtils {
         throw new IllegalStateException("Could not find any free port");
     }
 
+    /**
+     * Finds the next free port which is not part of the excluded ports e.g. ports which are reserved but not bound yet
+     *
+     * @param startPort port to start the search after
+     * @param exclude   ports to skip
+     * @return free port
+     */
+    public static int getNextFreePort(final int startPort, final Collection<Integer> exclude) {
+        int port = getNextFreePort(startPort);
+        while (exclude.contains(port)) {
+            port = getNextFreePort(port);
+        }
+        return port;
+    }
+
+    /**
+     * Reserves the next free port JVM wide - useful when multiple servers are configured before any of them binds its ports
+     *
+     * @param startPort port to start the search after
+     * @return reserved free port
+     * @see NatsUtils#releasePort(int)
+     */
+    public static int reservePort(final int startPort) {
+        synchronized (RESERVED_PORTS) {
+            final int port = getNextFreePort(startPort, RESERVED_PORTS);
+            RESERVED_PORTS.add(port);
+            return port;
+        }
+    }
+
+    /**
+     * @param port port to release from {@link NatsUtils#reservePort(int)}
+     */
+    public static void releasePort(final int port) {
+        RESERVED_PORTS.remove(port);
+    }
+
+    /**
+     * Polls the condition until it is true or the timeout is reached
+     *
+     * @param condition condition to wait for
+     * @param timeoutMs timeout in milliseconds
+     * @param pollMs    pause between two polls in milliseconds
+     * @return true if the condition was met within the timeout
+     */
+    public static boolean waitFor(final BooleanSupplier condition, final long timeoutMs, final long pollMs) {
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Simple HTTP GET e.g. for the monitoring endpoints
+     *
+     * @param url       url to call
+     * @param timeoutMs connect and read timeout in milliseconds
+     * @return response body or null if the call failed or did not respond with 200
+     */
+    public static String httpGet(final String url, final long timeoutMs) {
+        try {
+            final HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+            con.setConnectTimeout((int) timeoutMs);
+            con.setReadTimeout((int) timeoutMs);
+            try {
+                if (con.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    return null;
+                }
+                try (final InputStream inputStream = con.getInputStream()) {
+                    return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            } finally {
+                con.disconnect();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public static boolean isPortInUse(final int portNumber) {
         try {
             new Socket("localhost", portNumber).close();
@@ -143,10 +316,10 @@ public class NatsUtils {
         return string != null && !string.isBlank();
     }
 
-    private static String envValue(final String key, final Map<NatsConfig, MapValue> config) {
-        return ofNullable(config.get(NatsConfig.valueOf(key)))
+    private static String envValue(final NatsConfig key, final Map<NatsConfig, MapValue> config) {
+        return ofNullable(config.get(key))
                 .map(MapValue::value)
-                .orElseGet(() -> getEnv(key, () -> ""));
+                .orElseGet(() -> getEnv(key.name(), () -> ""));
     }
 
     public static String removeQuotes(final String string) {
@@ -158,15 +331,37 @@ public class NatsUtils {
     }
 
     public static List<Path> getPropertyFiles(final String fileName) {
-        final List<Path> result = new ArrayList<>();
-        final var filePath = ofNullable(fileName).map(Path::of).filter(Files::isRegularFile).orElse(null);
-        try (final Stream<Path> walk = Files.walk(Paths.get(System.getProperty("user.dir")))) {
-            walk.filter(Files::isRegularFile).filter(path -> (filePath != null && filePath.equals(path)) ||
-                    (path.getFileName().toString().equals(fileName) || path.getFileName().toString().equals("nats.properties"))
-            ).forEach(result::add);
-        } catch (IOException ignored) {
+        return getPropertyFiles(
+                fileName,
+                (int) NatsConfig.NATS_PROPERTY_DEPTH.defaultValue(),
+                NatsConfig.NATS_PROPERTY_IGNORE.defaultValueStr(),
+                false
+        );
+    }
+
+    /**
+     * Finds property files below "user.dir" - the result is cached JVM wide and validated by the modification time of all visited directories
+     *
+     * @param fileName file name or path of the property file - an existing path is always included as last file
+     * @param maxDepth max directory depth below "user.dir"
+     * @param ignore   comma separated globs of directory names which are skipped e.g. ".git,target"
+     * @param parallel true to traverse the directories in parallel
+     * @return property files named "nats.properties" or like the file name
+     */
+    public static List<Path> getPropertyFiles(final String fileName, final int maxDepth, final String ignore, final boolean parallel) {
+        final Path root = Paths.get(System.getProperty("user.dir")).toAbsolutePath().normalize();
+        final String cacheKey = root + "|" + fileName + "|" + maxDepth + "|" + ignore;
+        PropertyScan scan = PROPERTY_SCANS.get(cacheKey);
+        if (scan == null || !scan.isValid()) {
+            scan = new PropertyScan(root, fileName, maxDepth, ignore, parallel);
+            PROPERTY_SCANS.put(cacheKey, scan);
         }
-        return result;
+        final Set<Path> result = new LinkedHashSet<>(scan.files);
+        ofNullable(fileName).map(Path::of).filter(Files::isRegularFile).map(path -> path.toAbsolutePath().normalize()).ifPresent(filePath -> {
+            result.remove(filePath);
+            result.add(filePath);
+        });
+        return new ArrayList<>(result);
     }
 
     private static String osString(final Enum<?> input, final String prefix) {
@@ -179,10 +374,143 @@ public class NatsUtils {
         return "";
     }
 
+    /**
+     * @return renamed directory or null if the atomic rename failed
+     */
+    private static Path tombstone(final Path directory) {
+        final Path tombstone = directory.resolveSibling(directory.getFileName() + TOMBSTONE_MARKER + System.nanoTime());
+        try {
+            return Files.move(directory, tombstone, ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
     public static void ignoreException(final ThrowingFunction<Long, Long> function) {
         try {
             function.acceptThrows(System.currentTimeMillis());
         } catch (Exception ignored) {
         }
     }
+
+    private static class PropertyScan {
+
+        private final List<Path> files;
+        private final Map<Path, Long> directories = new ConcurrentHashMap<>();
+
+        private PropertyScan(final Path root, final String fileName, final int maxDepth, final String ignore, final boolean parallel) {
+            final List<PathMatcher> ignored = Arrays.stream(ofNullable(ignore).orElse("").split(","))
+                    .map(String::trim)
+                    .filter(NatsUtils::isNotEmpty)
+                    .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+                    .collect(Collectors.toList());
+            final Set<String> names = Stream.of("nats.properties", ofNullable(fileName).map(Path::of).map(Path::getFileName).map(Path::toString).orElse("nats.properties")).collect(Collectors.toSet());
+            final ScanTask task = new ScanTask(root, 0, maxDepth, ignored, names, directories, parallel);
+            final List<Path> result = parallel ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            result.sort(Comparator.naturalOrder());
+            this.files = List.copyOf(result);
+        }
+
+        private boolean isValid() {
+            for (final Map.Entry<Path, Long> directory : directories.entrySet()) {
+                if (lastModified(directory.getKey()) != directory.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long lastModified(final Path directory) {
+            try {
+                return Files.getLastModifiedTime(directory, NOFOLLOW_LINKS).toMillis();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+    }
+
+    private static class ScanTask extends RecursiveTask<List<Path>> {
+
+        private final transient Path directory;
+        private final int depth;
+        private final int maxDepth;
+        private final transient List<PathMatcher> ignored;
+        private final transient Set<String> names;
+        private final transient Map<Path, Long> directories;
+        private final boolean parallel;
+
+        @SuppressWarnings("java:S107")
+        private ScanTask(final Path directory, final int depth, final int maxDepth, final List<PathMatcher> ignored, final Set<String> names, final Map<Path, Long> directories, final boolean parallel) {
+            this.directory = directory;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.ignored = ignored;
+            this.names = names;
+            this.directories = directories;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            final List<Path> result = new ArrayList<>();
+            final List<ScanTask> subTasks = new ArrayList<>();
+            directories.put(directory, PropertyScan.lastModified(directory));
+            try (final DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (final Path child : children) {
+                    if (Files.isDirectory(child, NOFOLLOW_LINKS)) {
+                        if (depth < maxDepth && ignored.stream().noneMatch(matcher -> matcher.matches(child.getFileName()))) {
+                            subTasks.add(new ScanTask(child, depth + 1, maxDepth, ignored, names, directories, parallel));
+                        }
+                    } else if (names.contains(child.getFileName().toString()) && Files.isRegularFile(child)) {
+                        result.add(child);
+                    }
+                }
+            } catch (IOException ignoredException) {
+                // not readable or deleted by someone else
+            }
+            if (parallel) {
+                invokeAll(subTasks).forEach(subTask -> result.addAll(subTask.join()));
+            } else {
+                subTasks.forEach(subTask -> result.addAll(subTask.compute()));
+            }
+            return result;
+        }
+    }
+
+    private static class DeleteTask extends RecursiveAction {
+
+        private final transient Path path;
+
+        private DeleteTask(final Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            final List<DeleteTask> subTasks = new ArrayList<>();
+            if (Files.isDirectory(path, NOFOLLOW_LINKS)) {
+                try (final DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                    for (final Path child : children) {
+                        if (Files.isDirectory(child, NOFOLLOW_LINKS)) {
+                            subTasks.add(new DeleteTask(child));
+                        } else {
+                            deleteQuietly(child);
+                        }
+                    }
+                } catch (IOException ignored) {
+                    // deleted by someone else
+                }
+            }
+            invokeAll(subTasks);
+            deleteQuietly(path);
+        }
+
+        private static void deleteQuietly(final Path path) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // ignored
+            }
+        }
+    }
 }
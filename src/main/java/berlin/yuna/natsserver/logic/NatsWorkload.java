@@ -0,0 +1,145 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsWorkloadResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static berlin.yuna.natsserver.logic.NatsConnection.BUFFER_SIZE;
+import static berlin.yuna.natsserver.logic.NatsConnection.CRLF;
+import static berlin.yuna.natsserver.logic.NatsConnection.frame;
+import static java.lang.String.format;
+
+/**
+ * {@link NatsWorkload} is a fixed pub/sub workload using the NATS text protocol <br />
+ * One {@link NatsConnection} publishes timestamped messages as fast as possible, a second one receives them and records the publish to receive latency.
+ *
+ * @author Yuna Morgenstern
+ * @see NatsTuningSweep
+ * @since 2.14
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class NatsWorkload {
+
+    private static final int JOIN_SLACK_MS = 250;
+    private static final int STAMP_LENGTH = 16;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final int messages;
+    private final int payloadSize;
+    private final long timeoutMs;
+
+    /**
+     * @param messages    number of messages per run
+     * @param payloadSize payload bytes per message - min 16 for the timestamp
+     * @param timeoutMs   timeout for connecting and receiving all messages
+     */
+    public NatsWorkload(final int messages, final int payloadSize, final long timeoutMs) {
+        this.messages = messages;
+        this.payloadSize = Math.max(STAMP_LENGTH, payloadSize);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return number of messages per run
+     */
+    public int messages() {
+        return messages;
+    }
+
+    /**
+     * @return payload bytes per message
+     */
+    public int payloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * Runs the workload against a server
+     *
+     * @param host server host
+     * @param port server client port
+     * @return throughput and latency of this run
+     * @throws IOException on connection errors or if the subscriber failed
+     */
+    public NatsWorkloadResult run(final String host, final int port) throws IOException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        final String subject = "_workload." + Long.toHexString(System.nanoTime());
+        final long[] latencies = new long[messages];
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final byte[] frame = frame(subject, payloadSize);
+        final int stampOffset = frame.length - payloadSize - CRLF.length;
+        try (NatsConnection sub = new NatsConnection(host, port, "nats-workload", deadline, BUFFER_SIZE); NatsConnection pub = new NatsConnection(host, port, "nats-workload", deadline, Math.max(BUFFER_SIZE, frame.length))) {
+            sub.onMessage(STAMP_LENGTH, (head, length, size) -> {
+                if (sub.messages <= messages) {
+                    latencies[(int) sub.messages - 1] = sub.lastMessageNanos - unstamp(head);
+                }
+            });
+            sub.write("SUB " + subject + " 1\r\n");
+            sub.awaitPong(deadline);
+            final Thread subscriber = new Thread(() -> receive(sub, deadline, error), "nats-workload-subscriber");
+            subscriber.setDaemon(true);
+            subscriber.start();
+
+            final long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                stamp(frame, stampOffset, System.nanoTime());
+                pub.write(frame);
+            }
+            pub.awaitPong(deadline);
+            join(subscriber, deadline);
+            if (error.get() != null) {
+                throw new IOException(format("Workload subscriber failed [%s]", error.get().getMessage()), error.get());
+            }
+            final int count = (int) Math.min(sub.messages, messages);
+            final long duration = count == 0 ? 0 : sub.lastMessageNanos - start;
+            final long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new NatsWorkloadResult(messages, count, Math.max(0, duration), percentile(sorted, 0.5), percentile(sorted, 0.99), count == 0 ? 0 : sorted[count - 1]);
+        }
+    }
+
+    private void receive(final NatsConnection sub, final long deadline, final AtomicReference<Exception> error) {
+        try {
+            while (sub.messages < messages && sub.read(deadline)) {
+                // latencies are recorded by the message listener
+            }
+        } catch (IOException | RuntimeException e) {
+            error.set(e);
+        }
+    }
+
+    protected static long percentile(final long[] sorted, final double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static void stamp(final byte[] payload, final int offset, final long value) {
+        for (int i = offset + STAMP_LENGTH - 1, shift = 0; i >= offset; i--, shift += 4) {
+            payload[i] = HEX[(int) ((value >>> shift) & 0xF)];
+        }
+    }
+
+    private static long unstamp(final byte[] payload) {
+        long result = 0;
+        for (int i = 0; i < STAMP_LENGTH; i++) {
+            final int c = payload[i];
+            result = (result << 4) | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return result;
+    }
+
+    private static void join(final Thread thread, final long deadline) {
+        try {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + JOIN_SLACK_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
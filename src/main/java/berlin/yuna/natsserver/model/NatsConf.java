@@ -0,0 +1,147 @@
+package berlin.yuna.natsserver.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal model of a nats-server config file (nats.conf) <br />
+ * Values can be {@link String}, {@link Number}, {@link Boolean}, nested {@link NatsConf} blocks or {@link Collection}s of those.
+ */
+public class NatsConf {
+
+    private static final String INDENT = "    ";
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final List<String> includes = new ArrayList<>();
+
+    /**
+     * @param key   config key e.g. "max_payload"
+     * @param value config value - null removes the key
+     * @return self {@link NatsConf}
+     */
+    public NatsConf put(final String key, final Object value) {
+        if (value == null) {
+            values.remove(key);
+        } else {
+            values.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Includes another config file before all values of this config - values of this config win
+     *
+     * @param path path relative to the directory of this config file
+     * @return self {@link NatsConf}
+     */
+    public NatsConf include(final String path) {
+        includes.add(path.replace('\\', '/'));
+        return this;
+    }
+
+    /**
+     * @param key block key e.g. "cluster"
+     * @return existing or new nested block
+     */
+    public NatsConf block(final String key) {
+        final Object block = values.get(key);
+        if (block instanceof NatsConf) {
+            return (NatsConf) block;
+        }
+        final NatsConf result = new NatsConf();
+        values.put(key, result);
+        return result;
+    }
+
+    /**
+     * @param key config key
+     * @return config value or null
+     */
+    public Object get(final String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @return config values in insertion order
+     */
+    public Map<String, Object> values() {
+        return values;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty() && includes.isEmpty();
+    }
+
+    /**
+     * @return nats.conf syntax
+     */
+    public String render() {
+        final StringBuilder result = new StringBuilder();
+        render(result, "");
+        return result.toString();
+    }
+
+    /**
+     * Writes the config only if the content changed
+     *
+     * @param file target file
+     * @return target file
+     * @throws IOException if the file can't be written
+     */
+    public Path write(final Path file) throws IOException {
+        final String content = render();
+        if (!Files.exists(file) || !content.equals(Files.readString(file, StandardCharsets.UTF_8))) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        }
+        return file;
+    }
+
+    private void render(final StringBuilder result, final String indent) {
+        includes.forEach(include -> result.append(indent).append("include ").append('"').append(include).append('"').append(System.lineSeparator()));
+        values.forEach((key, value) -> {
+            result.append(indent).append(key);
+            if (value instanceof NatsConf) {
+                result.append(" {").append(System.lineSeparator());
+                ((NatsConf) value).render(result, indent + INDENT);
+                result.append(indent).append("}");
+            } else {
+                result.append(": ");
+                renderValue(result, value, indent);
+            }
+            result.append(System.lineSeparator());
+        });
+    }
+
+    private static void renderValue(final StringBuilder result, final Object value, final String indent) {
+        if (value instanceof NatsConf) {
+            result.append("{").append(System.lineSeparator());
+            ((NatsConf) value).render(result, indent + INDENT + INDENT);
+            result.append(indent).append(INDENT).append("}");
+        } else if (value instanceof Collection) {
+            result.append("[");
+            boolean first = true;
+            for (final Object item : (Collection<?>) value) {
+                result.append(first ? "" : ",").append(System.lineSeparator()).append(indent).append(INDENT);
+                renderValue(result, item, indent);
+                first = false;
+            }
+            result.append(System.lineSeparator()).append(indent).append("]");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            result.append(value);
+        } else {
+            result.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
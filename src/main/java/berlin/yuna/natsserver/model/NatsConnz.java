@@ -0,0 +1,80 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client connections from the monitoring endpoint "/connz"
+ */
+public class NatsConnz extends NatsMonitorSnapshot {
+
+    private final List<Connection> connections;
+
+    public NatsConnz(final long timestamp, final Map<String, String> values, final List<Connection> connections) {
+        super(timestamp, values);
+        this.connections = Collections.unmodifiableList(connections);
+    }
+
+    public long numConnections() {
+        return getLong("num_connections");
+    }
+
+    public long total() {
+        return getLong("total");
+    }
+
+    /**
+     * @return connections of the requested page
+     */
+    public List<Connection> connections() {
+        return connections;
+    }
+
+    public static class Connection extends NatsMonitorSnapshot {
+
+        public Connection(final long timestamp, final Map<String, String> values) {
+            super(timestamp, values);
+        }
+
+        public long cid() {
+            return getLong("cid");
+        }
+
+        public String name() {
+            return get("name");
+        }
+
+        public String ip() {
+            return get("ip");
+        }
+
+        public long port() {
+            return getLong("port");
+        }
+
+        public long pendingBytes() {
+            return getLong("pending_bytes");
+        }
+
+        public long subscriptions() {
+            return getLong("subscriptions");
+        }
+
+        public long inMsgs() {
+            return getLong("in_msgs");
+        }
+
+        public long outMsgs() {
+            return getLong("out_msgs");
+        }
+
+        public long inBytes() {
+            return getLong("in_bytes");
+        }
+
+        public long outBytes() {
+            return getLong("out_bytes");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package berlin.yuna.natsserver.model;
+
+/**
+ * Timings of a cluster scaling operation
+ */
+public class NatsConvergenceReport {
+
+    private final String operation;
+    private final String serverName;
+    private final int clusterSize;
+    private final long routesMs;
+    private final long jetStreamMs;
+    private final long totalMs;
+
+    public NatsConvergenceReport(final String operation, final String serverName, final int clusterSize, final long routesMs, final long jetStreamMs, final long totalMs) {
+        this.operation = operation;
+        this.serverName = serverName;
+        this.clusterSize = clusterSize;
+        this.routesMs = routesMs;
+        this.jetStreamMs = jetStreamMs;
+        this.totalMs = totalMs;
+    }
+
+    /**
+     * @return operation e.g. "add" or "remove"
+     */
+    public String operation() {
+        return operation;
+    }
+
+    /**
+     * @return server name of the added or removed node
+     */
+    public String serverName() {
+        return serverName;
+    }
+
+    /**
+     * @return number of nodes after the operation
+     */
+    public int clusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * @return milliseconds until the routes of all nodes reflect the new member list
+     */
+    public long routesMs() {
+        return routesMs;
+    }
+
+    /**
+     * @return milliseconds until the JetStream meta group converged or -1 if JetStream is not clustered
+     */
+    public long jetStreamMs() {
+        return jetStreamMs;
+    }
+
+    /**
+     * @return milliseconds of the whole operation including start or lame duck shutdown
+     */
+    public long totalMs() {
+        return totalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsConvergenceReport{" +
+                "operation=" + operation +
+                ", serverName=" + serverName +
+                ", clusterSize=" + clusterSize +
+                ", routesMs=" + routesMs +
+                ", jetStreamMs=" + jetStreamMs +
+                ", totalMs=" + totalMs +
+                '}';
+    }
+}
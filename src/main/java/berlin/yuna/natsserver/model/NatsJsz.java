@@ -0,0 +1,100 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JetStream statistics from the monitoring endpoint "/jsz"
+ */
+public class NatsJsz extends NatsMonitorSnapshot {
+
+    private final List<Replica> replicas;
+
+    public NatsJsz(final long timestamp, final Map<String, String> values) {
+        this(timestamp, values, Collections.emptyList());
+    }
+
+    public NatsJsz(final long timestamp, final Map<String, String> values, final List<Replica> replicas) {
+        super(timestamp, values);
+        this.replicas = Collections.unmodifiableList(replicas);
+    }
+
+    /**
+     * @return used memory store bytes
+     */
+    public long memory() {
+        return getLong("memory");
+    }
+
+    /**
+     * @return used file store bytes
+     */
+    public long storage() {
+        return getLong("storage");
+    }
+
+    public long streams() {
+        return getLong("streams");
+    }
+
+    public long consumers() {
+        return getLong("consumers");
+    }
+
+    public long messages() {
+        return getLong("messages");
+    }
+
+    public long bytes() {
+        return getLong("bytes");
+    }
+
+    public long apiTotal() {
+        return getLong("api.total");
+    }
+
+    public long apiErrors() {
+        return getLong("api.errors");
+    }
+
+    public String metaLeader() {
+        return get("meta_cluster.leader");
+    }
+
+    public long metaClusterSize() {
+        return getLong("meta_cluster.cluster_size");
+    }
+
+    /**
+     * @return meta group peers except the leader
+     */
+    public List<Replica> metaReplicas() {
+        return replicas;
+    }
+
+    public static class Replica extends NatsMonitorSnapshot {
+
+        public Replica(final long timestamp, final Map<String, String> values) {
+            super(timestamp, values);
+        }
+
+        public String name() {
+            return get("name");
+        }
+
+        /**
+         * @return true if the peer is caught up with the leader
+         */
+        public boolean current() {
+            return "true".equals(get("current"));
+        }
+
+        /**
+         * @return true if the leader lost contact to the peer
+         */
+        public boolean offline() {
+            return "true".equals(get("offline"));
+        }
+    }
+}
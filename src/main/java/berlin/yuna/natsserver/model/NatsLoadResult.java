@@ -0,0 +1,132 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Locale;
+
+/**
+ * Throughput of a load generator run - publisher and subscriber side are measured separately
+ */
+public class NatsLoadResult {
+
+    private static final double MB = 1024d * 1024d;
+
+    private final int publishers;
+    private final int subscribers;
+    private final int payloadSize;
+    private final long published;
+    private final long publishNs;
+    private final long received;
+    private final long receiveNs;
+
+    public NatsLoadResult(final int publishers, final int subscribers, final int payloadSize, final long published, final long publishNs, final long received, final long receiveNs) {
+        this.publishers = publishers;
+        this.subscribers = subscribers;
+        this.payloadSize = payloadSize;
+        this.published = published;
+        this.publishNs = publishNs;
+        this.received = received;
+        this.receiveNs = receiveNs;
+    }
+
+    /**
+     * @return number of publisher connections
+     */
+    public int publishers() {
+        return publishers;
+    }
+
+    /**
+     * @return number of subscriber connections
+     */
+    public int subscribers() {
+        return subscribers;
+    }
+
+    /**
+     * @return payload bytes per message
+     */
+    public int payloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * @return messages sent by all publishers
+     */
+    public long published() {
+        return published;
+    }
+
+    /**
+     * @return nanoseconds from the start until the last publisher got its final PONG
+     */
+    public long publishNs() {
+        return publishNs;
+    }
+
+    /**
+     * @return messages received by all subscribers
+     */
+    public long received() {
+        return received;
+    }
+
+    /**
+     * @return nanoseconds from the start until the last subscriber received its last message
+     */
+    public long receiveNs() {
+        return receiveNs;
+    }
+
+    /**
+     * @return messages every subscriber should receive in total
+     */
+    public long expected() {
+        return published * subscribers;
+    }
+
+    /**
+     * @return true if every subscriber received every published message
+     */
+    public boolean complete() {
+        return received == expected();
+    }
+
+    /**
+     * @return published messages per second
+     */
+    public double publishMsgsPerSec() {
+        return perSecond(published, publishNs);
+    }
+
+    /**
+     * @return published payload MB per second (1 MB = 1024 * 1024 bytes)
+     */
+    public double publishMbPerSec() {
+        return perSecond(published * payloadSize, publishNs) / MB;
+    }
+
+    /**
+     * @return received messages per second over all subscribers
+     */
+    public double receiveMsgsPerSec() {
+        return perSecond(received, receiveNs);
+    }
+
+    /**
+     * @return received payload MB per second over all subscribers (1 MB = 1024 * 1024 bytes)
+     */
+    public double receiveMbPerSec() {
+        return perSecond(received * payloadSize, receiveNs) / MB;
+    }
+
+    private static double perSecond(final long count, final long durationNs) {
+        return durationNs <= 0 ? 0 : count * 1_000_000_000d / durationNs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "NatsLoadResult{publishers=%d, published=%d, pub=%.0f msgs/s %.2f MB/s, subscribers=%d, received=%d, sub=%.0f msgs/s %.2f MB/s, payloadSize=%d}",
+                publishers, published, publishMsgsPerSec(), publishMbPerSec(),
+                subscribers, received, receiveMsgsPerSec(), receiveMbPerSec(),
+                payloadSize);
+    }
+}
@@ -0,0 +1,112 @@
+package berlin.yuna.natsserver.model;
+
+/**
+ * Operational event parsed from a server log line e.g. a slow consumer or a closed route
+ */
+public class NatsLogEvent {
+
+    public enum Type {
+        SLOW_CONSUMER("Slow Consumer Detected"),
+        SLOW_READLOOP("Readloop processing time"),
+        AUTH_FAILURE("Authorization Violation", "authentication error", "Authentication Timeout", "User Authentication Expired"),
+        ROUTE_CONNECTED("Route connection created"),
+        ROUTE_DISCONNECTED("Router connection closed", "Route connection closed"),
+        GATEWAY_CONNECTED("Gateway connection created"),
+        GATEWAY_DISCONNECTED("Gateway connection closed"),
+        LEAFNODE_CONNECTED("Leafnode connection created"),
+        LEAFNODE_DISCONNECTED("Leafnode connection closed"),
+        LAME_DUCK("Entering lame duck mode"),
+        ERROR("[ERR]", "[FTL]");
+
+        private final String[] markers;
+
+        Type(final String... markers) {
+            this.markers = markers;
+        }
+
+        /**
+         * @return substrings of a log line which identify the event
+         */
+        public String[] markers() {
+            return markers.clone();
+        }
+
+        /**
+         * @param line server log line
+         * @return true if the line contains one of the markers
+         */
+        public boolean matches(final String line) {
+            for (String marker : markers) {
+                if (line.contains(marker)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Type type;
+    private final long timestamp;
+    private final String level;
+    private final String source;
+    private final String message;
+    private final String line;
+
+    public NatsLogEvent(final Type type, final long timestamp, final String level, final String source, final String message, final String line) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.level = level;
+        this.source = source;
+        this.message = message;
+        this.line = line;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * @return epoch milliseconds when the line was captured
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return server log tag e.g. "INF", "WRN" or null if untagged
+     */
+    public String level() {
+        return level;
+    }
+
+    /**
+     * @return connection of the event e.g. "127.0.0.1:6222 - rid:1" or null
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * @return log message without prefix and source
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return raw log line
+     */
+    public String line() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsLogEvent{" +
+                "type=" + type +
+                ", level=" + level +
+                ", source=" + source +
+                ", message=" + message +
+                '}';
+    }
+}
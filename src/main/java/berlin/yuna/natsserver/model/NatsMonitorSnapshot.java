@@ -0,0 +1,78 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Scalar values of a monitoring endpoint response e.g. "/varz" - nested keys are separated by dots e.g. "api.total"
+ */
+public class NatsMonitorSnapshot {
+
+    private final long timestamp;
+    private final Map<String, String> values;
+
+    public NatsMonitorSnapshot(final long timestamp, final Map<String, String> values) {
+        this.timestamp = timestamp;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @return epoch milliseconds when the response was read
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return all scalar values
+     */
+    public Map<String, String> values() {
+        return values;
+    }
+
+    /**
+     * @param key key e.g. "in_msgs"
+     * @return raw value or null if not present
+     */
+    public String get(final String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @param key key e.g. "in_msgs"
+     * @return value as long or -1 if not present or not a number
+     */
+    public long getLong(final String key) {
+        final String value = values.get(key);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            final double result = getDouble(key);
+            return result < 0 ? -1 : (long) result;
+        }
+    }
+
+    /**
+     * @param key key e.g. "cpu"
+     * @return value as double or -1 if not present or not a number
+     */
+    public double getDouble(final String key) {
+        final String value = values.get(key);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + values;
+    }
+}
@@ -0,0 +1,17 @@
+package berlin.yuna.natsserver.model;
+
+/**
+ * Lifecycle phases of a server wrapper
+ */
+public enum NatsPhase {
+
+    PROPERTY_FILES,
+    START,
+    DOWNLOAD,
+    EXTRACT,
+    PORT_ALLOCATION,
+    SPAWN,
+    READY,
+    SHUTDOWN
+
+}
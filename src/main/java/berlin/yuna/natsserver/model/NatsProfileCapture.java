@@ -0,0 +1,71 @@
+package berlin.yuna.natsserver.model;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Go pprof profiles captured from a server during a workload window
+ */
+public class NatsProfileCapture {
+
+    private final String testName;
+    private final String version;
+    private final Path directory;
+    private final long windowMs;
+    private final Map<String, Path> profiles;
+
+    public NatsProfileCapture(final String testName, final String version, final Path directory, final long windowMs, final Map<String, Path> profiles) {
+        this.testName = testName;
+        this.version = version;
+        this.directory = directory;
+        this.windowMs = windowMs;
+        this.profiles = Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * @return label of the workload e.g. the test name
+     */
+    public String testName() {
+        return testName;
+    }
+
+    /**
+     * @return nats server version e.g. "v2.14.2"
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * @return directory of the profile files
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return duration of the cpu profile window in milliseconds
+     */
+    public long windowMs() {
+        return windowMs;
+    }
+
+    /**
+     * @return captured profile files by name e.g. "cpu", "heap" - failed captures are missing
+     */
+    public Map<String, Path> profiles() {
+        return profiles;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsProfileCapture{" +
+                "testName=" + testName +
+                ", version=" + version +
+                ", directory=" + directory +
+                ", windowMs=" + windowMs +
+                ", profiles=" + profiles.keySet() +
+                '}';
+    }
+}
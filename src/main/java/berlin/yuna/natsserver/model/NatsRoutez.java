@@ -0,0 +1,65 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster routes from the monitoring endpoint "/routez"
+ */
+public class NatsRoutez extends NatsMonitorSnapshot {
+
+    private final List<Route> routes;
+
+    public NatsRoutez(final long timestamp, final Map<String, String> values, final List<Route> routes) {
+        super(timestamp, values);
+        this.routes = Collections.unmodifiableList(routes);
+    }
+
+    public String serverId() {
+        return get("server_id");
+    }
+
+    public long numRoutes() {
+        return getLong("num_routes");
+    }
+
+    public List<Route> routes() {
+        return routes;
+    }
+
+    public static class Route extends NatsMonitorSnapshot {
+
+        public Route(final long timestamp, final Map<String, String> values) {
+            super(timestamp, values);
+        }
+
+        public long rid() {
+            return getLong("rid");
+        }
+
+        public String remoteId() {
+            return get("remote_id");
+        }
+
+        public String ip() {
+            return get("ip");
+        }
+
+        public long port() {
+            return getLong("port");
+        }
+
+        public long pendingSize() {
+            return getLong("pending_size");
+        }
+
+        public long inMsgs() {
+            return getLong("in_msgs");
+        }
+
+        public long outMsgs() {
+            return getLong("out_msgs");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Map;
+
+/**
+ * Subscription routing statistics from the monitoring endpoint "/subsz"
+ */
+public class NatsSubsz extends NatsMonitorSnapshot {
+
+    public NatsSubsz(final long timestamp, final Map<String, String> values) {
+        super(timestamp, values);
+    }
+
+    public long numSubscriptions() {
+        return getLong("num_subscriptions");
+    }
+
+    public long numCache() {
+        return getLong("num_cache");
+    }
+
+    public long numInserts() {
+        return getLong("num_inserts");
+    }
+
+    public long numRemoves() {
+        return getLong("num_removes");
+    }
+
+    public long numMatches() {
+        return getLong("num_matches");
+    }
+
+    public double cacheHitRate() {
+        return getDouble("cache_hit_rate");
+    }
+
+    public long maxFanout() {
+        return getLong("max_fanout");
+    }
+
+    public double avgFanout() {
+        return getDouble("avg_fanout");
+    }
+}
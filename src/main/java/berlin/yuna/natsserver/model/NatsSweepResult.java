@@ -0,0 +1,66 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Map;
+
+/**
+ * Result of one Go runtime setting of a tuning sweep
+ */
+public class NatsSweepResult {
+
+    private final Map<String, String> settings;
+    private final NatsWorkloadResult workload;
+    private final long peakRssBytes;
+    private final String error;
+
+    public NatsSweepResult(final Map<String, String> settings, final NatsWorkloadResult workload, final long peakRssBytes, final String error) {
+        this.settings = settings;
+        this.workload = workload;
+        this.peakRssBytes = peakRssBytes;
+        this.error = error;
+    }
+
+    /**
+     * @return Go runtime variables of this run e.g. GOGC=200
+     */
+    public Map<String, String> settings() {
+        return settings;
+    }
+
+    /**
+     * @return workload result or null if the run failed
+     */
+    public NatsWorkloadResult workload() {
+        return workload;
+    }
+
+    /**
+     * @return peak resident set size of the server process or -1 if not available
+     */
+    public long peakRssBytes() {
+        return peakRssBytes;
+    }
+
+    /**
+     * @return error message or null if the run succeeded
+     */
+    public String error() {
+        return error;
+    }
+
+    /**
+     * @return true if the run succeeded and every message was received
+     */
+    public boolean success() {
+        return error == null && workload != null && workload.received() == workload.published();
+    }
+
+    @Override
+    public String toString() {
+        return "NatsSweepResult{" +
+                "settings=" + settings +
+                ", workload=" + workload +
+                ", peakRssBytes=" + peakRssBytes +
+                ", error=" + error +
+                '}';
+    }
+}
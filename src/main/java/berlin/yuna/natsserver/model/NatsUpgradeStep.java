@@ -0,0 +1,87 @@
+package berlin.yuna.natsserver.model;
+
+/**
+ * Result of restarting one node during a rolling upgrade
+ */
+public class NatsUpgradeStep {
+
+    private final String serverName;
+    private final String fromVersion;
+    private final String toVersion;
+    private final NatsConvergenceReport convergence;
+    private final long maxStallMs;
+    private final int published;
+    private final int lost;
+
+    public NatsUpgradeStep(final String serverName, final String fromVersion, final String toVersion, final NatsConvergenceReport convergence, final long maxStallMs, final int published, final int lost) {
+        this.serverName = serverName;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.convergence = convergence;
+        this.maxStallMs = maxStallMs;
+        this.published = published;
+        this.lost = lost;
+    }
+
+    /**
+     * @return server name of the upgraded node
+     */
+    public String serverName() {
+        return serverName;
+    }
+
+    /**
+     * @return version before the upgrade
+     */
+    public String fromVersion() {
+        return fromVersion;
+    }
+
+    /**
+     * @return version after the upgrade
+     */
+    public String toVersion() {
+        return toVersion;
+    }
+
+    /**
+     * @return timings until the cluster converged again after the restart
+     */
+    public NatsConvergenceReport convergence() {
+        return convergence;
+    }
+
+    /**
+     * @return max milliseconds between two confirmed probe publishes during this step
+     */
+    public long maxStallMs() {
+        return maxStallMs;
+    }
+
+    /**
+     * @return number of confirmed probe publishes during this step
+     */
+    public int published() {
+        return published;
+    }
+
+    /**
+     * @return number of confirmed probe publishes which never reached the probe subscriber
+     */
+    public int lost() {
+        return lost;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsUpgradeStep{" +
+                "serverName=" + serverName +
+                ", fromVersion=" + fromVersion +
+                ", toVersion=" + toVersion +
+                ", maxStallMs=" + maxStallMs +
+                ", published=" + published +
+                ", lost=" + lost +
+                ", convergence=" + convergence +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package berlin.yuna.natsserver.model;
+
+import java.util.Map;
+
+/**
+ * Server statistics from the monitoring endpoint "/varz"
+ */
+public class NatsVarz extends NatsMonitorSnapshot {
+
+    public NatsVarz(final long timestamp, final Map<String, String> values) {
+        super(timestamp, values);
+    }
+
+    public String serverId() {
+        return get("server_id");
+    }
+
+    public String serverName() {
+        return get("server_name");
+    }
+
+    public String version() {
+        return get("version");
+    }
+
+    public long connections() {
+        return getLong("connections");
+    }
+
+    public long totalConnections() {
+        return getLong("total_connections");
+    }
+
+    public long routes() {
+        return getLong("routes");
+    }
+
+    /**
+     * @return number of connected leaf nodes
+     */
+    public long leafnodes() {
+        return getLong("leafnodes");
+    }
+
+    public long subscriptions() {
+        return getLong("subscriptions");
+    }
+
+    public long inMsgs() {
+        return getLong("in_msgs");
+    }
+
+    public long outMsgs() {
+        return getLong("out_msgs");
+    }
+
+    public long inBytes() {
+        return getLong("in_bytes");
+    }
+
+    public long outBytes() {
+        return getLong("out_bytes");
+    }
+
+    public long slowConsumers() {
+        return getLong("slow_consumers");
+    }
+
+    /**
+     * @return resident memory of the server in bytes
+     */
+    public long mem() {
+        return getLong("mem");
+    }
+
+    /**
+     * @return cpu usage in percent
+     */
+    public double cpu() {
+        return getDouble("cpu");
+    }
+
+    public String uptime() {
+        return get("uptime");
+    }
+}
@@ -0,0 +1,85 @@
+package berlin.yuna.natsserver.model;
+
+/**
+ * Result of one pub/sub workload run
+ */
+public class NatsWorkloadResult {
+
+    private final int published;
+    private final int received;
+    private final long durationNs;
+    private final long p50Ns;
+    private final long p99Ns;
+    private final long maxNs;
+
+    public NatsWorkloadResult(final int published, final int received, final long durationNs, final long p50Ns, final long p99Ns, final long maxNs) {
+        this.published = published;
+        this.received = received;
+        this.durationNs = durationNs;
+        this.p50Ns = p50Ns;
+        this.p99Ns = p99Ns;
+        this.maxNs = maxNs;
+    }
+
+    /**
+     * @return number of published messages
+     */
+    public int published() {
+        return published;
+    }
+
+    /**
+     * @return number of received messages
+     */
+    public int received() {
+        return received;
+    }
+
+    /**
+     * @return nanoseconds from the first publish until the last message was received
+     */
+    public long durationNs() {
+        return durationNs;
+    }
+
+    /**
+     * @return received messages per second
+     */
+    public double msgsPerSec() {
+        return durationNs <= 0 ? 0 : received * 1_000_000_000d / durationNs;
+    }
+
+    /**
+     * @return median publish to receive latency in nanoseconds
+     */
+    public long p50Ns() {
+        return p50Ns;
+    }
+
+    /**
+     * @return 99th percentile publish to receive latency in nanoseconds
+     */
+    public long p99Ns() {
+        return p99Ns;
+    }
+
+    /**
+     * @return max publish to receive latency in nanoseconds
+     */
+    public long maxNs() {
+        return maxNs;
+    }
+
+    @Override
+    public String toString() {
+        return "NatsWorkloadResult{" +
+                "published=" + published +
+                ", received=" + received +
+                ", durationNs=" + durationNs +
+                ", msgsPerSec=" + Math.round(msgsPerSec()) +
+                ", p50Ns=" + p50Ns +
+                ", p99Ns=" + p99Ns +
+                ", maxNs=" + maxNs +
+                '}';
+    }
+}
@@ -26,4 +26,11 @@ public interface NatsInterface extends AutoCloseable {
     boolean debug();
 
     Path configFile();
+
+    /**
+     * @return durations of the last start or null if not supported or not started yet
+     */
+    default StartupReport startupReport() {
+        return null;
+    }
 }
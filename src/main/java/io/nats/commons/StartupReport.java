@@ -0,0 +1,107 @@
+package io.nats.commons;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durations of the startup phases of a {@link NatsInterface} - phases which did not run are 0
+ */
+public class StartupReport {
+
+    private final long downloadNanos;
+    private final long extractNanos;
+    private final long portAllocationNanos;
+    private final long spawnNanos;
+    private final long readyNanos;
+    private final long totalNanos;
+
+    public StartupReport(final long downloadNanos, final long extractNanos, final long portAllocationNanos, final long spawnNanos, final long readyNanos, final long totalNanos) {
+        this.downloadNanos = downloadNanos;
+        this.extractNanos = extractNanos;
+        this.portAllocationNanos = portAllocationNanos;
+        this.spawnNanos = spawnNanos;
+        this.readyNanos = readyNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * @return time to download the server binary
+     */
+    public long downloadNanos() {
+        return downloadNanos;
+    }
+
+    /**
+     * @return time to extract the server binary
+     */
+    public long extractNanos() {
+        return extractNanos;
+    }
+
+    /**
+     * @return time to find and validate free ports
+     */
+    public long portAllocationNanos() {
+        return portAllocationNanos;
+    }
+
+    /**
+     * @return time to spawn the server process
+     */
+    public long spawnNanos() {
+        return spawnNanos;
+    }
+
+    /**
+     * @return time until the server accepted connections
+     */
+    public long readyNanos() {
+        return readyNanos;
+    }
+
+    /**
+     * @return time of the whole start
+     */
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    public long downloadMs() {
+        return toMillis(downloadNanos);
+    }
+
+    public long extractMs() {
+        return toMillis(extractNanos);
+    }
+
+    public long portAllocationMs() {
+        return toMillis(portAllocationNanos);
+    }
+
+    public long spawnMs() {
+        return toMillis(spawnNanos);
+    }
+
+    public long readyMs() {
+        return toMillis(readyNanos);
+    }
+
+    public long totalMs() {
+        return toMillis(totalNanos);
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "StartupReport{" +
+                "downloadMs=" + downloadMs() +
+                ", extractMs=" + extractMs() +
+                ", portAllocationMs=" + portAllocationMs() +
+                ", spawnMs=" + spawnMs() +
+                ", readyMs=" + readyMs() +
+                ", totalMs=" + totalMs() +
+                '}';
+    }
+}
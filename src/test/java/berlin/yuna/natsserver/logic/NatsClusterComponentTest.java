@@ -0,0 +1,132 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.config.NatsVersion;
+import berlin.yuna.natsserver.model.NatsConvergenceReport;
+import berlin.yuna.natsserver.model.NatsUpgradeStep;
+import berlin.yuna.natsserver.model.exception.NatsStartException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.List;
+
+import static berlin.yuna.natsserver.config.NatsConfig.CLUSTER_NAME;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_VERSION;
+import static berlin.yuna.natsserver.config.NatsConfig.PROFILE;
+import static berlin.yuna.natsserver.config.NatsConfig.ROUTES;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("IntegrationTest")
+@DisplayName("NatsCluster plain java")
+class NatsClusterComponentTest {
+
+    @Test
+    @DisplayName("Start routed cluster")
+    void natsCluster_shouldStartWithFullRouteMesh() throws Exception {
+        try (final NatsCluster cluster = new NatsCluster(3, natsBuilder().config(CLUSTER_NAME, "mesh")).start()) {
+            assertThat(cluster.nodes()).hasSize(3);
+            assertThat(cluster.startupMs()).isPositive();
+            assertThat(cluster.nodes().stream().map(Nats::port).distinct()).hasSize(3);
+            for (final Nats node : cluster.nodes()) {
+                assertThat(node.pid()).isGreaterThan(-1);
+                assertThat(cluster.routeCount(node)).isEqualTo(2);
+                assertThat(node.getValue(ROUTES)).doesNotContain(NatsCluster.clusterUrl(node));
+                new Socket("localhost", node.port()).close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Scale running cluster")
+    void natsCluster_addAndRemoveNode_shouldConverge() {
+        try (final NatsCluster cluster = new NatsCluster(2).start()) {
+            final NatsConvergenceReport added = cluster.addNode();
+            assertThat(added.clusterSize()).isEqualTo(3);
+            assertThat(added.routesMs()).isNotNegative();
+            assertThat(added.jetStreamMs()).isEqualTo(-1);
+            cluster.nodes().forEach(node -> assertThat(cluster.routeCount(node)).isEqualTo(2));
+
+            final NatsConvergenceReport removed = cluster.removeNode(cluster.node(0), 1000);
+            assertThat(removed.clusterSize()).isEqualTo(2);
+            assertThat(removed.totalMs()).isGreaterThanOrEqualTo(removed.routesMs());
+            cluster.nodes().forEach(node -> assertThat(cluster.routeCount(node)).isEqualTo(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Add failing node [FAIL]")
+    void natsCluster_addFailingNode_shouldReleasePorts() {
+        try (final NatsCluster cluster = new NatsCluster(1) {
+            @Override
+            protected NatsOptionsBuilder nodeConfig(final int index) {
+                final NatsOptionsBuilder config = super.nodeConfig(index);
+                return index == 0 ? config : config.config(PROFILE, "invalidValue");
+            }
+        }.start()) {
+            final List<Integer> ports = List.copyOf(cluster.ports);
+            assertThrows(NatsStartException.class, cluster::addNode);
+            assertThat(cluster.nodes()).hasSize(1);
+            assertThat(cluster.ports).containsExactlyElementsOf(ports);
+        }
+    }
+
+    @Test
+    @DisplayName("Rolling upgrade")
+    void natsRollingUpgrade_shouldUpgradeNodeByNode() {
+        try (final NatsRollingUpgrade upgrade = new NatsRollingUpgrade(3, NatsVersion.V2_14_1, NatsVersion.V2_14_2).lameDuckMs(500)) {
+            final List<NatsUpgradeStep> steps = upgrade.run();
+            assertThat(steps).hasSize(3);
+            assertThat(steps).extracting(NatsUpgradeStep::fromVersion).containsOnly("v2.14.1");
+            assertThat(steps).extracting(NatsUpgradeStep::toVersion).containsOnly("v2.14.2");
+            assertThat(steps).extracting(NatsUpgradeStep::published).allMatch(published -> published > 0);
+            assertThat(steps).extracting(NatsUpgradeStep::maxStallMs).allMatch(stall -> stall >= 0);
+            assertThat(upgrade.cluster().nodes()).extracting(node -> node.getValue(NATS_VERSION)).containsOnly("v2.14.2");
+            assertThat(upgrade.cluster().nodes()).extracting(Nats::binary).allMatch(binary -> binary.toString().contains("v2.14.2"));
+            upgrade.cluster().nodes().forEach(node -> assertThat(upgrade.cluster().routeCount(node)).isEqualTo(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Start JetStream R3 cluster")
+    void natsJetStreamCluster_shouldElectMetaLeader() {
+        try (final NatsJetStreamCluster cluster = new NatsJetStreamCluster(3).start()) {
+            assertThat(cluster.metaLeader()).startsWith(cluster.name());
+            assertThat(cluster.electionMs()).isNotNegative();
+            assertThat(cluster.nodes().stream().map(Nats::storeDir).distinct()).hasSize(3);
+            cluster.nodes().forEach(node -> {
+                assertThat(node.jetStream()).isTrue();
+                assertThat(cluster.healthy(node)).isTrue();
+                assertThat(cluster.metaLeader(node)).isEqualTo(cluster.metaLeader());
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Start supercluster with leaf node")
+    void natsTopology_shouldConnectGatewaysAndLeafNodes() {
+        try (final NatsTopology topology = new NatsTopology().cluster("east", 2).cluster("west", 1).leaf("edge", "east").start()) {
+            assertThat(topology.nodes()).hasSize(4);
+            assertThat(topology.cluster("east").nodes()).hasSize(2);
+            assertThat(topology.leaf("edge").pid()).isGreaterThan(-1);
+            assertThat(topology.configDir()).isDirectory();
+            assertThat(topology.startupMs()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Leaf without hub [FAIL]")
+    void natsTopology_withUnknownHub_shouldThrowException() {
+        final NatsTopology topology = new NatsTopology().cluster("east", 1).leaf("edge", "west");
+        assertThrows(NatsStartException.class, topology::start);
+    }
+
+    @Test
+    @DisplayName("Invalid cluster size [FAIL]")
+    void natsCluster_withoutNodes_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new NatsCluster(0));
+    }
+}
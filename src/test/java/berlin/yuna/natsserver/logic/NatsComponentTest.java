@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import java.net.ConnectException;
 import java.net.Socket;
 import java.nio.file.Files;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static berlin.yuna.natsserver.config.NatsConfig.*;
@@ -166,6 +167,86 @@ class NatsComponentTest {
         nats2.close();
     }
 
+    @Test
+    @DisplayName("Reuse running server with same fingerprint")
+    void natsServer_withReuse_shouldAttachToRunningServer() throws Exception {
+        final Nats nats1 = new Nats(natsBuilder().port(4238).reuse(true));
+        final Nats nats2 = new Nats(natsBuilder().port(4238).reuse(true));
+        assertThat(nats2.pid()).isEqualTo(nats1.pid());
+        assertThat(nats2.process()).isNull();
+        assertThat(nats2.fingerprint()).isEqualTo(nats1.fingerprint());
+        assertThat(Files.readString(nats1.fingerprintFile())).isEqualTo(nats1.fingerprint());
+        assertThat(nats1.getValue(LOG)).isEqualTo(nats1.pidFile() + ".log");
+
+        nats1.close();
+        new Socket("localhost", 4238).close();
+        assertThat(nats2.pid()).isGreaterThan(-1);
+
+        nats2.close();
+        assertThrows(ConnectException.class, () -> new Socket("localhost", 4238).close());
+        assertThat(nats2.pidFile()).doesNotExist();
+        assertThat(nats2.fingerprintFile()).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Reuse running server with auto assigned monitoring port")
+    void natsServer_withReuseAndMonitor_shouldRestoreMonitoringPort() throws Exception {
+        final Nats nats1 = new Nats(natsBuilder().port(4239).reuse(true).monitor(true));
+        final Nats nats2 = new Nats(natsBuilder().port(4239).reuse(true).monitor(true));
+        try {
+            assertThat(nats2.pid()).isEqualTo(nats1.pid());
+            assertThat(nats2.process()).isNull();
+            assertThat(nats1.getValue(HTTP_PORT)).isNotNull();
+            assertThat(nats2.getValue(HTTP_PORT)).isEqualTo(nats1.getValue(HTTP_PORT));
+            assertThat(nats2.fingerprint()).isEqualTo(nats1.fingerprint());
+            assertThat(nats2.monitor()).isNotNull();
+            assertThat(nats2.monitor().varz().getLong("port")).isEqualTo(4239);
+        } finally {
+            nats1.close();
+            nats2.close();
+        }
+        assertThat(nats2.autoPortsFile()).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Reconfigure reloads or restarts")
+    void natsServer_reconfigure_shouldReloadOrRestart() throws Exception {
+        try (final Nats nats = new Nats(testConfig().config(USER, "alice").config(PASS, "secret").reloadable(true))) {
+            final int pid = nats.pid();
+            assertThat(Files.readString(nats.runtimeConfFile())).contains("user: \"alice\"");
+
+            nats.reconfigure(Map.of(DEBUG, true, PASS, "changed"));
+            assertThat(nats.pid()).isEqualTo(pid);
+            assertThat(Files.readString(nats.runtimeConfFile())).contains("debug: true", "password: \"changed\"");
+
+            final int oldPort = nats.port();
+            final int port = oldPort + 1;
+            nats.reconfigure(Map.of(PORT, port));
+            assertThat(nats.port()).isEqualTo(port);
+            assertThat(nats.pid()).isNotEqualTo(pid);
+            assertThat(NatsUtils.isPortAvailable(oldPort)).isTrue();
+            new Socket("localhost", port).close();
+        }
+    }
+
+    @Test
+    @DisplayName("Reconfigure switches to the runtime config on first use")
+    void natsServer_reconfigureWithoutRuntimeConf_shouldRestartOnce() {
+        try (final Nats nats = new Nats(testConfig().config(USER, "alice").config(PASS, "secret"))) {
+            final int pid = nats.pid();
+            assertThat(nats.runtimeConfFile()).doesNotExist();
+            assertThat(nats.prepareArgs()).noneMatch(arg -> arg.startsWith(CONFIG.key()));
+
+            nats.reconfigure(Map.of(DEBUG, true));
+            final int restartedPid = nats.pid();
+            assertThat(restartedPid).isNotEqualTo(pid);
+            assertThat(nats.runtimeConfFile()).exists();
+
+            nats.reconfigure(Map.of(PASS, "changed"));
+            assertThat(nats.pid()).isEqualTo(restartedPid);
+        }
+    }
+
     @Test
     @DisplayName("Configure with NULL value should be ignored")
     void natsServer_withNullableConfigValue_shouldNotRunIntroExceptionOrInterrupt() {
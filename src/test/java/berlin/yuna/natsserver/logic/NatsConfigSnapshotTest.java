@@ -0,0 +1,78 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsConfig;
+import berlin.yuna.natsserver.model.MapValue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_ARGS;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_DOWNLOAD_URL;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_LOG_NAME;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_SYSTEM;
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_VERSION;
+import static berlin.yuna.natsserver.config.NatsConfig.PORT;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.model.MapValue.mapValueOf;
+import static berlin.yuna.natsserver.model.ValueSource.DEFAULT;
+import static berlin.yuna.natsserver.model.ValueSource.DSL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+@DisplayName("Nats config snapshot test")
+class NatsConfigSnapshotTest {
+
+    @Test
+    @DisplayName("Resolve nested placeholders")
+    void snapshot_shouldResolveNestedPlaceholders() {
+        final Map<NatsConfig, MapValue> config = new EnumMap<>(NatsConfig.class);
+        config.put(NATS_VERSION, mapValueOf(DEFAULT, "v1"));
+        config.put(NATS_SYSTEM, mapValueOf(DEFAULT, "linux-%NATS_VERSION%"));
+        config.put(NATS_DOWNLOAD_URL, mapValueOf(DEFAULT, "dl/%NATS_VERSION%/%NATS_SYSTEM%.zip 100%"));
+
+        final NatsConfigSnapshot snapshot = NatsConfigSnapshot.of(config, 7);
+
+        assertThat(snapshot.version()).isEqualTo(7);
+        assertThat(snapshot.get(NATS_DOWNLOAD_URL)).isEqualTo("dl/v1/linux-v1.zip 100%");
+        assertThat(snapshot.get(NATS_DOWNLOAD_URL)).isEqualTo(NatsUtils.resolveEnvs(config.get(NATS_DOWNLOAD_URL).value(), config));
+        assertThat(snapshot.resolve("%NATS_SYSTEM%.exe")).isEqualTo("linux-v1.exe");
+        assertThat(snapshot.contains(PORT)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Invalid placeholders fail on lookup only")
+    void snapshot_withInvalidPlaceholder_shouldFailOnLookup() {
+        final Map<NatsConfig, MapValue> config = new EnumMap<>(NatsConfig.class);
+        config.put(NATS_VERSION, mapValueOf(DEFAULT, "v1"));
+        config.put(NATS_LOG_NAME, mapValueOf(DEFAULT, "%UNKNOWN%"));
+        config.put(NATS_ARGS, mapValueOf(DEFAULT, "%NATS_SYSTEM%"));
+        config.put(NATS_SYSTEM, mapValueOf(DEFAULT, "%NATS_ARGS%"));
+
+        final NatsConfigSnapshot snapshot = NatsConfigSnapshot.of(config, 0);
+
+        assertThat(snapshot.get(NATS_VERSION)).isEqualTo("v1");
+        assertThrows(IllegalArgumentException.class, () -> snapshot.get(NATS_LOG_NAME));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.get(NATS_SYSTEM));
+        assertThrows(IllegalArgumentException.class, () -> NatsTemplate.compile("%UNKNOWN%"));
+    }
+
+    @Test
+    @DisplayName("Snapshot is rebuilt on changes only")
+    void nats_shouldInvalidateSnapshotOnChangeOnly() {
+        final Nats nats = new Nats(natsBuilder().autostart(false).port(4500));
+        final NatsConfigSnapshot snapshot = nats.snapshot();
+
+        assertThat(nats.snapshot()).isSameAs(snapshot);
+        nats.addConfig(DSL, PORT, "4500");
+        nats.setDefaultConfig();
+        assertThat(nats.snapshot()).isSameAs(snapshot);
+
+        nats.addConfig(DSL, PORT, "4501");
+        assertThat(nats.snapshot()).isNotSameAs(snapshot);
+        assertThat(nats.port()).isEqualTo(4501);
+    }
+}
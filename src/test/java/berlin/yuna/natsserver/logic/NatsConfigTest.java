@@ -3,6 +3,7 @@ package berlin.yuna.natsserver.logic;
 import berlin.yuna.natsserver.config.NatsConfig;
 import berlin.yuna.natsserver.config.NatsOptions;
 import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.config.NatsPreset;
 import io.nats.commons.NatsInterface;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +18,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -127,6 +129,7 @@ class NatsConfigTest {
     void propertyDefaultFileConfig() throws Exception {
         final Path defaultFile = Paths.get(Paths.get(customPropertiesFile).getParent().toString(), "nats.properties");
         Files.deleteIfExists(defaultFile);
+        System.setProperty(NATS_PROPERTY_IGNORE.name(), ".git,node_modules");
 
         Files.write(defaultFile, "NET=\"default nats file\"".getBytes());
         assertThat(new Nats(noAutostart()).getValue(NET)).isEqualTo("default nats file");
@@ -149,6 +152,72 @@ class NatsConfigTest {
         assertThat(command).contains(CUSTOM_NET, CUSTOM_PORT, CUSTOM_LOG_NAME, getSystem(), "--customArg1=123 --customArg2=456");
     }
 
+    @Test
+    @DisplayName("Prepare args reuses layered config")
+    void prepareArgs_shouldBeCachedPerConfigVersion() {
+        final Nats nats = new Nats(noAutostartBuilder().port(parseInt(CUSTOM_PORT)).build());
+        final List<String> args = nats.prepareArgs();
+        final long version = nats.configVersion.get();
+
+        assertThat(args).contains("--port=" + CUSTOM_PORT).anyMatch(arg -> arg.startsWith("--pid=")).noneMatch(arg -> arg.startsWith(CONFIG.key()));
+        assertThat(nats.runtimeConfFile()).doesNotExist();
+        assertThat(nats.prepareArgs()).isEqualTo(args);
+        assertThat(nats.configVersion.get()).isEqualTo(version);
+
+        nats.addConfig(NET, CUSTOM_NET);
+        assertThat(nats.configVersion.get()).isGreaterThan(version);
+        assertThat(nats.prepareArgs()).contains("--net=" + CUSTOM_NET);
+    }
+
+    @Test
+    @DisplayName("Shutdown hook is only registered if enabled")
+    void shutdownHook_shouldRespectConfig() {
+        assertThat(new Nats(natsBuilder().autostart(false).shutdownHook(false)).shutdownHook).isNull();
+
+        final Thread hook = new Nats(natsBuilder().autostart(false)).shutdownHook;
+        assertThat(hook).isNotNull();
+        assertThat(Runtime.getRuntime().removeShutdownHook(hook)).isTrue();
+        assertThat(Runtime.getRuntime().removeShutdownHook(hook)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Fingerprint has no side effects")
+    void fingerprint_shouldNotApplyOverlays() {
+        final Nats nats = new Nats(noAutostartBuilder().port(parseInt(CUSTOM_PORT)).reuse(true).build());
+        final String fingerprint = nats.fingerprint();
+
+        assertThat(nats.getValue(LOG, () -> null)).isNull();
+        assertThat(nats.prepareArgs()).contains(LOG.key() + "=" + nats.pidFile() + ".log");
+        assertThat(nats.fingerprint()).isEqualTo(fingerprint);
+    }
+
+    @Test
+    @DisplayName("Preset fills tuning defaults of the runtime config")
+    void preset_shouldRenderTuningOptions() {
+        final Nats nats = new Nats(noAutostartBuilder().preset(NatsPreset.SMALL_FOOTPRINT).config(MAX_PAYLOAD, "4096").build());
+        final String conf = nats.runtimeConf().render();
+
+        assertThat(nats.getValue(MAX_PAYLOAD)).isEqualTo("4096");
+        assertThat(nats.getValue(MAX_CONNECTIONS)).isEqualTo("256");
+        assertThat(conf).contains("max_payload: 4096", "max_pending: 4194304", "max_connections: 256").doesNotContain("jetstream");
+        assertThat(nats.prepareArgs()).noneMatch(arg -> arg.startsWith("null")).noneMatch(arg -> arg.contains("max_payload")).contains(CONFIG.key() + "=" + nats.runtimeConfFile());
+
+        nats.addConfig(JETSTREAM, true);
+        assertThat(nats.runtimeConf().render()).contains("jetstream {", "max_memory_store: 67108864");
+        assertThat(JETSTREAM_MAX_MEMORY_STORE.isReloadable()).isFalse();
+        assertThat(MAX_PAYLOAD.isReloadable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Preset from env")
+    void preset_fromEnv() {
+        System.setProperty(NATS_PRESET.name(), "low-latency");
+        final Nats nats = new Nats(noAutostart());
+        assertThat(nats.getValue(WRITE_DEADLINE)).isEqualTo("500ms");
+        assertThat(nats.runtimeConf().render()).contains("write_deadline: \"500ms\"", "ping_max: 2");
+        assertThat(NatsPreset.presetOf("unknown")).isNull();
+    }
+
     @Test
     @DisplayName("download without zip")
     void downloadNatsWithoutZip() throws Exception {
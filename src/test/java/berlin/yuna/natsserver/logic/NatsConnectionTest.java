@@ -0,0 +1,54 @@
+package berlin.yuna.natsserver.logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UnitTest")
+@DisplayName("Nats connection test")
+class NatsConnectionTest {
+
+    @Test
+    @DisplayName("Parse MSG frames split across reads")
+    void parseSplitFrames() throws IOException {
+        try (final SocketChannel channel = SocketChannel.open(); final NatsConnection connection = new NatsConnection(channel, System.nanoTime(), NatsConnection.BUFFER_SIZE)) {
+            final byte[] frames = "INFO {}\r\nMSG a 1 3\r\nabc\r\nPONG\r\nMSG a.b 1 _INBOX.x 10\r\n0123456789\r\nMSG a 1 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+            for (byte b : frames) {
+                connection.parse(ByteBuffer.wrap(new byte[]{b}));
+            }
+            assertThat(connection.messages).isEqualTo(3);
+            assertThat(connection.bytes).isEqualTo(13);
+            assertThat(connection.pongs).isEqualTo(1);
+            assertThatThrownBy(() -> connection.parse(ByteBuffer.wrap("-ERR 'Authorization Violation'\r\n".getBytes(StandardCharsets.US_ASCII))))
+                    .isInstanceOf(IOException.class).hasMessage("-ERR 'Authorization Violation'");
+        }
+    }
+
+    @Test
+    @DisplayName("Message listener receives the first payload bytes")
+    void messageListener() throws IOException {
+        final List<String> heads = new ArrayList<>();
+        try (final SocketChannel channel = SocketChannel.open(); final NatsConnection connection = new NatsConnection(channel, System.nanoTime(), NatsConnection.BUFFER_SIZE)) {
+            connection.onMessage(4, (head, length, size) -> heads.add(new String(head, 0, length, StandardCharsets.US_ASCII) + "/" + size));
+            connection.parse(ByteBuffer.wrap("MSG a 1 2\r\nab\r\nMSG a 1 10\r\n01234".getBytes(StandardCharsets.US_ASCII)));
+            connection.parse(ByteBuffer.wrap("56789\r\nMSG a 1 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII)));
+        }
+        assertThat(heads).containsExactly("ab/2", "0123/10", "/0");
+    }
+
+    @Test
+    @DisplayName("PUB frame with header, payload and CRLF")
+    void frame() {
+        assertThat(new String(NatsConnection.frame("a.b", 3), StandardCharsets.US_ASCII)).isEqualTo("PUB a.b 3\r\nxxx\r\n");
+    }
+}
@@ -0,0 +1,67 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsPhase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_LOG_NAME;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats lifecycle event test")
+class NatsLifecycleEventTest {
+
+    private static final String EVENT = "berlin.yuna.natsserver.Lifecycle";
+
+    @Test
+    @DisplayName("Lifecycle phases are recorded")
+    void recordPhases(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("lifecycle.jfr");
+        final int port;
+        final String name;
+        try (final Recording recording = new Recording()) {
+            recording.enable(EVENT);
+            recording.start();
+            try (final Nats nats = new Nats(natsBuilder().port(-1))) {
+                port = nats.port();
+                name = nats.getValue(NATS_LOG_NAME);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> EVENT.equals(event.getEventType().getName()))
+                .collect(Collectors.toList());
+        assertThat(events).extracting(event -> event.getString("phase")).contains("PROPERTY_FILES", "START", "PORT_ALLOCATION", "SPAWN", "READY", "SHUTDOWN");
+        assertThat(events).filteredOn(event -> "READY".equals(event.getString("phase"))).singleElement().satisfies(event -> {
+            assertThat(event.getString("name")).isEqualTo(name);
+            assertThat(event.getInt("port")).isEqualTo(port);
+            assertThat(event.getString("version")).isNotBlank();
+            assertThat(event.getDuration()).isPositive();
+        });
+    }
+
+    @Test
+    @DisplayName("Events are not committed without recording")
+    void withoutRecording() {
+        final NatsLifecycleEvent event = NatsLifecycleEvent.beginPhase(NatsPhase.START);
+        event.endPhase(() -> {
+            throw new IllegalStateException("labels must not be resolved");
+        }, () -> {
+            throw new IllegalStateException("labels must not be resolved");
+        }, () -> "unused");
+        assertThat(event.shouldCommit()).isFalse();
+    }
+}
@@ -0,0 +1,64 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsPhase;
+import io.nats.commons.NatsInterface;
+import io.nats.commons.StartupReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats lifecycle listener test")
+class NatsLifecycleListenerTest {
+
+    @Test
+    @DisplayName("Listeners receive phase timings and start produces a report")
+    void startupReport() {
+        final List<String> transitions = new CopyOnWriteArrayList<>();
+        final Map<NatsPhase, Long> durations = new ConcurrentHashMap<>();
+        final NatsLifecycleListener listener = new NatsLifecycleListener() {
+            @Override
+            public void onPhaseStart(final Nats nats, final NatsPhase phase) {
+                transitions.add("+" + phase);
+            }
+
+            @Override
+            public void onPhaseEnd(final Nats nats, final NatsPhase phase, final long durationNanos) {
+                transitions.add("-" + phase);
+                durations.merge(phase, durationNanos, Long::sum);
+            }
+        };
+
+        final StartupReport report;
+        try (final Nats nats = new Nats(natsBuilder().port(-1).listener(listener).listener((n, phase, nanos) -> {
+            throw new IllegalStateException("listener failures are ignored");
+        }))) {
+            report = nats.startupReport();
+            assertThat(report).isNotNull().isSameAs(((NatsInterface) nats).startupReport());
+        }
+
+        assertThat(transitions).containsSubsequence("+PROPERTY_FILES", "-PROPERTY_FILES", "+START", "+PORT_ALLOCATION", "-PORT_ALLOCATION", "+SPAWN", "-SPAWN", "+READY", "-READY", "-START", "+SHUTDOWN", "-SHUTDOWN");
+        assertThat(durations.values()).allMatch(nanos -> nanos >= 0);
+        assertThat(report.readyNanos()).isEqualTo(durations.get(NatsPhase.READY));
+        assertThat(report.spawnNanos()).isEqualTo(durations.get(NatsPhase.SPAWN));
+        assertThat(report.totalNanos()).isEqualTo(durations.get(NatsPhase.START))
+                .isGreaterThanOrEqualTo(report.portAllocationNanos() + report.spawnNanos() + report.readyNanos());
+        assertThat(report.totalMs()).isEqualTo(report.totalNanos() / 1_000_000);
+    }
+
+    @Test
+    @DisplayName("No report before start")
+    void noReportBeforeStart() {
+        final Nats nats = new Nats(natsBuilder().autostart(false));
+        assertThat(nats.startupReport()).isNull();
+        assertThat(new StartupReport(1_000_000, 0, 0, 0, 0, 2_500_000)).hasToString("StartupReport{downloadMs=1, extractMs=0, portAllocationMs=0, spawnMs=0, readyMs=0, totalMs=2}");
+    }
+}
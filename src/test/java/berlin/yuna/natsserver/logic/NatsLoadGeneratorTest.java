@@ -0,0 +1,54 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsLoadResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UnitTest")
+@DisplayName("Nats load generator test")
+class NatsLoadGeneratorTest {
+
+    @Test
+    @DisplayName("Fan out from multiple publishers to multiple subscribers")
+    void fanOut() throws IOException {
+        try (final Nats nats = new Nats(natsBuilder().port(-1))) {
+            final NatsLoadResult result = new NatsLoadGenerator().publishers(2).subscribers(3).messages(5000).payloadSize(64).batchSize(50).timeoutMs(20000).run(nats);
+
+            assertThat(result.complete()).isTrue();
+            assertThat(result.published()).isEqualTo(10000);
+            assertThat(result.received()).isEqualTo(30000);
+            assertThat(result.publishMsgsPerSec()).isPositive();
+            assertThat(result.publishMbPerSec()).isPositive();
+            assertThat(result.receiveMsgsPerSec()).isPositive();
+            assertThat(result.receiveMbPerSec()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Large payloads and publish only runs")
+    void largePayloads() throws IOException {
+        try (final Nats nats = new Nats(natsBuilder().port(-1))) {
+            assertThat(new NatsLoadGenerator().subscribers(1).messages(200).payloadSize(200_000).batchSize(0).timeoutMs(20000).run(nats.url()).complete()).isTrue();
+            final NatsLoadResult publishOnly = new NatsLoadGenerator().subscribers(0).messages(1000).timeoutMs(20000).run(nats);
+            assertThat(publishOnly.complete()).isTrue();
+            assertThat(publishOnly.received()).isZero();
+            assertThat(publishOnly.receiveMsgsPerSec()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Server errors and invalid urls fail the run")
+    void errors() {
+        try (final Nats nats = new Nats(natsBuilder().port(-1))) {
+            assertThatThrownBy(() -> new NatsLoadGenerator().subject("invalid subject").timeoutMs(5000).run(nats)).isInstanceOf(IOException.class).hasMessageContaining("-ERR");
+        }
+        assertThatThrownBy(() -> new NatsLoadGenerator().run("nats://localhost")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,92 @@
+package berlin.yuna.natsserver.logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats log buffer test")
+class NatsLogBufferTest {
+
+    @Test
+    @DisplayName("Oldest lines are overwritten when full")
+    void tail() {
+        final NatsLogBuffer buffer = new NatsLogBuffer(5);
+        for (int i = 0; i < 10; i++) {
+            buffer.append("line " + i);
+        }
+        assertThat(buffer.capacity()).isEqualTo(8);
+        assertThat(buffer.sequence()).isEqualTo(10);
+        assertThat(buffer.tail(3)).containsExactly("line 7", "line 8", "line 9");
+        assertThat(buffer.tail(100)).hasSize(8).startsWith("line 2");
+        assertThat(buffer.awaitLog(Pattern.compile("line 1$"), 10)).isNull();
+        assertThat(buffer.awaitLog(Pattern.compile("line \\d"), buffer.sequence() - 1, 10)).isEqualTo("line 9");
+    }
+
+    @Test
+    @DisplayName("awaitLog waits for new lines")
+    void awaitLog() {
+        final NatsLogBuffer buffer = new NatsLogBuffer(16);
+        final long start = buffer.sequence();
+        final CompletableFuture<String> line = CompletableFuture.supplyAsync(() -> buffer.awaitLog(Pattern.compile("ready"), start, 5000));
+        buffer.append("[1] 2024/01/01 00:00:00.000000 [INF] Starting nats-server");
+        buffer.append("[1] 2024/01/01 00:00:00.000000 [INF] Server is ready");
+        assertThat(line.join()).endsWith("Server is ready");
+    }
+
+    @Test
+    @DisplayName("Forwarding maps server log tags and is rate limited")
+    void forwarding() {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+        final Logger logger = Logger.getLogger(NatsLogBufferTest.class.getName() + ".forwarding");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(final LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        final NatsLogBuffer buffer = new NatsLogBuffer(64).forwardTo(logger, 3);
+        buffer.append("[1] 2024/01/01 00:00:00.000000 [ERR] failure");
+        buffer.append("[1] 2024/01/01 00:00:00.000000 [WRN] warning");
+        buffer.append("plain line");
+        buffer.append("[1] 2024/01/01 00:00:00.000000 [INF] dropped 1");
+        buffer.append("[1] 2024/01/01 00:00:00.000000 [INF] dropped 2");
+        buffer.close();
+
+        assertThat(records).extracting(LogRecord::getLevel).containsExactly(Level.SEVERE, Level.WARNING, Level.INFO, Level.WARNING);
+        assertThat(records.get(3).getMessage()).contains("Skipped [2]");
+        assertThat(buffer.dropped()).isEqualTo(2);
+        assertThat(buffer.tail(5)).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Server output is captured")
+    void serverOutput() {
+        try (final Nats nats = new Nats(natsBuilder().port(-1).logForwardRate(0))) {
+            assertThat(nats.awaitLog("Server is ready", 5000)).isNotNull();
+            assertThat(nats.tail(100)).anyMatch(line -> line.contains("Listening for client connections"));
+            assertThat(nats.logs().dropped()).isZero();
+        }
+    }
+}
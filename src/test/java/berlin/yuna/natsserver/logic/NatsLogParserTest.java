@@ -0,0 +1,71 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsLogEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static berlin.yuna.natsserver.config.NatsConfig.PASS;
+import static berlin.yuna.natsserver.config.NatsConfig.USER;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsUtils.waitFor;
+import static berlin.yuna.natsserver.model.NatsLogEvent.Type.AUTH_FAILURE;
+import static berlin.yuna.natsserver.model.NatsLogEvent.Type.ERROR;
+import static berlin.yuna.natsserver.model.NatsLogEvent.Type.ROUTE_CONNECTED;
+import static berlin.yuna.natsserver.model.NatsLogEvent.Type.ROUTE_DISCONNECTED;
+import static berlin.yuna.natsserver.model.NatsLogEvent.Type.SLOW_CONSUMER;
+import static berlin.yuna.natsserver.model.NatsLogEvent.Type.SLOW_READLOOP;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats log parser test")
+class NatsLogParserTest {
+
+    @Test
+    @DisplayName("Parse typed events from log lines")
+    void parse() {
+        final NatsLogParser parser = new NatsLogParser();
+        final List<NatsLogEvent> slowConsumers = new CopyOnWriteArrayList<>();
+        parser.listener(SLOW_CONSUMER, slowConsumers::add);
+
+        final NatsLogEvent event = parser.parse("[12] 2024/01/01 12:00:00.123456 [INF] 127.0.0.1:50000 - cid:5 - \"v1.2:java\" - Slow Consumer Detected: WriteDeadline of 10s exceeded");
+        assertThat(event.type()).isEqualTo(SLOW_CONSUMER);
+        assertThat(event.level()).isEqualTo("INF");
+        assertThat(event.source()).isEqualTo("127.0.0.1:50000 - cid:5 - \"v1.2:java\"");
+        assertThat(event.message()).startsWith("Slow Consumer Detected");
+        assertThat(slowConsumers).containsExactly(event);
+
+        assertThat(parser.parse("[12] 2024/01/01 12:00:00.123456 [INF] 127.0.0.1:6222 - rid:1 - Route connection created").type()).isEqualTo(ROUTE_CONNECTED);
+        assertThat(parser.parse("[12] 2024/01/01 12:00:00.123456 [INF] 127.0.0.1:6222 - rid:1 - Router connection closed: Client Closed").type()).isEqualTo(ROUTE_DISCONNECTED);
+        assertThat(parser.parse("[12] 2024/01/01 12:00:00.123456 [WRN] 127.0.0.1:50001 - cid:6 - Readloop processing time: 2.1s").type()).isEqualTo(SLOW_READLOOP);
+        assertThat(parser.parse("[12] 2024/01/01 12:00:00.123456 [ERR] 127.0.0.1:50001 - cid:6 - authentication error").type()).isEqualTo(AUTH_FAILURE);
+        assertThat(parser.parse("[12] 2024/01/01 12:00:00.123456 [ERR] Error listening on port: 0.0.0.0:4222").source()).isNull();
+        assertThat(parser.parse("[12] 2024/01/01 12:00:00.123456 [INF] Server is ready")).isNull();
+
+        assertThat(parser.count(SLOW_CONSUMER)).isEqualTo(1);
+        assertThat(parser.count(ERROR)).isEqualTo(1);
+        assertThat(parser.counts()).containsEntry(ROUTE_CONNECTED, 1L).containsEntry(ROUTE_DISCONNECTED, 1L);
+        assertThat(parser.reset().counts().values()).containsOnly(0L);
+    }
+
+    @Test
+    @DisplayName("Count auth failures of a running server")
+    void authFailure() throws IOException {
+        try (final Nats nats = new Nats(natsBuilder().port(-1).config(USER, "nats").config(PASS, "secret"))) {
+            try (final Socket socket = new Socket("localhost", nats.port())) {
+                final OutputStream out = socket.getOutputStream();
+                out.write("CONNECT {\"verbose\":false,\"user\":\"nats\",\"pass\":\"wrong\"}\r\nPING\r\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                assertThat(waitFor(() -> nats.logEvents().count(AUTH_FAILURE) > 0, 5000, 10)).isTrue();
+            }
+            assertThat(nats.logEvents().count(SLOW_CONSUMER)).isZero();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package berlin.yuna.natsserver.logic;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsMetricsRecorder.Column.IN_MSGS;
+import static berlin.yuna.natsserver.logic.NatsMetricsRecorder.Column.JS_MEMORY;
+import static berlin.yuna.natsserver.logic.NatsMetricsRecorder.Column.MEM;
+import static berlin.yuna.natsserver.logic.NatsUtils.waitFor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UnitTest")
+@DisplayName("Nats metrics recorder test")
+class NatsMetricsRecorderTest {
+
+    private final AtomicLong inMsgs = new AtomicLong(0);
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/varz", exchange -> {
+            final byte[] bytes = ("{\"in_msgs\":" + inMsgs.addAndGet(100) + ",\"mem\":2048,\"connections\":1}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Samples are downsampled when full")
+    void downsample() throws InterruptedException {
+        try (final NatsMetricsRecorder recorder = new NatsMetricsRecorder(monitor(), 100, 4)) {
+            for (int i = 0; i < 5; i++) {
+                assertThat(recorder.sample()).isTrue();
+                Thread.sleep(5);
+            }
+            assertThat(recorder.size()).isEqualTo(3);
+            assertThat(recorder.effectiveIntervalMs()).isEqualTo(200);
+            assertThat(recorder.series(IN_MSGS)).containsExactly(200, 400, 500);
+            assertThat(recorder.series(MEM)).containsOnly(2048);
+            assertThat(recorder.series(JS_MEMORY)).containsOnly(-1);
+            assertThat(recorder.timestamps()).isSorted();
+            assertThat(recorder.rate(IN_MSGS)[0]).isZero();
+            assertThat(recorder.rate(IN_MSGS)[2]).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Export CSV and JSON on close")
+    void exportOnClose(@TempDir final Path dir) throws IOException {
+        final NatsMetricsRecorder recorder = new NatsMetricsRecorder(monitor(), 10, 100).exportOnClose(dir, "metrics").start();
+        assertThat(waitFor(() -> recorder.size() >= 3, 5000, 10)).isTrue();
+        recorder.close();
+
+        final String csv = Files.readString(dir.resolve("metrics.csv"));
+        assertThat(csv.lines().findFirst()).hasValueSatisfying(header -> assertThat(header).startsWith("timestamp,in_msgs,").contains("in_msgs_per_sec").doesNotContain("mem_per_sec"));
+        assertThat(csv.lines().count()).isEqualTo(recorder.size() + 1L);
+        assertThat(Files.readString(dir.resolve("metrics.json"))).startsWith("{\"interval_ms\":10,\"timestamp\":[").contains("\"in_msgs_per_sec\":[0.00,");
+    }
+
+    @Test
+    @DisplayName("Recorder requires monitoring")
+    void requiresMonitoring() {
+        final Nats nats = new Nats(natsBuilder().autostart(false));
+        assertThatThrownBy(() -> nats.recorder(100, 10)).isInstanceOf(IllegalStateException.class);
+        assertThat(new NatsMetricsRecorder(new NatsMonitor("http://127.0.0.1:1", 200), 100, 10).sample()).isFalse();
+    }
+
+    private NatsMonitor monitor() {
+        return new NatsMonitor("http://127.0.0.1:" + server.getAddress().getPort(), 2000);
+    }
+}
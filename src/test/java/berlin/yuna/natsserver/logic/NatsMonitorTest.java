@@ -0,0 +1,149 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsConnz;
+import berlin.yuna.natsserver.model.NatsJsz;
+import berlin.yuna.natsserver.model.NatsRoutez;
+import berlin.yuna.natsserver.model.NatsVarz;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UnitTest")
+@DisplayName("Nats monitor test")
+class NatsMonitorTest {
+
+    private static final String VARZ = "{\"server_id\":\"NABC\",\"server_name\":\"n1\",\"version\":\"2.14.2\",\"connections\":2,"
+            + "\"in_msgs\":100,\"out_msgs\":200,\"in_bytes\":1000,\"out_bytes\":2000,\"slow_consumers\":1,\"mem\":12345678,\"cpu\":1.5,"
+            + "\"http_req_stats\":{\"/varz\":3},\"connect_urls\":[\"a\",\"b\"],\"tags\":null,\"uptime\":\"1m2s\"}";
+    private static final String CONNZ = "{\"num_connections\":2,\"total\":2,\"connections\":["
+            + "{\"cid\":5,\"name\":\"pub \\\"one\\\"\",\"in_msgs\":10,\"subscriptions_list\":[\"a\"]},"
+            + "{\"cid\":6,\"name\":\"sub\",\"pending_bytes\":42}]}";
+    private static final String JSZ = "{\"memory\":10,\"storage\":20,\"streams\":1,\"api\":{\"total\":7,\"errors\":1},\"meta_cluster\":{\"leader\":\"n1\",\"cluster_size\":3,\"replicas\":[{\"name\":\"n2\",\"current\":true},{\"name\":\"n3\",\"current\":false,\"offline\":true}]}}";
+    private static final String ROUTEZ = "{\"server_id\":\"NABC\",\"num_routes\":1,\"routes\":[{\"rid\":1,\"remote_id\":\"NDEF\",\"port\":6222}]}";
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        Map.of("/varz", VARZ, "/connz", CONNZ, "/jsz", JSZ, "/routez", ROUTEZ).forEach((path, body) -> server.createContext(path, exchange -> {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Parse varz")
+    void varz() {
+        final NatsVarz varz = monitor().varz();
+        assertThat(varz.serverId()).isEqualTo("NABC");
+        assertThat(varz.version()).isEqualTo("2.14.2");
+        assertThat(varz.connections()).isEqualTo(2);
+        assertThat(varz.inMsgs()).isEqualTo(100);
+        assertThat(varz.outBytes()).isEqualTo(2000);
+        assertThat(varz.slowConsumers()).isEqualTo(1);
+        assertThat(varz.mem()).isEqualTo(12345678);
+        assertThat(varz.cpu()).isEqualTo(1.5);
+        assertThat(varz.uptime()).isEqualTo("1m2s");
+        assertThat(varz.get("http_req_stats./varz")).isEqualTo("3");
+        assertThat(varz.get("tags")).isEqualTo("null");
+        assertThat(varz.values()).doesNotContainKey("connect_urls[]");
+    }
+
+    @Test
+    @DisplayName("Parse connz items")
+    void connz() {
+        final NatsConnz connz = monitor().connz();
+        assertThat(connz.numConnections()).isEqualTo(2);
+        assertThat(connz.connections()).hasSize(2);
+        assertThat(connz.connections().get(0).cid()).isEqualTo(5);
+        assertThat(connz.connections().get(0).name()).isEqualTo("pub \"one\"");
+        assertThat(connz.connections().get(0).values()).doesNotContainKey("subscriptions_list[]");
+        assertThat(connz.connections().get(1).pendingBytes()).isEqualTo(42);
+        assertThat(connz.connections().get(1).inMsgs()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Parse jsz and routez")
+    void jszAndRoutez() {
+        final NatsJsz jsz = monitor().jsz();
+        assertThat(jsz.memory()).isEqualTo(10);
+        assertThat(jsz.apiTotal()).isEqualTo(7);
+        assertThat(jsz.apiErrors()).isEqualTo(1);
+        assertThat(jsz.metaLeader()).isEqualTo("n1");
+        assertThat(jsz.metaClusterSize()).isEqualTo(3);
+        assertThat(jsz.metaReplicas()).extracting(NatsJsz.Replica::name).containsExactly("n2", "n3");
+        assertThat(jsz.metaReplicas().get(0).current()).isTrue();
+        assertThat(jsz.metaReplicas().get(1).offline()).isTrue();
+
+        final NatsRoutez routez = monitor().routez();
+        assertThat(routez.numRoutes()).isEqualTo(1);
+        assertThat(routez.routes()).hasSize(1);
+        assertThat(routez.routes().get(0).remoteId()).isEqualTo("NDEF");
+    }
+
+    @Test
+    @DisplayName("Unreachable endpoint returns null")
+    void unreachable() {
+        assertThat(monitor().subsz()).isNull();
+        assertThat(new NatsMonitor("http://127.0.0.1:1", 200).varz()).isNull();
+    }
+
+    @Test
+    @DisplayName("Json reader reports paths")
+    void jsonReader() throws IOException {
+        final Map<String, String> values = new LinkedHashMap<>();
+        final NatsJsonReader reader = new NatsJsonReader();
+        reader.read(new ByteArrayInputStream("{ \"a\" : { \"b\" : [1, {\"c\":true}] }, \"d\":\"\\u00e4ö\", \"e\":-1.5e3 }".getBytes(StandardCharsets.UTF_8)),
+                (path, value) -> values.put(path.toString(), value.toString()));
+        assertThat(values).containsExactly(
+                Map.entry("a.b[]", "1"),
+                Map.entry("a.b[].c", "true"),
+                Map.entry("d", "äö"),
+                Map.entry("e", "-1.5e3")
+        );
+        assertThatThrownBy(() -> reader.read(new ByteArrayInputStream("{\"a\" 1}".getBytes(StandardCharsets.UTF_8)), (path, value) -> {
+        })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("Monitor of a running server")
+    void runningServer() {
+        try (final Nats nats = new Nats(natsBuilder().port(-1).monitor(true))) {
+            final NatsMonitor monitor = nats.monitor();
+            assertThat(monitor).isNotNull();
+            assertThat(monitor.varz().serverId()).isNotBlank();
+            assertThat(monitor.connz().numConnections()).isZero();
+            assertThat(monitor.subsz()).isNotNull();
+        }
+        assertThat(new Nats(natsBuilder().autostart(false)).monitor()).isNull();
+    }
+
+    private NatsMonitor monitor() {
+        return new NatsMonitor("http://127.0.0.1:" + server.getAddress().getPort() + "/", 2000);
+    }
+}
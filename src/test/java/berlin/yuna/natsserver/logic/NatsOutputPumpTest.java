@@ -0,0 +1,68 @@
+package berlin.yuna.natsserver.logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.condition.OS.WINDOWS;
+
+@Tag("UnitTest")
+@DisplayName("Nats output pump test")
+class NatsOutputPumpTest {
+
+    @Test
+    @DisabledOnOs(WINDOWS)
+    @DisplayName("Lines of stdout and stderr incl. the unterminated last line")
+    void pumpLines() throws Exception {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final Process process = new ProcessBuilder("sh", "-c", "echo out1; echo err1 >&2; printf 'out2\\r\\nlast'").start();
+        new NatsOutputPump("test-pump").pump(process, line -> lines.add("out:" + line), line -> lines.add("err:" + line)).get(5, TimeUnit.SECONDS);
+        assertThat(lines).containsExactlyInAnyOrder("out:out1", "err:err1", "out:out2", "out:last");
+        assertThat(lines).containsSubsequence("out:out1", "out:out2", "out:last");
+    }
+
+    @Test
+    @DisabledOnOs(WINDOWS)
+    @DisplayName("Many processes share one pump thread")
+    void sharedThread() throws IOException {
+        final NatsOutputPump pump = new NatsOutputPump("test-pump-shared");
+        final List<Process> processes = new ArrayList<>();
+        final List<CompletableFuture<Void>> done = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                final Process process = new ProcessBuilder("sh", "-c", "while true; do echo tick; sleep 0.05; done").start();
+                processes.add(process);
+                done.add(pump.pump(process, line -> {
+                }, line -> {
+                }));
+            }
+            assertThat(pump.streams()).isEqualTo(40);
+            assertThat(Thread.getAllStackTraces().keySet()).filteredOn(thread -> thread.getName().equals("test-pump-shared")).hasSize(1);
+        } finally {
+            processes.forEach(Process::destroy);
+        }
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).join();
+        assertThat(pump.streams()).isZero();
+    }
+
+    @Test
+    @DisplayName("Server output is pumped without reader threads per server")
+    void serverOutput() {
+        try (final Nats nats = new Nats(natsBuilder().port(-1).logForwardRate(0))) {
+            assertThat(nats.awaitLog("Server is ready", 5000)).isNotNull();
+            assertThat(NatsOutputPump.shared().streams()).isGreaterThanOrEqualTo(2);
+            nats.signal("reopen");
+            assertThat(nats.process().isAlive()).isTrue();
+        }
+    }
+}
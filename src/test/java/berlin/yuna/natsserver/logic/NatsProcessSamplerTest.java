@@ -0,0 +1,59 @@
+package berlin.yuna.natsserver.logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static berlin.yuna.natsserver.logic.NatsProcessSampler.Metric.CPU_NANOS;
+import static berlin.yuna.natsserver.logic.NatsProcessSampler.Metric.OPEN_FDS;
+import static berlin.yuna.natsserver.logic.NatsProcessSampler.Metric.RSS_BYTES;
+import static berlin.yuna.natsserver.logic.NatsProcessSampler.Metric.THREADS;
+import static berlin.yuna.natsserver.logic.NatsUtils.waitFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats process sampler test")
+@EnabledOnOs(OS.LINUX)
+class NatsProcessSamplerTest {
+
+    @Test
+    @DisplayName("Ring buffer keeps the latest samples")
+    void ringBuffer() {
+        try (final NatsProcessSampler sampler = new NatsProcessSampler(() -> ProcessHandle.current().pid(), 1000, 3)) {
+            for (int i = 0; i < 5; i++) {
+                assertThat(sampler.sample()).isTrue();
+            }
+            assertThat(sampler.count()).isEqualTo(5);
+            assertThat(sampler.size()).isEqualTo(3);
+            assertThat(sampler.timestamps()).hasSize(3).isSorted();
+            assertThat(sampler.series(RSS_BYTES)).hasSize(3).allMatch(rss -> rss > 0);
+            assertThat(sampler.series(CPU_NANOS)).isSorted();
+            assertThat(sampler.last(THREADS)).isPositive();
+            assertThat(sampler.peak(OPEN_FDS)).isPositive();
+            assertThat(sampler.mean(RSS_BYTES)).isPositive().isLessThanOrEqualTo(sampler.peak(RSS_BYTES));
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown process is not sampled")
+    void unknownProcess() {
+        final NatsProcessSampler sampler = new NatsProcessSampler(() -> -1, 1000, 3);
+        assertThat(sampler.sample()).isFalse();
+        assertThat(sampler.size()).isZero();
+        assertThat(sampler.peak(RSS_BYTES)).isEqualTo(-1);
+        assertThat(sampler.mean(RSS_BYTES)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Samples the running server")
+    void samplesServer() {
+        try (final Nats nats = new Nats(natsBuilder().port(-1)); final NatsProcessSampler sampler = nats.sampler(10, 100)) {
+            assertThat(waitFor(() -> sampler.count() >= 3, 5000, 10)).isTrue();
+            assertThat(sampler.peak(RSS_BYTES)).isPositive();
+            assertThat(sampler.peak(THREADS)).isPositive();
+        }
+    }
+}
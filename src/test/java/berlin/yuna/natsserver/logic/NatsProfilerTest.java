@@ -0,0 +1,89 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.model.NatsProfileCapture;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static berlin.yuna.natsserver.config.NatsConfig.NATS_VERSION;
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UnitTest")
+@DisplayName("Nats profiler test")
+class NatsProfilerTest {
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        for (String profile : new String[]{"profile", "heap", "goroutine"}) {
+            server.createContext("/debug/pprof/" + profile, exchange -> {
+                final byte[] bytes = (profile + ":" + exchange.getRequestURI().getQuery()).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+        }
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Capture profiles labelled by test and version")
+    void capture(@TempDir final Path dir) throws IOException {
+        final AtomicBoolean workloadRan = new AtomicBoolean(false);
+        final NatsProfileCapture capture = profiler(dir).capture("my test", 1200, () -> workloadRan.set(true));
+
+        assertThat(workloadRan).isTrue();
+        assertThat(capture.windowMs()).isEqualTo(2000);
+        assertThat(capture.directory()).isEqualTo(dir.resolve("my_test").resolve("v2.14.2"));
+        assertThat(capture.profiles()).containsOnlyKeys("cpu", "heap", "goroutine");
+        assertThat(Files.readString(capture.profiles().get("cpu"))).isEqualTo("profile:seconds=2");
+        assertThat(Files.readString(capture.directory().resolve("labels.properties"))).contains("test=my test", "version=v2.14.2", "window_ms=2000");
+    }
+
+    @Test
+    @DisplayName("Workload failures are rethrown after capturing")
+    void workloadFailure(@TempDir final Path dir) {
+        assertThatThrownBy(() -> profiler(dir).capture("failing", 1, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(dir.resolve("failing").resolve("v2.14.2").resolve("heap.pb.gz")).exists();
+    }
+
+    @Test
+    @DisplayName("Profiler of a running server")
+    void runningServer(@TempDir final Path dir) {
+        assertThat(new Nats(natsBuilder().autostart(false)).profiler(dir)).isNull();
+        try (final Nats nats = new Nats(natsBuilder().port(-1).pprof(true))) {
+            final NatsProfileCapture capture = nats.profiler(dir).capture("runningServer", 1000);
+            assertThat(capture.version()).isEqualTo(nats.getValue(NATS_VERSION));
+            assertThat(capture.profiles()).containsKeys("cpu", "heap", "goroutine");
+            assertThat(capture.profiles().get("cpu")).isNotEmptyFile();
+        }
+    }
+
+    private NatsProfiler profiler(final Path dir) {
+        return new NatsProfiler("http://127.0.0.1:" + server.getAddress().getPort(), "v2.14.2", dir, 2000);
+    }
+}
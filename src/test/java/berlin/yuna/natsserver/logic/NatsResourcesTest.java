@@ -0,0 +1,97 @@
+package berlin.yuna.natsserver.logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+
+import static berlin.yuna.natsserver.config.NatsOptions.natsBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("UnitTest")
+@DisplayName("Nats resources test")
+@SuppressWarnings("resource")
+class NatsResourcesTest {
+
+    private static final Logger LOGGER = Logger.getLogger(NatsResourcesTest.class.getSimpleName());
+
+    @Test
+    @DisplayName("No limits without config")
+    void noLimits() {
+        final NatsResources resources = new Nats(natsBuilder().autostart(false)).resources();
+        assertThat(resources.isEmpty()).isTrue();
+        assertThat(resources.commandPrefix(LOGGER)).isEmpty();
+        assertThat(resources.applyCgroup("nats-test", 1, LOGGER)).isNull();
+    }
+
+    @Test
+    @DisplayName("Go runtime variables are set in the process environment")
+    void goRuntimeEnvironment() {
+        final Nats nats = new Nats(natsBuilder().autostart(false).goMaxProcs(2).goMemLimit("256MiB").goGc("200"));
+        final NatsResources resources = nats.resources();
+
+        assertThat(resources.isEmpty()).isFalse();
+        assertThat(resources.hasCgroupLimits()).isFalse();
+        assertThat(resources.environment()).containsEntry("GOMAXPROCS", "2").containsEntry("GOMEMLIMIT", "256MiB").containsEntry("GOGC", "200");
+        assertThat(resources.commandPrefix(LOGGER)).isEmpty();
+        assertThat(nats.prepareCommand()).startsWith(nats.binary().toString());
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    @DisplayName("Go runtime variables are passed to the server process")
+    void goRuntimeEnvironmentOfProcess() throws IOException {
+        try (final Nats nats = new Nats(natsBuilder().port(-1).goMaxProcs(2).goGc("200"))) {
+            final String environ = new String(Files.readAllBytes(Paths.get("/proc", String.valueOf(nats.pid()), "environ")), StandardCharsets.UTF_8);
+            assertThat(environ.split("\u0000")).contains("GOMAXPROCS=2", "GOGC=200");
+        }
+    }
+
+    @Test
+    @DisplayName("cgroup limits are written next to the enabled controllers")
+    void cgroupLimits(@TempDir final Path parent) throws IOException {
+        Files.writeString(parent.resolve("cgroup.controllers"), "cpuset cpu io memory pids\n");
+        Files.writeString(parent.resolve("cgroup.subtree_control"), "");
+        final NatsResources resources = new Nats(natsBuilder().autostart(false).cgroupMemoryMax("512M").cgroupCpuMax(1.5).cgroupParent(parent.toString())).resources();
+
+        final Path cgroup = resources.applyCgroup("nats-4222", 42, LOGGER);
+
+        assertThat(cgroup).isEqualTo(parent.resolve("nats-4222"));
+        assertThat(Files.readString(parent.resolve("cgroup.subtree_control"))).isEqualTo("+memory +cpu");
+        assertThat(Files.readString(cgroup.resolve("memory.max"))).isEqualTo("512M");
+        assertThat(Files.readString(cgroup.resolve("cpu.max"))).isEqualTo("150000 100000");
+        assertThat(Files.readString(cgroup.resolve("cgroup.procs"))).isEqualTo("42");
+    }
+
+    @Test
+    @DisplayName("cgroup limits are skipped without the required controller")
+    void cgroupLimitsWithoutController(@TempDir final Path parent) throws IOException {
+        Files.writeString(parent.resolve("cgroup.controllers"), "cpu pids\n");
+        Files.writeString(parent.resolve("cgroup.subtree_control"), "cpu\n");
+        final NatsResources resources = new Nats(natsBuilder().autostart(false).cgroupMemoryMax("512M").cgroupParent(parent.toString())).resources();
+
+        assertThat(resources.applyCgroup("nats-4222", 42, LOGGER)).isNull();
+        assertThat(Files.readString(parent.resolve("cgroup.subtree_control"))).isEqualTo("cpu\n");
+        assertThat(parent.resolve("nats-4222")).doesNotExist();
+        assertThat(resources.applyCgroup(parent.resolve("missing"), "nats-4222", 42, LOGGER)).isNull();
+    }
+
+    @Test
+    @DisplayName("cgroup cpu limit in cores")
+    void cpuMax() {
+        assertThat(NatsResources.toCpuMax("1.5")).isEqualTo("150000 100000");
+        assertThat(NatsResources.toCpuMax("50000 100000")).isEqualTo("50000 100000");
+        assertThat(NatsResources.toCpuMax("max")).isEqualTo("max");
+        assertThatThrownBy(() -> NatsResources.toCpuMax("0")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
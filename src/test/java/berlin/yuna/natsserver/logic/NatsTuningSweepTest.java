@@ -0,0 +1,89 @@
+package berlin.yuna.natsserver.logic;
+
+import berlin.yuna.natsserver.config.NatsOptionsBuilder;
+import berlin.yuna.natsserver.model.NatsSweepResult;
+import berlin.yuna.natsserver.model.NatsWorkloadResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static berlin.yuna.natsserver.logic.NatsTuningSweep.GOGC;
+import static berlin.yuna.natsserver.logic.NatsTuningSweep.GOMAXPROCS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats tuning sweep test")
+class NatsTuningSweepTest {
+
+    @Test
+    @DisplayName("Grid contains every combination")
+    void grid() {
+        final List<Map<String, String>> grid = new NatsTuningSweep().goGc("100", "off").goMaxProcs(1, 2, null).grid();
+        assertThat(grid).hasSize(6)
+                .contains(Map.of(GOGC, "off", GOMAXPROCS, "2"))
+                .contains(Map.of(GOGC, "100"));
+        assertThat(new NatsTuningSweep().grid()).containsExactly(Map.of());
+    }
+
+    @Test
+    @DisplayName("Ranking prefers successful, fast and lean runs")
+    void ranking() {
+        final NatsSweepResult failed = new NatsSweepResult(Map.of(GOGC, "10"), null, -1, "boom");
+        final NatsSweepResult slow = new NatsSweepResult(Map.of(GOGC, "50"), new NatsWorkloadResult(100, 100, 2_000_000_000L, 10, 20, 30), 1024, null);
+        final NatsSweepResult fast = new NatsSweepResult(Map.of(GOGC, "200"), new NatsWorkloadResult(100, 100, 1_000_000_000L, 10, 20, 30), 2048, null);
+        final NatsSweepResult lean = new NatsSweepResult(Map.of(GOGC, "300"), new NatsWorkloadResult(100, 100, 1_000_000_000L, 10, 20, 30), 1024, null);
+
+        final List<NatsSweepResult> results = new ArrayList<>(List.of(failed, slow, fast, lean));
+        results.sort(NatsTuningSweep.ranking());
+        assertThat(results).containsExactly(lean, fast, slow, failed);
+        assertThat(NatsTuningSweep.report(results)).contains("RANK", "MSGS/S", "300", "boom");
+    }
+
+    @Test
+    @DisplayName("Percentile of sorted latencies")
+    void percentile() {
+        final long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertThat(NatsWorkload.percentile(sorted, 0.5)).isEqualTo(50);
+        assertThat(NatsWorkload.percentile(sorted, 0.99)).isEqualTo(99);
+        assertThat(NatsWorkload.percentile(new long[0], 0.99)).isZero();
+    }
+
+    @Test
+    @DisplayName("Sweep runs the workload for every setting")
+    void run() {
+        final List<NatsSweepResult> results = new NatsTuningSweep()
+                .goGc("100", "off")
+                .workload(new NatsWorkload(2000, 64, 10000))
+                .warmups(0)
+                .run();
+
+        assertThat(results).hasSize(2).allMatch(NatsSweepResult::success);
+        assertThat(results.get(0).workload().msgsPerSec()).isGreaterThanOrEqualTo(results.get(1).workload().msgsPerSec());
+        assertThat(results.get(0).workload().p99Ns()).isPositive();
+        assertThat(NatsTuningSweep.report(results)).contains("off", "100");
+    }
+
+    @Test
+    @DisplayName("Sweep servers register no shutdown hook")
+    void run_shouldNotRegisterShutdownHooks() {
+        final List<Nats> started = new ArrayList<>();
+        final List<NatsSweepResult> results = new NatsTuningSweep() {
+            @Override
+            protected Nats start(final NatsOptionsBuilder builder) {
+                final Nats nats = super.start(builder);
+                started.add(nats);
+                return nats;
+            }
+        }.goMaxProcs(1, 2).workload(new NatsWorkload(500, 64, 10000)).warmups(0).run();
+
+        assertThat(results).hasSize(2).allMatch(NatsSweepResult::success);
+        assertThat(started).hasSize(2).allSatisfy(nats -> assertThat(nats.shutdownHook).isNull());
+    }
+}
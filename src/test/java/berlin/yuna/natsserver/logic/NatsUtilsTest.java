@@ -0,0 +1,106 @@
+package berlin.yuna.natsserver.logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static berlin.yuna.natsserver.logic.NatsUtils.TOMBSTONE_MARKER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats utils test")
+class NatsUtilsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Find property files bounded and cached")
+    void getPropertyFiles_shouldSkipIgnoredAndDeepDirectories() throws IOException {
+        final String userDir = System.getProperty("user.dir");
+        final Path root = tempDir.resolve("project");
+        final Path resources = Files.createDirectories(root.resolve("src").resolve("test").resolve("resources"));
+        Files.writeString(resources.resolve("nats.properties"), "NET=resources");
+        Files.writeString(Files.createDirectories(root.resolve("node_modules").resolve("lib")).resolve("nats.properties"), "NET=ignored");
+        Files.writeString(Files.createDirectories(root.resolve("a").resolve("b").resolve("c").resolve("d")).resolve("nats.properties"), "NET=deep");
+        try {
+            System.setProperty("user.dir", root.toString());
+            assertThat(NatsUtils.getPropertyFiles("nats.properties", 3, "node_modules,.git", false)).containsExactly(resources.resolve("nats.properties"));
+            assertThat(NatsUtils.getPropertyFiles("nats.properties", 4, "node_*", true)).hasSize(2);
+            assertThat(NatsUtils.getPropertyFiles("nats.properties", 10, "", false)).hasSize(3);
+
+            final Path added = Files.writeString(Files.createDirectories(root.resolve("config")).resolve("nats.properties"), "NET=added");
+            assertThat(NatsUtils.getPropertyFiles("nats.properties", 3, "node_modules,.git", false)).contains(added);
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @Test
+    @DisplayName("Delete directory")
+    void deleteDirectory_shouldDeleteRecursively() throws IOException {
+        final Path store = createStore(tempDir.resolve("store"));
+
+        NatsUtils.deleteDirectory(store);
+
+        assertThat(store).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Delete directory async")
+    void deleteDirectoryAsync_shouldRenameAndDeleteInBackground() throws Exception {
+        final Path store = createStore(tempDir.resolve("store"));
+
+        final var future = NatsUtils.deleteDirectoryAsync(store);
+        assertThat(store).doesNotExist();
+
+        future.get(10, TimeUnit.SECONDS);
+        assertThat(listChildren(tempDir)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Delete non existing directory async")
+    void deleteDirectoryAsync_withMissingDirectory_shouldComplete() {
+        assertThat(NatsUtils.deleteDirectoryAsync(tempDir.resolve("missing"))).isCompleted();
+        assertThat(NatsUtils.deleteDirectoryAsync(null)).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Reap leftover tombstones")
+    void reapTombstones_shouldDeleteLeftoversOnlyOnce() throws Exception {
+        final Path tombstone = createStore(tempDir.resolve("store" + TOMBSTONE_MARKER + "123"));
+        final Path store = createStore(tempDir.resolve("store"));
+
+        NatsUtils.reapTombstones(tempDir).get(10, TimeUnit.SECONDS);
+        assertThat(tombstone).doesNotExist();
+        assertThat(store).exists();
+
+        final Path lateTombstone = createStore(tempDir.resolve("other" + TOMBSTONE_MARKER + "456"));
+        assertThat(NatsUtils.reapTombstones(tempDir)).isCompleted();
+        assertThat(lateTombstone).exists();
+    }
+
+    private static Path createStore(final Path root) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            final Path stream = Files.createDirectories(root.resolve("jetstream").resolve("stream_" + i).resolve("msgs"));
+            for (int j = 0; j < 8; j++) {
+                Files.writeString(stream.resolve(j + ".blk"), "block " + j);
+            }
+        }
+        return root;
+    }
+
+    private static List<Path> listChildren(final Path dir) throws IOException {
+        try (final Stream<Path> children = Files.list(dir)) {
+            return children.toList();
+        }
+    }
+}
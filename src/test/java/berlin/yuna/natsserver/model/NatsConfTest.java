@@ -0,0 +1,64 @@
+package berlin.yuna.natsserver.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("UnitTest")
+@DisplayName("Nats conf test")
+class NatsConfTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void renderNestedBlocksAndLists() {
+        final NatsConf conf = new NatsConf().put("max_payload", 1048576).put("debug", true).put("server_name", "say \"hi\"");
+        conf.block("gateway").put("name", "east").put("gateways", List.of(new NatsConf().put("name", "west").put("urls", List.of("nats://127.0.0.1:7223"))));
+
+        final String result = conf.render();
+
+        assertThat(result).contains("max_payload: 1048576", "debug: true", "server_name: \"say \\\"hi\\\"\"");
+        assertThat(result).contains("gateway {", "name: \"east\"", "gateways: [", "name: \"west\"", "\"nats://127.0.0.1:7223\"");
+        assertThat(result.chars().filter(c -> c == '{').count()).isEqualTo(result.chars().filter(c -> c == '}').count());
+        assertThat(result.chars().filter(c -> c == '[').count()).isEqualTo(result.chars().filter(c -> c == ']').count());
+    }
+
+    @Test
+    void renderIncludesFirst() {
+        final NatsConf conf = new NatsConf().put("debug", true).include("..\\user\\nats.conf");
+
+        assertThat(conf.isEmpty()).isFalse();
+        assertThat(conf.render()).startsWith("include \"../user/nats.conf\"").contains("debug: true");
+    }
+
+    @Test
+    void removeValueWithNull() {
+        final NatsConf conf = new NatsConf().put("debug", true).put("debug", null);
+        assertThat(conf.isEmpty()).isTrue();
+        assertThat(conf.get("debug")).isNull();
+    }
+
+    @Test
+    void writeOnlyOnChange() throws Exception {
+        final Path file = tempDir.resolve("sub").resolve("nats.conf");
+        final NatsConf conf = new NatsConf().put("port", 4222);
+
+        conf.write(file);
+        final var modified = Files.getLastModifiedTime(file);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() - 10000));
+        final var backdated = Files.getLastModifiedTime(file);
+        conf.write(file);
+
+        assertThat(Files.readString(file)).contains("port: 4222");
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(backdated);
+    }
+}